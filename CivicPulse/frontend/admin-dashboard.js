@@ -11,6 +11,8 @@ let allGrievances = [];
 let allUsers = [];
 let allOfficers = [];
 let currentVerificationGrievance = null;
+let updateStream = null;
+let summaryRefreshTimer = null;
 
 // ========================================
 // INITIALIZATION
@@ -42,6 +44,7 @@ if (!currentAdmin) {
     setupFeedbackTabs(); // ✅ Setup feedback tabs
     setupFeedbackFilters(); // ✅ Setup feedback filters
     loadAllData();
+    subscribeToUpdates();
     
     console.log('✅ Admin Dashboard initialized!');
 });
@@ -120,6 +123,44 @@ function loadAllData() {
     loadFeedbackData(); // ✅ Load feedback data
      loadAnalyticsData();
 }
+// ========================================
+// LIVE UPDATES (Server-Sent Events)
+// ========================================
+function subscribeToUpdates() {
+    if (!window.EventSource) return;
+    
+    // EventSource cannot set headers; the stream takes the login token as a parameter
+    updateStream = new EventSource(`${API_URL}/stream?admin=true&token=${encodeURIComponent(localStorage.getItem('token') || '')}`);
+    ['CREATED', 'VERIFIED', 'ASSIGNED', 'STATUS_CHANGED', 'REOPENED', 'FEEDBACK_SUBMITTED', 'DELETED', 'ARCHIVED'].forEach(type => {
+        updateStream.addEventListener(type, e => applyGrievanceEvent(JSON.parse(e.data)));
+    });
+    // EventSource reconnects by itself and resumes from the last event id
+}
+
+function applyGrievanceEvent(event) {
+    const g = event.grievance;
+    const index = allGrievances.findIndex(existing => existing.id === g.id);
+    
+    if (event.type === 'DELETED' || event.type === 'ARCHIVED') {
+        if (index !== -1) allGrievances.splice(index, 1);
+    } else if (index !== -1) {
+        allGrievances[index] = { ...allGrievances[index], ...g };
+    } else {
+        allGrievances.unshift(g);
+    }
+    
+    updateSystemStats();
+    displayAllReports(allGrievances);
+    loadPendingVerification();
+    
+    // Feedback and analytics are aggregates: refresh once a burst of events settles
+    clearTimeout(summaryRefreshTimer);
+    summaryRefreshTimer = setTimeout(() => {
+        loadFeedbackData();
+        loadAnalyticsData();
+    }, 2000);
+}
+
 // ========================================
 // FETCH ALL GRIEVANCES (REAL DATA)
 // ========================================
@@ -226,8 +267,8 @@ function createVerificationCard(grievance) {
     
     let imagePreview;
     if (hasImage) {
-        // ✅ FIXED: Construct correct image URL
-        const imageUrl = `${API_URL}/grievances/image/${grievance.imagePath || grievance.imageUrl}`;
+        // ✅ FIXED: Construct correct image URL (small thumbnail once it has been generated)
+        const imageUrl = `${API_URL}/grievances/image/${grievance.thumbnailPath || grievance.imagePath || grievance.imageUrl}`;
         imagePreview = `<img src="${imageUrl}" alt="Preview" class="card-image-preview" onerror="this.style.display='none'; this.parentElement.querySelector('.no-image-preview').style.display='flex';">
                        <div class="no-image-preview" style="display: none;">📷 Image Load Failed</div>`;
     } else {
@@ -11,6 +11,8 @@ let map = null;
 let marker = null;
 let capturedImageBlob = null;
 let cameraStream = null;
+let myReports = [];
+let updateStream = null;
 
 // ========================================
 // INITIALIZE - Authentication Check
@@ -51,6 +53,7 @@ document.addEventListener('DOMContentLoaded', function() {
         loadDashboardStats();
         loadRecentReports();
         loadAllReports();
+        subscribeToUpdates(user.id);
         
         console.log('✅ Dashboard ready!');
         
@@ -121,30 +124,7 @@ async function loadDashboardStats() {
         
         console.log('✅ Parsed grievances:', grievances);
         
-        // Calculate stats
-        const total = Array.isArray(grievances) ? grievances.length : 0;
-        const pending = Array.isArray(grievances) ? grievances.filter(g => g.status === 'PENDING').length : 0;
-        const inProgress = Array.isArray(grievances) ? grievances.filter(g => g.status === 'IN_PROGRESS').length : 0;
-        const resolved = Array.isArray(grievances) ? grievances.filter(g => g.status === 'RESOLVED').length : 0;
-        
-        console.log('Stats:', { total, pending, inProgress, resolved });
-        
-        // Update DOM
-        const totalEl = document.getElementById('totalReports');
-        const pendingEl = document.getElementById('pendingReports');
-        const inProgressEl = document.getElementById('inProgressReports');
-        const resolvedEl = document.getElementById('resolvedReports');
-        
-        if (totalEl) totalEl.textContent = total;
-        if (pendingEl) pendingEl.textContent = pending;
-        if (inProgressEl) inProgressEl.textContent = inProgress;
-        if (resolvedEl) resolvedEl.textContent = resolved;
-        
-        const profileTotal = document.getElementById('profileTotalReports');
-        const profileResolved = document.getElementById('profileResolvedReports');
-        
-        if (profileTotal) profileTotal.textContent = total;
-        if (profileResolved) profileResolved.textContent = resolved;
+        renderStats(grievances);
         
         console.log('✅ Stats updated successfully!');
         
@@ -180,21 +160,7 @@ async function loadRecentReports() {
             return;
         }
         
-        const recentList = document.getElementById('recentReportsList');
-        if (!recentList) return;
-        
-        if (!Array.isArray(grievances) || grievances.length === 0) {
-            recentList.innerHTML = `
-                <div style="text-align: center; padding: 40px;">
-                    <div style="font-size: 48px; margin-bottom: 16px;">📝</div>
-                    <p style="color: #64748b; font-size: 16px; margin-bottom: 16px;">No reports yet</p>
-                    <button class="btn btn-primary" onclick="showReportSection()">Submit Your First Report</button>
-                </div>
-            `;
-        } else {
-            const recent = grievances.slice(0, 3);
-            recentList.innerHTML = recent.map(g => makeCard(g)).join('');
-        }
+        renderRecentReports(grievances);
         
         console.log('✅ Recent reports loaded:', grievances.length);
         
@@ -230,27 +196,115 @@ async function loadAllReports() {
             return;
         }
         
-        const list = document.getElementById('myReportsList');
-        if (!list) return;
-        
-        if (!Array.isArray(reports) || reports.length === 0) {
-            list.innerHTML = `
-                <div style="text-align: center; padding: 60px; grid-column: 1/-1;">
-                    <div style="font-size: 64px;">📋</div>
-                    <h3 style="color: #1e293b; margin: 20px 0 8px;">No Reports Found</h3>
-                    <p style="color: #64748b; margin-bottom: 24px;">Start by reporting an issue</p>
-                    <button class="btn btn-primary" onclick="showReportSection()">Submit New Report</button>
-                </div>
-            `;
-        } else {
-            list.innerHTML = reports.map(r => makeDetailCard(r)).join('');
-        }
+        myReports = Array.isArray(reports) ? reports : [];
+        renderAllReports(myReports);
         
         console.log('✅ All reports loaded:', reports.length);
         
     } catch (error) {
         console.error('❌ Error in loadAllReports:', error);
     }}
+
+// ========================================
+// LIVE UPDATES (Server-Sent Events)
+// ========================================
+function subscribeToUpdates(citizenId) {
+    if (!window.EventSource) return;
+    
+    // EventSource cannot set headers; the stream takes the login token as a parameter
+    updateStream = new EventSource(`${API_BASE_URL}/stream?citizenId=${citizenId}&token=${encodeURIComponent(localStorage.getItem('token') || '')}`);
+    ['CREATED', 'VERIFIED', 'ASSIGNED', 'STATUS_CHANGED', 'REOPENED', 'FEEDBACK_SUBMITTED', 'DELETED', 'ARCHIVED'].forEach(type => {
+        updateStream.addEventListener(type, e => applyReportEvent(JSON.parse(e.data)));
+    });
+    // EventSource reconnects by itself and resumes from the last event id
+}
+
+function applyReportEvent(event) {
+    const g = event.grievance;
+    const index = myReports.findIndex(r => r.id === g.id);
+    
+    if (event.type === 'DELETED' || event.type === 'ARCHIVED') {
+        if (index !== -1) myReports.splice(index, 1);
+    } else if (index !== -1) {
+        myReports[index] = { ...myReports[index], ...g };
+    } else {
+        myReports.unshift(g);
+    }
+    
+    renderStats(myReports);
+    renderRecentReports(myReports);
+    renderAllReports(myReports);
+}
+
+// ========================================
+// RENDER STATISTICS
+// ========================================
+function renderStats(grievances) {
+    // Calculate stats
+    const total = Array.isArray(grievances) ? grievances.length : 0;
+    const pending = Array.isArray(grievances) ? grievances.filter(g => g.status === 'PENDING').length : 0;
+    const inProgress = Array.isArray(grievances) ? grievances.filter(g => g.status === 'IN_PROGRESS').length : 0;
+    const resolved = Array.isArray(grievances) ? grievances.filter(g => g.status === 'RESOLVED').length : 0;
+    
+    console.log('Stats:', { total, pending, inProgress, resolved });
+    
+    // Update DOM
+    const totalEl = document.getElementById('totalReports');
+    const pendingEl = document.getElementById('pendingReports');
+    const inProgressEl = document.getElementById('inProgressReports');
+    const resolvedEl = document.getElementById('resolvedReports');
+    
+    if (totalEl) totalEl.textContent = total;
+    if (pendingEl) pendingEl.textContent = pending;
+    if (inProgressEl) inProgressEl.textContent = inProgress;
+    if (resolvedEl) resolvedEl.textContent = resolved;
+    
+    const profileTotal = document.getElementById('profileTotalReports');
+    const profileResolved = document.getElementById('profileResolvedReports');
+    
+    if (profileTotal) profileTotal.textContent = total;
+    if (profileResolved) profileResolved.textContent = resolved;
+}
+
+// ========================================
+// RENDER REPORT LISTS
+// ========================================
+function renderRecentReports(grievances) {
+    const recentList = document.getElementById('recentReportsList');
+    if (!recentList) return;
+    
+    if (!Array.isArray(grievances) || grievances.length === 0) {
+        recentList.innerHTML = `
+            <div style="text-align: center; padding: 40px;">
+                <div style="font-size: 48px; margin-bottom: 16px;">📝</div>
+                <p style="color: #64748b; font-size: 16px; margin-bottom: 16px;">No reports yet</p>
+                <button class="btn btn-primary" onclick="showReportSection()">Submit Your First Report</button>
+            </div>
+        `;
+    } else {
+        const recent = grievances.slice(0, 3);
+        recentList.innerHTML = recent.map(g => makeCard(g)).join('');
+    }
+}
+
+function renderAllReports(reports) {
+    const list = document.getElementById('myReportsList');
+    if (!list) return;
+    
+    if (!Array.isArray(reports) || reports.length === 0) {
+        list.innerHTML = `
+            <div style="text-align: center; padding: 60px; grid-column: 1/-1;">
+                <div style="font-size: 64px;">📋</div>
+                <h3 style="color: #1e293b; margin: 20px 0 8px;">No Reports Found</h3>
+                <p style="color: #64748b; margin-bottom: 24px;">Start by reporting an issue</p>
+                <button class="btn btn-primary" onclick="showReportSection()">Submit New Report</button>
+            </div>
+        `;
+    } else {
+        list.innerHTML = reports.map(r => makeDetailCard(r)).join('');
+    }
+}
+
 // ========================================
 // CREATE REPORT CARDS
 // ========================================
@@ -298,7 +352,7 @@ function makeDetailCard(r) {
                 <div class="report-card-location">📍 ${clean(r.location)}</div>
                 ${r.imagePath ? `
                     <div style="margin-top: 12px;">
-                        <img src="${API_BASE_URL}/uploads/${r.imagePath}" 
+                        <img src="${API_BASE_URL}/uploads/${r.thumbnailPath || r.imagePath}" 
                              alt="Issue" 
                              style="width: 100%; max-height: 200px; object-fit: cover; border-radius: 8px; cursor: pointer;"
                              onclick="openImageModal('${API_BASE_URL}/uploads/${r.imagePath}')"
@@ -9,6 +9,7 @@ const API_URL = 'http://localhost:8080/api';
 let currentOfficer = null;
 let allGrievances = [];
 let assignedGrievances = [];
+let updateStream = null;
 
 // ========================================
 // INITIALIZATION
@@ -37,6 +38,7 @@ document.addEventListener('DOMContentLoaded', function() {
     // Load officer data
     loadOfficerProfile();
     loadGrievancesData();
+    subscribeToUpdates();
     
     // Setup navigation
     setupNavigation();
@@ -106,11 +108,29 @@ function loadGrievancesData() {
 // ========================================
 // FETCH ASSIGNED GRIEVANCES FROM API
 // ========================================
+const QUEUE_PAGE_SIZE = 200;
+
 function fetchAssignedGrievances() {
+    return fetchAssignedPage(0, [])
+    .then(data => {
+        if (data === null) {
+            // If API fails, try all grievances
+            return fetchAllGrievances();
+        }
+        console.log('✅ Assigned grievances loaded:', data.length);
+        assignedGrievances = data;
+        updateDashboard();
+    })
+    .catch(error => {
+        console.warn('⚠️ Assigned API failed, loading all grievances');
+        return fetchAllGrievances();
+    });
+}
+// The queue is served in pages; follow X-Has-More until the last one (null if the API fails)
+function fetchAssignedPage(page, loaded) {
     const token = localStorage.getItem('token');
     
-    // ✅ CORRECT API ENDPOINT
-    return fetch(`${API_URL}/grievances/assigned/${currentOfficer.id}`, {
+    return fetch(`${API_URL}/grievances/assigned/${currentOfficer.id}?page=${page}&size=${QUEUE_PAGE_SIZE}`, {
         method: 'GET',
         headers: {
             'Content-Type': 'application/json',
@@ -119,21 +139,15 @@ function fetchAssignedGrievances() {
     })
     .then(response => {
         if (!response.ok) {
-            // If API fails, try all grievances
-            return fetchAllGrievances();
+            return null;
         }
-        return response.json();
-    })
-    .then(data => {
-        console.log('✅ Assigned grievances loaded:', data);
-        assignedGrievances = data || [];
-        updateDashboard();
-    })
-    .catch(error => {
-        console.warn('⚠️ Assigned API failed, loading all grievances');
-        return fetchAllGrievances();
+        return response.json().then(data => {
+            const all = loaded.concat(data || []);
+            return response.headers.get('X-Has-More') === 'true' ? fetchAssignedPage(page + 1, all) : all;
+        });
     });
 }
+
 // ========================================
 // FETCH ALL GRIEVANCES FROM API (REAL DATA)
 // ========================================
@@ -169,6 +183,41 @@ function fetchAllGrievances() {
     });
 }
 
+// ========================================
+// LIVE UPDATES (Server-Sent Events)
+// ========================================
+function subscribeToUpdates() {
+    if (!window.EventSource) return;
+    
+    // EventSource cannot set headers; the stream takes the login token as a parameter
+    // Only events for this officer's department are delivered
+    updateStream = new EventSource(`${API_URL}/stream?officerId=${currentOfficer.id}&token=${encodeURIComponent(localStorage.getItem('token') || '')}`);
+    ['CREATED', 'VERIFIED', 'ASSIGNED', 'STATUS_CHANGED', 'REOPENED', 'FEEDBACK_SUBMITTED', 'DELETED', 'ARCHIVED'].forEach(type => {
+        updateStream.addEventListener(type, e => applyGrievanceEvent(JSON.parse(e.data)));
+    });
+    // EventSource reconnects by itself and resumes from the last event id
+}
+
+function applyGrievanceEvent(event) {
+    // The queue leaves out linked duplicates, as a reload would
+    upsertGrievance(assignedGrievances, event, true);
+    upsertGrievance(allGrievances, event, false);
+    updateDashboard();
+}
+
+function upsertGrievance(list, event, skipDuplicates) {
+    const g = event.grievance;
+    const index = list.findIndex(existing => existing.id === g.id);
+    
+    if (event.type === 'DELETED' || event.type === 'ARCHIVED' || (skipDuplicates && g.masterGrievanceId)) {
+        if (index !== -1) list.splice(index, 1);
+    } else if (index !== -1) {
+        list[index] = { ...list[index], ...g };
+    } else {
+        list.unshift(g);
+    }
+}
+
 // ========================================
 // DEMO DATA (when API is not available)
 // ========================================
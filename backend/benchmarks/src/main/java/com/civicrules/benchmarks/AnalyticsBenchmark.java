@@ -0,0 +1,55 @@
+package com.civicrules.benchmarks;
+
+import com.civicrules.dto.AnalyticsDTO.DashboardStats;
+import com.civicrules.dto.AnalyticsDTO.RedZone;
+import com.civicrules.dto.AnalyticsDTO.SLAPerformance;
+import com.civicrules.service.AnalyticsService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Analytics endpoints as served by AnalyticsService over the seeded database
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class AnalyticsBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int grievanceCount;
+
+    private ConfigurableApplicationContext context;
+    private AnalyticsService analyticsService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(grievanceCount);
+        analyticsService = context.getBean(AnalyticsService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public DashboardStats dashboardStats() {
+        return analyticsService.getDashboardStats();
+    }
+
+    @Benchmark
+    public List<SLAPerformance> slaPerformance() {
+        return analyticsService.getSLAPerformance();
+    }
+
+    @Benchmark
+    public List<RedZone> redZones() {
+        return analyticsService.getRedZones();
+    }
+}
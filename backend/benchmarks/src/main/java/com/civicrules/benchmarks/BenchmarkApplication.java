@@ -0,0 +1,102 @@
+package com.civicrules.benchmarks;
+
+import com.civicrules.CivicPulseApplication;
+import com.civicrules.service.AnalyticsAggregateStore;
+import com.civicrules.service.GeoIndex;
+import com.civicrules.service.HotspotEngine;
+import com.civicrules.service.IdSequenceBackfill;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The real application context on a fresh in-memory H2 database (MySQL mode)
+ * filled with synthetic grievances.
+ *
+ * With BENCH_DB_URL set (plus BENCH_DB_USERNAME and BENCH_DB_PASSWORD) it
+ * runs against that database instead, e.g. a local MySQL for measurements
+ * where statement round trips count. Every trial wipes the database and
+ * migrates it from scratch, so point it at a throwaway schema only.
+ */
+public final class BenchmarkApplication {
+
+    private static final String EXTERNAL_URL = System.getenv("BENCH_DB_URL");
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * True when running against BENCH_DB_URL rather than in-memory H2
+     */
+    static boolean isExternalDatabase() {
+        return EXTERNAL_URL != null && !EXTERNAL_URL.isBlank();
+    }
+
+    /**
+     * @param extraArgs further --property=value overrides, applied last
+     */
+    public static ConfigurableApplicationContext start(int grievanceCount, String... extraArgs) {
+        List<String> args = new ArrayList<>(isExternalDatabase() ? externalDatabase() : inMemoryDatabase());
+        args.addAll(List.of(
+                "--server.port=0",
+                // Schema from the Flyway migrations, with their indexes; enum columns do not validate on H2
+                "--spring.jpa.hibernate.ddl-auto=none",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                // Background jobs would only add noise to the measurements
+                "--outbox.relay.interval-ms=3600000",
+                "--upload.sweep.interval-ms=3600000",
+                "--hotspots.expiry-interval-ms=3600000",
+                "--upload.ingest.retry-interval-ms=3600000",
+                "--search.path=target/search-index",
+                // Tokens only live for the run
+                "--jwt.secret=" + UUID.randomUUID() + UUID.randomUUID()
+        ));
+        args.addAll(Arrays.asList(extraArgs));
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(CivicPulseApplication.class)
+                // SecurityConfig needs the MVC infrastructure; a random port keeps runs independent
+                .web(WebApplicationType.SERVLET)
+                .run(args.toArray(new String[0]));
+
+        SyntheticData.load(context.getBean(JdbcTemplate.class), grievanceCount);
+        context.getBean(IdSequenceBackfill.class).align();
+        // The in-memory indexes seeded from an empty table at startup
+        context.getBean(AnalyticsAggregateStore.class).seed();
+        context.getBean(GeoIndex.class).seed();
+        context.getBean(HotspotEngine.class).seed();
+        return context;
+    }
+
+    private static List<String> inMemoryDatabase() {
+        String database = "bench-" + UUID.randomUUID();
+        return List.of(
+                "--spring.datasource.url=jdbc:h2:mem:" + database
+                        + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect");
+    }
+
+    private static List<String> externalDatabase() {
+        String username = System.getenv().getOrDefault("BENCH_DB_USERNAME", "root");
+        String password = System.getenv().getOrDefault("BENCH_DB_PASSWORD", "");
+        // Synthetic rows use fixed ids, so each trial starts from an empty schema
+        Flyway.configure()
+                .dataSource(EXTERNAL_URL, username, password)
+                .cleanDisabled(false)
+                .load()
+                .clean();
+        return List.of(
+                "--spring.datasource.url=" + EXTERNAL_URL,
+                "--spring.datasource.username=" + username,
+                "--spring.datasource.password=" + password);
+    }
+}
@@ -0,0 +1,112 @@
+package com.civicrules.benchmarks;
+
+import com.civicrules.model.Grievance;
+import com.civicrules.model.User;
+import com.civicrules.repository.GrievanceRepository;
+import com.civicrules.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bulk import of grievances through JPA, one transaction per import.
+ *
+ * idGeneration=identity is the baseline: the same rows as
+ * {@link IdentityGrievance}, whose AUTO_INCREMENT ids make Hibernate send
+ * each INSERT alone. idGeneration=pooled saves {@link Grievance} entities
+ * with ids from the pooled allocator, which Hibernate sends in JDBC batches
+ * of jdbcBatchSize. On in-memory H2 a statement costs no round trip, so the
+ * gap only shows against a real server; run with BENCH_DB_URL pointing at
+ * MySQL (see {@link BenchmarkApplication} and the module pom).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class InsertBenchmark {
+
+    private static final int EXISTING_GRIEVANCES = 10000;
+
+    @Param({"identity", "pooled"})
+    public String idGeneration;
+
+    @Param({"50"})
+    public int jdbcBatchSize;
+
+    @Param({"500"})
+    public int rowsPerImport;
+
+    private ConfigurableApplicationContext context;
+    private GrievanceRepository grievanceRepository;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager entityManager;
+    private User citizen;
+    private int imported;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(EXISTING_GRIEVANCES,
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize);
+        grievanceRepository = context.getBean(GrievanceRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        citizen = context.getBean(UserRepository.class).findById(1L).orElseThrow();
+
+        if ("identity".equals(idGeneration)) {
+            // The synthetic rows have explicit ids; H2 does not move its counter past those
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            long next = jdbc.queryForObject("SELECT MAX(id) FROM grievances", Long.class) + 1;
+            jdbc.execute(BenchmarkApplication.isExternalDatabase()
+                    ? "ALTER TABLE grievances AUTO_INCREMENT = " + next
+                    : "ALTER TABLE grievances ALTER COLUMN id RESTART WITH " + next);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<?> bulkImport() {
+        List<Grievance> rows = new ArrayList<>(rowsPerImport);
+        for (int i = 0; i < rowsPerImport; i++) {
+            int n = imported++;
+            String category = SyntheticData.CATEGORIES[n % SyntheticData.CATEGORIES.length];
+            Grievance g = new Grievance();
+            g.setTitle("Imported grievance " + n);
+            g.setCategory(category);
+            g.setDepartment(category);
+            g.setLocation("Ward " + n % 200);
+            g.setDescription("Imported grievance " + n + " from the legacy register");
+            g.setStatus(Grievance.Status.PENDING);
+            g.setVerificationStatus("PENDING");
+            g.setLatitude(28.40 + (n % 20) * 0.02);
+            g.setLongitude(77.00 + (n % 7) * 0.02);
+            g.setUser(citizen);
+            rows.add(g);
+        }
+        if ("pooled".equals(idGeneration)) {
+            return transactionTemplate.execute(tx -> grievanceRepository.saveAll(rows));
+        }
+        return transactionTemplate.execute(tx -> {
+            List<IdentityGrievance> saved = new ArrayList<>(rows.size());
+            for (Grievance g : rows) {
+                IdentityGrievance row = IdentityGrievance.of(g);
+                entityManager.persist(row);
+                saved.add(row);
+            }
+            return saved;
+        });
+    }
+}
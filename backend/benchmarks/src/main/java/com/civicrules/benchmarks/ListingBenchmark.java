@@ -0,0 +1,48 @@
+package com.civicrules.benchmarks;
+
+import com.civicrules.controller.GrievanceController;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /api/grievances end to end (query + DTO mapping, no HTTP): the legacy
+ * full list against the first keyset page
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx6g"})
+public class ListingBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int grievanceCount;
+
+    private ConfigurableApplicationContext context;
+    private GrievanceController grievanceController;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(grievanceCount);
+        grievanceController = context.getBean(GrievanceController.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> fullList() {
+        return grievanceController.getAllGrievances(null, null, null, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> firstPage() {
+        return grievanceController.getAllGrievances(null, 50, null, null);
+    }
+}
@@ -0,0 +1,186 @@
+package com.civicrules.benchmarks;
+
+import com.civicrules.model.Feedback;
+import com.civicrules.model.Grievance;
+import com.civicrules.model.User;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic grievances, either inserted into the benchmark
+ * database or built as detached entities for the mapping benchmarks.
+ *
+ * Shape: a few categories, a couple of hundred locations with a skewed
+ * (hot-spot) distribution, one citizen per hundred grievances, statuses
+ * roughly 40% resolved / 30% in progress / 30% pending over the last year.
+ */
+public final class SyntheticData {
+
+    static final String[] CATEGORIES = {
+            "Road", "Water Supply", "Electricity", "Sanitation",
+            "Street Light", "Drainage", "Parks", "Traffic"
+    };
+
+    private static final int LOCATIONS = 200;
+    private static final int OFFICERS = 20;
+    private static final int INSERT_BATCH_SIZE = 5000;
+    private static final long SEED = 42L;
+
+    private SyntheticData() {
+    }
+
+    static int citizenCount(int grievanceCount) {
+        return Math.max(10, grievanceCount / 100);
+    }
+
+    /**
+     * Insert users and grievances with plain JDBC batches (much faster than JPA for millions of rows).
+     * Ids are explicit, as the id allocators are only moved past them afterwards.
+     */
+    public static void load(JdbcTemplate jdbc, int grievanceCount) {
+        LocalDateTime now = LocalDateTime.now();
+        int citizens = citizenCount(grievanceCount);
+
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 1; i <= citizens + OFFICERS; i++) {
+            boolean officer = i > citizens;
+            users.add(new Object[]{
+                    (long) i,
+                    (officer ? "Officer " : "Citizen ") + i,
+                    "user" + i + "@bench.local",
+                    "x",
+                    (officer ? "Officer " : "Citizen ") + i,
+                    officer ? "OFFICER" : "CITIZEN",
+                    officer ? CATEGORIES[i % CATEGORIES.length] : null,
+                    true,
+                    Timestamp.valueOf(now)
+            });
+        }
+        jdbc.batchUpdate("INSERT INTO users (id, name, email, password, full_name, role, department, is_active, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", users);
+
+        Random random = new Random(SEED);
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < grievanceCount; i++) {
+            Row row = row(random, now, citizens);
+            batch.add(new Object[]{
+                    (long) i + 1, "Grievance " + i, row.category, Grievance.normalizeCategory(row.category), row.location,
+                    "Synthetic grievance " + i + " reported at " + row.location, "bench-" + i + ".jpg",
+                    row.status == Grievance.Status.PENDING ? "PENDING" : "APPROVED", row.status.name(),
+                    row.latitude, row.longitude, row.citizenId,
+                    row.status == Grievance.Status.PENDING ? null : citizens + 1 + random.nextInt(OFFICERS),
+                    row.category, Timestamp.valueOf(row.createdAt),
+                    row.resolvedAt != null ? Timestamp.valueOf(row.resolvedAt) : null, false
+            });
+            if (batch.size() == INSERT_BATCH_SIZE) {
+                insertGrievances(jdbc, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertGrievances(jdbc, batch);
+        }
+    }
+
+    /**
+     * The same distribution as detached entities, with citizen and officer users attached
+     */
+    public static List<Grievance> grievances(int grievanceCount) {
+        LocalDateTime now = LocalDateTime.now();
+        int citizens = citizenCount(grievanceCount);
+
+        List<User> users = new ArrayList<>();
+        for (int i = 1; i <= citizens + OFFICERS; i++) {
+            User user = new User();
+            user.setId((long) i);
+            user.setName((i > citizens ? "Officer " : "Citizen ") + i);
+            user.setFullName(user.getName());
+            user.setEmail("user" + i + "@bench.local");
+            users.add(user);
+        }
+
+        Random random = new Random(SEED);
+        List<Grievance> grievances = new ArrayList<>(grievanceCount);
+        for (int i = 0; i < grievanceCount; i++) {
+            Row row = row(random, now, citizens);
+            Grievance g = new Grievance();
+            g.setId((long) i + 1);
+            g.setTitle("Grievance " + i);
+            g.setCategory(row.category);
+            g.setLocation(row.location);
+            g.setDescription("Synthetic grievance " + i + " reported at " + row.location);
+            g.setImagePath("bench-" + i + ".jpg");
+            g.setStatus(row.status);
+            g.setVerificationStatus(row.status == Grievance.Status.PENDING ? "PENDING" : "APPROVED");
+            g.setLatitude(row.latitude);
+            g.setLongitude(row.longitude);
+            g.setUser(users.get((int) (row.citizenId - 1)));
+            if (row.status != Grievance.Status.PENDING) {
+                g.setAssignedTo(users.get(citizens + random.nextInt(OFFICERS)));
+            }
+            g.setDepartment(row.category);
+            g.setCreatedAt(row.createdAt);
+            g.setResolvedAt(row.resolvedAt);
+            grievances.add(g);
+        }
+        return grievances;
+    }
+
+    /**
+     * One feedback per resolved grievance
+     */
+    public static List<Feedback> feedback(List<Grievance> grievances) {
+        Random random = new Random(SEED);
+        List<Feedback> feedback = new ArrayList<>();
+        long id = 1;
+        for (Grievance g : grievances) {
+            if (g.getStatus() == Grievance.Status.RESOLVED) {
+                Feedback f = new Feedback(g, g.getUser(), 1 + random.nextInt(5), "Synthetic feedback");
+                f.setId(id++);
+                f.setIsReopened(random.nextInt(20) == 0);
+                feedback.add(f);
+            }
+        }
+        return feedback;
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    private static void insertGrievances(JdbcTemplate jdbc, List<Object[]> batch) {
+        jdbc.batchUpdate("INSERT INTO grievances (id, title, category, category_key, location, description, image_path, " +
+                "verification_status, status, latitude, longitude, citizen_id, assigned_to, department, " +
+                "created_at, resolved_at, feedback_submitted) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+    }
+
+    private static Row row(Random random, LocalDateTime now, int citizens) {
+        String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+        // Squaring skews towards low indexes: a few locations get most complaints
+        int location = (int) (Math.pow(random.nextDouble(), 2) * LOCATIONS);
+        double latitude = 28.40 + (location % 20) * 0.02;
+        double longitude = 77.00 + (location / 20) * 0.02;
+
+        LocalDateTime createdAt = now.minusMinutes(random.nextInt(365 * 24 * 60));
+        int statusRoll = random.nextInt(10);
+        Grievance.Status status = statusRoll < 4 ? Grievance.Status.RESOLVED
+                : statusRoll < 7 ? Grievance.Status.IN_PROGRESS
+                : Grievance.Status.PENDING;
+        LocalDateTime resolvedAt = status == Grievance.Status.RESOLVED
+                ? createdAt.plusHours(1 + random.nextInt(10 * 24))
+                : null;
+
+        return new Row(category, "Ward " + location, latitude, longitude,
+                1L + random.nextInt(citizens), status, createdAt, resolvedAt);
+    }
+
+    private record Row(String category, String location, double latitude, double longitude, long citizenId,
+                       Grievance.Status status, LocalDateTime createdAt, LocalDateTime resolvedAt) {
+    }
+}
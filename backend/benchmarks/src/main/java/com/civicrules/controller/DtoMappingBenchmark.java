@@ -0,0 +1,58 @@
+package com.civicrules.controller;
+
+import com.civicrules.benchmarks.SyntheticData;
+import com.civicrules.model.Feedback;
+import com.civicrules.model.Grievance;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-row DTO mapping loops of GrievanceController.getAllGrievances and
+ * FeedbackController's admin lists, over detached entities (no database).
+ * Lives in the controller package to reach the package-private mappers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class DtoMappingBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int grievanceCount;
+
+    private final GrievanceController grievanceController = new GrievanceController();
+    private final FeedbackController feedbackController = new FeedbackController();
+
+    private List<Grievance> grievances;
+    private List<Feedback> feedback;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        grievances = SyntheticData.grievances(grievanceCount);
+        feedback = SyntheticData.feedback(grievances);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> grievanceList() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Grievance g : grievances) {
+            result.add(grievanceController.mapGrievanceToDTO(g));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> feedbackList() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Feedback f : feedback) {
+            result.add(feedbackController.mapFeedbackToDTO(f));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,118 @@
+package com.civicrules.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps how many API requests work against the database at once.
+ *
+ * With virtual threads there is no request thread pool to queue bursts, so
+ * thousands of requests could otherwise pile onto the connection pool and
+ * time out there one by one; on platform threads the Tomcat pool already
+ * bounds them and this filter is not registered. Requests beyond the limit
+ * wait up to {@code db.admission.timeout-ms} for a slot and are then turned
+ * away with 503 and Retry-After. Image downloads and event streams do not
+ * hold a connection and are not counted.
+ *
+ * The limit is at most half the connection pool: a request that inserts may
+ * take a second connection to reserve an id block, and scheduled jobs need
+ * connections of their own.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class DatabaseAdmissionFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseAdmissionFilter.class);
+
+    private final Semaphore permits;
+    private final long timeoutMs;
+    private final boolean enabled;
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    public DatabaseAdmissionFilter(
+            @Value("${db.admission.enabled:true}") boolean enabled,
+            @Value("${db.admission.max-concurrent:0}") int maxConcurrent,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${db.admission.timeout-ms:2000}") long timeoutMs
+    ) {
+        this.enabled = enabled;
+        this.permits = new Semaphore(admissionLimit(maxConcurrent, poolSize), true);
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Half the pool, or the configured limit if lower (0 = half the pool)
+     */
+    static int admissionLimit(int maxConcurrent, int poolSize) {
+        int ceiling = Math.max(1, poolSize / 2);
+        if (maxConcurrent <= 0) {
+            return ceiling;
+        }
+        if (maxConcurrent > ceiling) {
+            log.warn("db.admission.max-concurrent={} exceeds half the connection pool ({}); using {}",
+                    maxConcurrent, poolSize, ceiling);
+            return ceiling;
+        }
+        return maxConcurrent;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !enabled
+                || !path.startsWith("/api/")
+                || path.startsWith("/api/stream")
+                || path.startsWith("/api/grievances/image/")
+                || path.startsWith("/api/uploads/")
+                || path.startsWith("/uploads/")
+                || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean admitted;
+        try {
+            admitted = permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            rejected.incrementAndGet();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server busy, retry shortly");
+            return;
+        }
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+}
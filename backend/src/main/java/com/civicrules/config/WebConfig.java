@@ -2,7 +2,6 @@ package com.civicrules.config;
 
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
@@ -18,17 +17,8 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedOrigins("*") // In production, specify your frontend URL
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS")
                 .allowedHeaders("*")
-                .exposedHeaders("Authorization")
+                .exposedHeaders("Authorization", "X-Has-More")
                 .allowCredentials(false) // Set to false when using "*" for origins
                 .maxAge(3600);
     }
-
-    /**
-     * Serve static resources (uploads folder)
-     */
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:./uploads/");
-    }
 }
\ No newline at end of file
@@ -1,13 +1,20 @@
 package com.civicrules.controller;
 
 import com.civicrules.dto.AnalyticsDTO.*;
+import com.civicrules.model.SlaTarget;
+import com.civicrules.service.AnalyticsCache;
 import com.civicrules.service.AnalyticsService;
+import com.civicrules.service.SlaTargetService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/analytics")
@@ -17,15 +24,22 @@ public class AnalyticsController {
     @Autowired
     private AnalyticsService analyticsService;
 
+    @Autowired
+    private SlaTargetService slaTargetService;
+
+    @Autowired
+    private AnalyticsCache analyticsCache;
+
     /**
      * Get complete dashboard statistics
      * Endpoint: GET /api/analytics/dashboard
      */
     @GetMapping("/dashboard")
-    public ResponseEntity<DashboardStats> getDashboardStats() {
+    public ResponseEntity<DashboardStats> getDashboardStats(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch
+    ) {
         try {
-            DashboardStats stats = analyticsService.getDashboardStats();
-            return ResponseEntity.ok(stats);
+            return cached("dashboard", analyticsService::getDashboardStats, ifNoneMatch);
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -38,10 +52,11 @@ public class AnalyticsController {
      * Endpoint: GET /api/analytics/category-distribution
      */
     @GetMapping("/category-distribution")
-    public ResponseEntity<List<CategoryDistribution>> getCategoryDistribution() {
+    public ResponseEntity<List<CategoryDistribution>> getCategoryDistribution(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch
+    ) {
         try {
-            List<CategoryDistribution> distribution = analyticsService.getCategoryDistribution();
-            return ResponseEntity.ok(distribution);
+            return cached("category-distribution", analyticsService::getCategoryDistribution, ifNoneMatch);
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -53,10 +68,11 @@ public class AnalyticsController {
      * Endpoint: GET /api/analytics/zone-distribution
      */
     @GetMapping("/zone-distribution")
-    public ResponseEntity<List<ZoneDistribution>> getZoneDistribution() {
+    public ResponseEntity<List<ZoneDistribution>> getZoneDistribution(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch
+    ) {
         try {
-            List<ZoneDistribution> distribution = analyticsService.getZoneDistribution();
-            return ResponseEntity.ok(distribution);
+            return cached("zone-distribution", analyticsService::getZoneDistribution, ifNoneMatch);
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -68,10 +84,11 @@ public class AnalyticsController {
      * Endpoint: GET /api/analytics/sla-performance
      */
     @GetMapping("/sla-performance")
-    public ResponseEntity<List<SLAPerformance>> getSLAPerformance() {
+    public ResponseEntity<List<SLAPerformance>> getSLAPerformance(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch
+    ) {
         try {
-            List<SLAPerformance> performance = analyticsService.getSLAPerformance();
-            return ResponseEntity.ok(performance);
+            return cached("sla-performance", analyticsService::getSLAPerformance, ifNoneMatch);
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -83,13 +100,100 @@ public class AnalyticsController {
      * Endpoint: GET /api/analytics/red-zones
      */
     @GetMapping("/red-zones")
-    public ResponseEntity<List<RedZone>> getRedZones() {
+    public ResponseEntity<List<RedZone>> getRedZones(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch
+    ) {
+        try {
+            return cached("red-zones", analyticsService::getRedZones, ifNoneMatch);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Analytics result cache counters
+     * Endpoint: GET /api/analytics/cache/stats
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(analyticsCache.getStats());
+    }
+
+    // ========================================
+    // SLA TARGETS (ADMIN)
+    // ========================================
+
+    /**
+     * Get per-category SLA targets
+     * Endpoint: GET /api/analytics/sla-targets
+     */
+    @GetMapping("/sla-targets")
+    public ResponseEntity<?> getSlaTargets() {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("targets", slaTargetService.getTargets());
+            response.put("defaultTargetDays", slaTargetService.getDefaultTargetDays());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Create or change a category's SLA target
+     * Endpoint: PUT /api/analytics/sla-targets/{category}?targetDays=3
+     */
+    @PutMapping("/sla-targets/{category}")
+    public ResponseEntity<?> setSlaTarget(@PathVariable String category, @RequestParam int targetDays) {
         try {
-            List<RedZone> redZones = analyticsService.getRedZones();
-            return ResponseEntity.ok(redZones);
+            SlaTarget target = slaTargetService.setTarget(category, targetDays);
+            return ResponseEntity.ok(target);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Remove a category's SLA target (the default applies again)
+     * Endpoint: DELETE /api/analytics/sla-targets/{category}
+     */
+    @DeleteMapping("/sla-targets/{category}")
+    public ResponseEntity<?> deleteSlaTarget(@PathVariable String category) {
+        try {
+            if (!slaTargetService.deleteTarget(category)) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok().body("SLA target removed");
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    /**
+     * Serve a cached result with its version ETag; 304 when the client already has it.
+     * no-cache makes browsers revalidate every time, which costs a 304 at most.
+     */
+    private <T> ResponseEntity<T> cached(String key, Supplier<T> compute, String ifNoneMatch) {
+        AnalyticsCache.Entry<T> entry = analyticsCache.get(key, compute);
+        if (entry.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(entry.etag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(entry.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(entry.value());
+    }
+}
@@ -10,7 +10,16 @@ import com.civicrules.repository.UserRepository;
 import com.civicrules.repository.CitizenRepository;
 import com.civicrules.repository.AdminRepository;
 import com.civicrules.repository.OfficerRepository;
+import com.civicrules.dto.UserChangedEvent;
+import com.civicrules.service.CredentialService;
+import com.civicrules.service.IdentityCache;
+import com.civicrules.service.TokenService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -20,12 +29,16 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = "*", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE, RequestMethod.OPTIONS})
 public class AuthController {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+
     @Autowired
     private UserRepository userRepository;
 
@@ -38,6 +51,18 @@ public class AuthController {
     @Autowired
     private OfficerRepository officerRepository;
 
+    @Autowired
+    private CredentialService credentialService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private IdentityCache identityCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @GetMapping("/test")
     public ResponseEntity<String> test() {
         return ResponseEntity.ok("Auth API is working!");
@@ -75,13 +100,15 @@ public class AuthController {
                 return ResponseEntity.badRequest().body(createErrorResponse("Email already registered"));
             }
 
+            String passwordHash = credentialService.hash(request.getPassword());
+
             User user = new User();
             user.setName(request.getName());
             user.setFullName(request.getName());
             user.setEmail(request.getEmail());
             user.setPhone(request.getPhone());
             user.setPhoneNumber(request.getPhone());
-            user.setPassword(request.getPassword());
+            user.setPassword(passwordHash);
             user.setUsername(request.getEmail());
             user.setRole(role);
             user.setActive(true);
@@ -94,7 +121,7 @@ public class AuthController {
                 citizen.setName(request.getName());
                 citizen.setEmail(request.getEmail());
                 citizen.setPhoneNumber(request.getPhone());
-                citizen.setPassword(request.getPassword());
+                citizen.setPassword(passwordHash);
                 citizen.setCreatedAt(LocalDateTime.now());
                 citizen.setIsActive(true);
                 citizenRepository.save(citizen);
@@ -104,7 +131,7 @@ public class AuthController {
                 admin.setFullName(request.getName());
                 admin.setEmail(request.getEmail());
                 admin.setPhoneNumber(request.getPhone());
-                admin.setPassword(request.getPassword());
+                admin.setPassword(passwordHash);
                 admin.setCreatedAt(LocalDateTime.now());
                 admin.setIsActive(true);
                 adminRepository.save(admin);
@@ -116,7 +143,7 @@ public class AuthController {
                 officer.setEmail(request.getEmail());
                 officer.setPhoneNumber(request.getPhone());
                 officer.setPhone(request.getPhone());
-                officer.setPassword(request.getPassword());
+                officer.setPassword(passwordHash);
                 officer.setDepartment("General");
                 officer.setCreatedAt(LocalDateTime.now());
                 officer.setIsActive(true);
@@ -137,66 +164,61 @@ public class AuthController {
         }
     }
 
+    /**
+     * Login. The password check runs on the credential verifier pool; the
+     * request thread is released while it waits.
+     */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest request) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest request) {
         try {
-            System.out.println("🔍 Login attempt for email: " + request.getEmail());
-
-            Optional<User> userOptional = userRepository.findByEmail(request.getEmail());
+            Optional<User> userOptional = identityCache.findUserByEmail(request.getEmail());
 
             if (!userOptional.isPresent()) {
-                System.out.println("❌ User not found in database");
-                return ResponseEntity.badRequest().body(Map.of("message", "User not found"));
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of("message", "User not found")));
             }
 
             User user = userOptional.get();
 
-            System.out.println("🔍 User found: " + user.getEmail());
-            System.out.println("🔍 Password from DB: " + (user.getPassword() != null ? "EXISTS (length: " + user.getPassword().length() + ")" : "NULL"));
-            System.out.println("🔍 Password from request: " + (request.getPassword() != null ? "EXISTS (length: " + request.getPassword().length() + ")" : "NULL"));
-
             if (user.getPassword() == null) {
-                System.out.println("❌ Password is NULL in database!");
-                return ResponseEntity.badRequest().body(Map.of("message", "Account error. Please contact support."));
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of("message", "Account error. Please contact support.")));
             }
 
             if (request.getPassword() == null) {
-                System.out.println("❌ No password provided in request!");
-                return ResponseEntity.badRequest().body(Map.of("message", "Password is required"));
-            }
-
-            if (!user.getPassword().equals(request.getPassword())) {
-                System.out.println("❌ Password mismatch!");
-                return ResponseEntity.badRequest().body(Map.of("message", "Invalid password"));
-            }
-
-            if (!user.getIsActive()) {
-                System.out.println("❌ Account is deactivated");
-                return ResponseEntity.badRequest().body(Map.of("message", "Account is deactivated"));
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of("message", "Password is required")));
             }
 
-            System.out.println("✅ Login successful for: " + user.getEmail());
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "Login successful");
-            response.put("token", "jwt-token-here");
-            response.put("user", Map.of(
-                    "id", user.getId(),
-                    "name", user.getName() != null ? user.getName() : user.getFullName(),
-                    "email", user.getEmail(),
-                    "phone", user.getPhone() != null ? user.getPhone() : user.getPhoneNumber(),
-                    "role", user.getRole().toString()
-            ));
-
-            return ResponseEntity.ok(response);
-
+            return credentialService.verifyAsync(request.getPassword(), user.getPassword())
+                    .<ResponseEntity<?>>thenApply(verification -> completeLogin(user, verification))
+                    .exceptionally(e -> {
+                        log.warn("Login failed", e);
+                        return ResponseEntity.status(500).body(Map.of("message", "Login failed: " + e.getMessage()));
+                    });
+
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("message", "Too many login attempts. Please try again.")));
         } catch (Exception e) {
-            System.out.println("❌ Login exception: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.status(500).body(Map.of("message", "Login failed: " + e.getMessage()));
+            log.warn("Login failed", e);
+            return CompletableFuture.completedFuture(ResponseEntity.status(500).body(Map.of("message", "Login failed: " + e.getMessage())));
         }
     }
 
+    /**
+     * Credential verifier pool: configured bcrypt cost, queue depth and rejections
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<?> getCredentialMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("bcryptStrength", credentialService.getStrength());
+        metrics.put("queueDepth", credentialService.getQueueDepth());
+        metrics.put("activeVerifications", credentialService.getActiveCount());
+        metrics.put("verified", credentialService.getVerifiedCount());
+        metrics.put("rejected", credentialService.getRejectedCount());
+        metrics.put("averageVerifyMs", credentialService.getAverageVerifyMillis());
+        return ResponseEntity.ok(metrics);
+    }
+
     @GetMapping("/grievances/citizen/{citizenId}")
     public ResponseEntity<?> getCitizenGrievances(@PathVariable Long citizenId) {
         try {
@@ -227,6 +249,35 @@ public class AuthController {
         }
     }
 
+    private ResponseEntity<?> completeLogin(User user, CredentialService.Verification verification) {
+        if (!verification.matches()) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid password"));
+        }
+
+        if (!user.getIsActive()) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Account is deactivated"));
+        }
+
+        if (verification.upgradedHash() != null) {
+            // Plaintext or lower-cost hash: replace it now that the password is known
+            userRepository.updatePassword(user.getId(), verification.upgradedHash());
+            eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Login successful");
+        response.put("token", tokenService.issue(user));
+        response.put("user", Map.of(
+                "id", user.getId(),
+                "name", user.getName() != null ? user.getName() : user.getFullName(),
+                "email", user.getEmail(),
+                "phone", user.getPhone() != null ? user.getPhone() : user.getPhoneNumber(),
+                "role", user.getRole().toString()
+        ));
+
+        return ResponseEntity.ok(response);
+    }
+
     private Map<String, Object> createErrorResponse(String message) {
         Map<String, Object> errorResponse = new HashMap<>();
         errorResponse.put("message", message);
@@ -1,7 +1,9 @@
 package com.civicrules.controller;
 
+import com.civicrules.dto.UserChangedEvent;
 import com.civicrules.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -20,6 +22,9 @@ public class DepartmentUpdateController {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * 🔧 DIRECT SQL UPDATE - Bypasses JPA
      * URL: http://localhost:8080/api/admin/update-departments-sql
@@ -51,6 +56,9 @@ public class DepartmentUpdateController {
 
             int totalUpdated = r1 + r2 + r3 + r4 + r5;
 
+            // Bypassed JPA, so drop every cached identity
+            eventPublisher.publishEvent(UserChangedEvent.all());
+
             System.out.println("\n================================");
             System.out.println("🎉 UPDATED: " + totalUpdated + " officers");
             System.out.println("================================\n");
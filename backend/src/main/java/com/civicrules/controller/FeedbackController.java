@@ -1,14 +1,20 @@
 package com.civicrules.controller;
 
+import com.civicrules.dto.GrievanceEvent;
+import com.civicrules.dto.GrievanceSnapshot;
 import com.civicrules.model.Feedback;
 import com.civicrules.model.Grievance;
 import com.civicrules.model.User;
 import com.civicrules.repository.FeedbackRepository;
 import com.civicrules.repository.GrievanceRepository;
-import com.civicrules.repository.UserRepository;
+import com.civicrules.service.EventOutbox;
+import com.civicrules.service.GrievanceArchive;
+import com.civicrules.service.IdentityCache;
+import com.civicrules.service.LinkedDuplicates;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
@@ -27,7 +33,19 @@ public class FeedbackController {
     private GrievanceRepository grievanceRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private IdentityCache identityCache;
+
+    @Autowired
+    private GrievanceArchive grievanceArchive;
+
+    @Autowired
+    private EventOutbox eventOutbox;
+
+    @Autowired
+    private LinkedDuplicates linkedDuplicates;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
     // ========================================
     // EXISTING ENDPOINTS (CITIZEN-FACING)
@@ -39,45 +57,49 @@ public class FeedbackController {
     @PostMapping
     public ResponseEntity<?> submitFeedback(@RequestBody FeedbackRequest request) {
         try {
-            // Validate grievance exists
-            Grievance grievance = grievanceRepository.findById(request.getGrievanceId())
-                    .orElseThrow(() -> new RuntimeException("Grievance not found"));
-
-            // Check if grievance is resolved
-            if (grievance.getStatus() != Grievance.Status.RESOLVED) {
-                return ResponseEntity.badRequest()
-                        .body("Feedback can only be submitted for resolved complaints");
-            }
-
-            // Validate user exists
-            User user = userRepository.findById(request.getUserId())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
-            // Check if feedback already exists
-            if (feedbackRepository.existsByGrievanceId(request.getGrievanceId())) {
-                return ResponseEntity.badRequest()
-                        .body("Feedback already submitted for this complaint");
-            }
-
             // Validate rating (1-5)
             if (request.getRating() < 1 || request.getRating() > 5) {
                 return ResponseEntity.badRequest()
                         .body("Rating must be between 1 and 5");
             }
 
-            // Create feedback
-            Feedback feedback = new Feedback();
-            feedback.setGrievance(grievance);
-            feedback.setUser(user);
-            feedback.setRating(request.getRating());
-            feedback.setComment(request.getComment());
-            feedback.setIsReopened(false);
-
-            Feedback saved = feedbackRepository.save(feedback);
+            // Validate user exists
+            User user = identityCache.findUser(request.getUserId())
+                    .orElseThrow(() -> new RuntimeException("User not found"));
 
-            // Update grievance with feedback status
-            grievance.setFeedbackSubmitted(true);
-            grievanceRepository.save(grievance);
+            // Row-locked, so the flag is not saved over a concurrent change to the grievance
+            Feedback saved = transactionTemplate.execute(tx -> {
+                // Validate grievance exists
+                Grievance grievance = grievanceRepository.findForUpdate(request.getGrievanceId())
+                        .orElseThrow(() -> new RuntimeException("Grievance not found"));
+
+                // Check if grievance is resolved
+                if (grievance.getStatus() != Grievance.Status.RESOLVED) {
+                    throw new IllegalStateException("Feedback can only be submitted for resolved complaints");
+                }
+
+                // Check if feedback already exists
+                if (feedbackRepository.existsByGrievanceId(request.getGrievanceId())) {
+                    throw new IllegalStateException("Feedback already submitted for this complaint");
+                }
+
+                // Create feedback
+                Feedback feedback = new Feedback();
+                feedback.setGrievance(grievance);
+                feedback.setUser(user);
+                feedback.setRating(request.getRating());
+                feedback.setComment(request.getComment());
+                feedback.setIsReopened(false);
+
+                Feedback created = feedbackRepository.save(feedback);
+
+                // Update grievance with feedback status
+                GrievanceSnapshot before = GrievanceSnapshot.of(grievance);
+                grievance.setFeedbackSubmitted(true);
+                Grievance updated = grievanceRepository.save(grievance);
+                eventOutbox.append(GrievanceEvent.of(GrievanceEvent.Type.FEEDBACK_SUBMITTED, before, updated));
+                return created;
+            });
 
             return ResponseEntity.ok(saved);
 
@@ -100,30 +122,39 @@ public class FeedbackController {
             @RequestParam(required = false) String reason
     ) {
         try {
-            Grievance grievance = grievanceRepository.findById(grievanceId)
-                    .orElseThrow(() -> new RuntimeException("Grievance not found"));
-
-            // Check if user owns the grievance
-            if (!grievance.getUser().getId().equals(userId)) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body("You can only reopen your own complaints");
-            }
-
-            // Reopen the complaint
-            grievance.setStatus(Grievance.Status.PENDING);
-            grievance.setVerificationStatus("PENDING");
-            grievance.setFeedbackSubmitted(false);
-            grievance.setReopenReason(reason);
-            grievance.setUpdatedAt(LocalDateTime.now());
-
-            grievanceRepository.save(grievance);
-
-            // Mark feedback as reopened if exists
-            Optional<Feedback> feedback = feedbackRepository.findByGrievanceId(grievanceId);
-            feedback.ifPresent(f -> {
-                f.setIsReopened(true);
-                feedbackRepository.save(f);
+            ResponseEntity<?> forbidden = transactionTemplate.execute(tx -> {
+                Grievance grievance = grievanceRepository.findForUpdate(grievanceId)
+                        .orElseThrow(() -> new RuntimeException("Grievance not found"));
+
+                // Check if user owns the grievance
+                if (!grievance.getUser().getId().equals(userId)) {
+                    return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                            .body("You can only reopen your own complaints");
+                }
+
+                // Reopen the complaint
+                GrievanceSnapshot before = GrievanceSnapshot.of(grievance);
+                grievance.setStatus(Grievance.Status.PENDING);
+                grievance.setVerificationStatus("PENDING");
+                grievance.setFeedbackSubmitted(false);
+                grievance.setReopenReason(reason);
+                grievance.setUpdatedAt(LocalDateTime.now());
+
+                Grievance reopened = grievanceRepository.save(grievance);
+                eventOutbox.append(GrievanceEvent.of(GrievanceEvent.Type.REOPENED, before, reopened));
+                eventOutbox.appendAll(linkedDuplicates.follow(List.of(reopened), GrievanceEvent.Type.REOPENED));
+
+                // Mark feedback as reopened if exists
+                Optional<Feedback> feedback = feedbackRepository.findByGrievanceId(grievanceId);
+                feedback.ifPresent(f -> {
+                    f.setIsReopened(true);
+                    feedbackRepository.save(f);
+                });
+                return null;
             });
+            if (forbidden != null) {
+                return forbidden;
+            }
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Complaint reopened successfully");
@@ -237,13 +268,11 @@ public class FeedbackController {
     @GetMapping("/admin/pending")
     public ResponseEntity<?> getPendingFeedback() {
         try {
-            // Get all resolved grievances
-            List<Grievance> resolvedGrievances = grievanceRepository
-                    .findByStatus(Grievance.Status.RESOLVED);
+            // Resolved grievances without feedback, in one query
+            List<Grievance> pending = grievanceRepository
+                    .findWithoutFeedbackByStatus(Grievance.Status.RESOLVED);
 
-            // Filter those without feedback
-            List<Map<String, Object>> pendingList = resolvedGrievances.stream()
-                    .filter(g -> !feedbackRepository.existsByGrievanceId(g.getId()))
+            List<Map<String, Object>> pendingList = pending.stream()
                     .map(this::mapGrievanceToPendingFeedback)
                     .collect(Collectors.toList());
 
@@ -283,31 +312,18 @@ public class FeedbackController {
     @GetMapping("/admin/stats")
     public ResponseEntity<?> getAdminFeedbackStats() {
         try {
-            List<Feedback> allFeedback = feedbackRepository.findAll();
-            List<Grievance> resolvedGrievances = grievanceRepository
-                    .findByStatus(Grievance.Status.RESOLVED);
-
-            long totalResolved = resolvedGrievances.size();
-            long feedbackReceived = allFeedback.size();
-            long pendingFeedback = resolvedGrievances.stream()
-                    .filter(g -> !feedbackRepository.existsByGrievanceId(g.getId()))
-                    .count();
-            long reopenedCount = feedbackRepository.findByIsReopened(true).size();
-
-            // Calculate average rating
-            double avgRating = allFeedback.stream()
-                    .filter(f -> f.getRating() != null)
-                    .mapToInt(Feedback::getRating)
-                    .average()
-                    .orElse(0.0);
-
-            // Rating distribution
-            Map<Integer, Long> ratingDistribution = allFeedback.stream()
-                    .filter(f -> f.getRating() != null)
-                    .collect(Collectors.groupingBy(
-                            Feedback::getRating,
-                            Collectors.counting()
-                    ));
+            // All-time like the ratings below; only active grievances can still get feedback
+            long totalResolved = grievanceRepository.countByStatus(Grievance.Status.RESOLVED)
+                    + grievanceArchive.countByStatus(Grievance.Status.RESOLVED);
+            long pendingFeedback = grievanceRepository
+                    .countWithoutFeedbackByStatus(Grievance.Status.RESOLVED);
+
+            // Rating distribution, totals and average from one GROUP BY
+            RatingHistogram histogram = RatingHistogram.of(feedbackRepository.countByRating());
+            long feedbackReceived = histogram.total;
+            long reopenedCount = histogram.reopened;
+            double avgRating = histogram.averageRating();
+            Map<Integer, Long> ratingDistribution = histogram.distribution;
 
             Map<String, Object> stats = new HashMap<>();
             stats.put("totalResolved", totalResolved);
@@ -342,31 +358,17 @@ public class FeedbackController {
     @GetMapping("/stats")
     public ResponseEntity<?> getFeedbackStats() {
         try {
-            List<Feedback> allFeedback = feedbackRepository.findAll();
-
-            long totalFeedback = allFeedback.size();
-            long fiveStarCount = feedbackRepository.findByRating(5).size();
-            long fourStarCount = feedbackRepository.findByRating(4).size();
-            long threeStarCount = feedbackRepository.findByRating(3).size();
-            long twoStarCount = feedbackRepository.findByRating(2).size();
-            long oneStarCount = feedbackRepository.findByRating(1).size();
-
-            double averageRating = allFeedback.stream()
-                    .mapToInt(Feedback::getRating)
-                    .average()
-                    .orElse(0.0);
-
-            long reopenedCount = feedbackRepository.findByIsReopened(true).size();
+            RatingHistogram histogram = RatingHistogram.of(feedbackRepository.countByRating());
 
             Map<String, Object> stats = new HashMap<>();
-            stats.put("totalFeedback", totalFeedback);
-            stats.put("averageRating", Math.round(averageRating * 10.0) / 10.0);
-            stats.put("fiveStarCount", fiveStarCount);
-            stats.put("fourStarCount", fourStarCount);
-            stats.put("threeStarCount", threeStarCount);
-            stats.put("twoStarCount", twoStarCount);
-            stats.put("oneStarCount", oneStarCount);
-            stats.put("reopenedCount", reopenedCount);
+            stats.put("totalFeedback", histogram.total);
+            stats.put("averageRating", Math.round(histogram.averageRating() * 10.0) / 10.0);
+            stats.put("fiveStarCount", histogram.distribution.getOrDefault(5, 0L));
+            stats.put("fourStarCount", histogram.distribution.getOrDefault(4, 0L));
+            stats.put("threeStarCount", histogram.distribution.getOrDefault(3, 0L));
+            stats.put("twoStarCount", histogram.distribution.getOrDefault(2, 0L));
+            stats.put("oneStarCount", histogram.distribution.getOrDefault(1, 0L));
+            stats.put("reopenedCount", histogram.reopened);
 
             return ResponseEntity.ok(stats);
 
@@ -381,9 +383,9 @@ public class FeedbackController {
     // ========================================
 
     /**
-     * Map Feedback to DTO with all details
+     * Map Feedback to DTO with all details (package-private for the benchmarks module)
      */
-    private Map<String, Object> mapFeedbackToDTO(Feedback feedback) {
+    Map<String, Object> mapFeedbackToDTO(Feedback feedback) {
         Map<String, Object> dto = new HashMap<>();
 
         dto.put("id", feedback.getId());
@@ -441,6 +443,36 @@ public class FeedbackController {
         return dto;
     }
 
+    /**
+     * Feedback totals folded from the per-rating GROUP BY rows
+     */
+    private static class RatingHistogram {
+        private final Map<Integer, Long> distribution = new HashMap<>();
+        private long total;
+        private long reopened;
+        private long ratedCount;
+        private long ratingSum;
+
+        static RatingHistogram of(List<FeedbackRepository.RatingCount> rows) {
+            RatingHistogram histogram = new RatingHistogram();
+            for (FeedbackRepository.RatingCount row : rows) {
+                long count = row.getTotal() != null ? row.getTotal() : 0L;
+                histogram.total += count;
+                histogram.reopened += row.getReopened() != null ? row.getReopened() : 0L;
+                if (row.getRating() != null) {
+                    histogram.distribution.put(row.getRating(), count);
+                    histogram.ratedCount += count;
+                    histogram.ratingSum += (long) row.getRating() * count;
+                }
+            }
+            return histogram;
+        }
+
+        double averageRating() {
+            return ratedCount > 0 ? (double) ratingSum / ratedCount : 0.0;
+        }
+    }
+
     // ========================================
     // REQUEST DTOs
     // ========================================
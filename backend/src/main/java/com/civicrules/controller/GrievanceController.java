@@ -1,25 +1,49 @@
 package com.civicrules.controller;
 
+import com.civicrules.dto.AuthPrincipal;
+import com.civicrules.dto.GrievanceCursor;
+import com.civicrules.dto.GrievanceFingerprint;
+import com.civicrules.dto.GrievanceEvent;
+import com.civicrules.dto.GrievanceSnapshot;
+import com.civicrules.dto.GrievanceSummary;
 import com.civicrules.model.Grievance;
 import com.civicrules.model.Officer;
 import com.civicrules.model.User;
 import com.civicrules.repository.GrievanceRepository;
-import com.civicrules.repository.OfficerRepository;
 import com.civicrules.repository.UserRepository;
+import com.civicrules.service.DuplicateDetector;
+import com.civicrules.service.EventOutbox;
+import com.civicrules.service.GeoIndex;
+import com.civicrules.service.GrievanceArchive;
+import com.civicrules.service.IdentityCache;
+import com.civicrules.service.ImageDeliveryService;
+import com.civicrules.service.ImageIngestionService;
+import com.civicrules.service.ImageStorageService;
+import com.civicrules.service.LinkedDuplicates;
+import com.civicrules.service.SearchIndex;
+import com.civicrules.util.Geohash;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/grievances")
@@ -30,13 +54,52 @@ public class GrievanceController {
     private GrievanceRepository grievanceRepository;
 
     @Autowired
-    private OfficerRepository officerRepository;
+    private ImageDeliveryService imageDeliveryService;
+
+    @Autowired
+    private ImageIngestionService imageIngestionService;
+
+    @Autowired
+    private ImageStorageService imageStorageService;
 
     @Autowired
     private UserRepository userRepository;
 
-    @Value("${upload.path:./uploads}")
-    private String uploadPath;
+    @Autowired
+    private IdentityCache identityCache;
+
+    @Autowired
+    private GeoIndex geoIndex;
+
+    @Autowired
+    private SearchIndex searchIndex;
+
+    @Autowired
+    private DuplicateDetector duplicateDetector;
+
+    @Autowired
+    private EventOutbox eventOutbox;
+
+    @Autowired
+    private LinkedDuplicates linkedDuplicates;
+
+    @Autowired
+    private GrievanceArchive grievanceArchive;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int DEFAULT_QUEUE_SIZE = 200;
+    private static final int MAX_QUEUE_SIZE = 500;
+
+    // Open ends of a date range
+    private static final LocalDateTime RANGE_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime RANGE_END = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    @Value("${grievances.bulk.max-size:500}")
+    private int bulkMaxSize;
 
     /**
      * ✅ FIXED: Submit Grievance with Image Upload + Auto Department Assignment
@@ -47,11 +110,12 @@ public class GrievanceController {
             @RequestParam("category") String category,
             @RequestParam("location") String location,
             @RequestParam(value = "description", required = false, defaultValue = "") String description,
-            @RequestParam("citizenId") Long citizenId,
+            @RequestParam(value = "citizenId", required = false) Long citizenId,
             @RequestParam("status") String status,
             @RequestParam(value = "latitude", required = false) Double latitude,
             @RequestParam(value = "longitude", required = false) Double longitude,
-            @RequestParam("image") MultipartFile image
+            @RequestParam("image") MultipartFile image,
+            @AuthenticationPrincipal AuthPrincipal principal
     ) {
         try {
             // Validate image
@@ -73,26 +137,22 @@ public class GrievanceController {
                 return ResponseEntity.badRequest().body("Only JPG, JPEG, and PNG images are allowed");
             }
 
-            // Find user
-            User user = userRepository.findById(citizenId)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
-            // Create uploads directory if not exists
-            File uploadDir = new File(uploadPath);
-            if (!uploadDir.exists()) {
-                uploadDir.mkdirs();
+            // Submitter: a reference from the token when signed in (never loaded), else the legacy citizenId parameter
+            User user;
+            if (principal != null) {
+                if (citizenId != null && !citizenId.equals(principal.userId())) {
+                    return ResponseEntity.status(HttpStatus.FORBIDDEN).body("citizenId does not match the signed-in user");
+                }
+                user = userRepository.getReferenceById(principal.userId());
+            } else if (citizenId != null) {
+                user = identityCache.findUser(citizenId)
+                        .orElseThrow(() -> new RuntimeException("User not found"));
+            } else {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Sign in to submit a grievance");
             }
 
-            // Generate unique filename
-            String originalFilename = image.getOriginalFilename();
-            String extension = originalFilename != null && originalFilename.contains(".")
-                    ? originalFilename.substring(originalFilename.lastIndexOf("."))
-                    : ".jpg";
-            String filename = UUID.randomUUID().toString() + extension;
-
-            // Save file
-            Path filePath = Paths.get(uploadPath, filename);
-            Files.write(filePath, image.getBytes());
+            // Stream the upload to disk (thumbnails are generated in the background)
+            String filename = imageIngestionService.store(image);
 
             // Create Grievance object
             Grievance grievance = new Grievance();
@@ -118,10 +178,30 @@ public class GrievanceController {
             grievance.setCreatedAt(LocalDateTime.now());
             grievance.setVerificationStatus("PENDING");
 
-            // Save to database
-            Grievance savedGrievance = grievanceRepository.save(grievance);
+            // Likely re-report of an open grievance: link it to that master instead of queueing it for verification.
+            // The photo's dHash is computed in the background and checked again from there
+            duplicateDetector.findMaster(GrievanceFingerprint.of(grievance))
+                    .ifPresent(match -> match.linkAsDuplicate(grievance));
+
+            // Save to database together with the CREATED event (drop the image reference again if that fails);
+            // thumbnails, the photo hash and analytics follow from the event once committed
+            Grievance savedGrievance;
+            try {
+                savedGrievance = transactionTemplate.execute(tx -> {
+                    Grievance saved = grievanceRepository.save(grievance);
+                    eventOutbox.append(GrievanceEvent.of(GrievanceEvent.Type.CREATED, null, saved,
+                            submittedSummary(saved, principal)));
+                    return saved;
+                });
+            } catch (RuntimeException e) {
+                imageStorageService.release(filename);
+                throw e;
+            }
+            if (savedGrievance.getMasterGrievanceId() == null) {
+                duplicateDetector.register(GrievanceFingerprint.of(savedGrievance));
+            }
 
-            return ResponseEntity.ok(savedGrievance);
+            return ResponseEntity.ok(submittedSummary(savedGrievance, principal));
 
         } catch (IOException e) {
             e.printStackTrace();
@@ -138,19 +218,24 @@ public class GrievanceController {
      * ✅ FIXED: Get grievances by officer's department
      */
     @GetMapping("/officer/{officerId}")
-    public ResponseEntity<List<Grievance>> getGrievancesByOfficer(@PathVariable Long officerId) {
-        Officer officer = officerRepository.findById(officerId).orElse(null);
+    public ResponseEntity<List<Grievance>> getGrievancesByOfficer(
+            @PathVariable Long officerId,
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "size", required = false) Integer size,
+            @AuthenticationPrincipal AuthPrincipal principal
+    ) {
+        String department = signedInDepartment(principal);
+        if (department != null) {
+            return officerQueue(department, page, size);
+        }
+
+        Officer officer = identityCache.findOfficer(officerId).orElse(null);
 
         if (officer == null) {
             return ResponseEntity.notFound().build();
         }
 
-        String officerDepartment = officer.getDepartment();
-
-        // ✅ Use category instead of department field
-        List<Grievance> grievances = grievanceRepository.findByCategoryIgnoreCase(officerDepartment);
-
-        return ResponseEntity.ok(grievances);
+        return officerQueue(officer.getDepartment(), page, size);
     }
 
     /**
@@ -160,15 +245,17 @@ public class GrievanceController {
     public ResponseEntity<GrievanceStats> getGrievanceStats(@PathVariable Long citizenId) {
         try {
             List<Grievance> grievances = grievanceRepository.findByUserId(citizenId);
+            // All-time figures: archived grievances (resolved or closed) still count
+            Map<Grievance.Status, Long> archived = grievanceArchive.countByStatusForCitizen(citizenId);
 
-            long total = grievances.size();
+            long total = grievances.size() + archived.values().stream().mapToLong(Long::longValue).sum();
             long pending = grievances.stream()
                     .filter(g -> g.getStatus() == Grievance.Status.PENDING ||
                             g.getStatus() == Grievance.Status.IN_PROGRESS)
                     .count();
             long resolved = grievances.stream()
                     .filter(g -> g.getStatus() == Grievance.Status.RESOLVED)
-                    .count();
+                    .count() + archived.getOrDefault(Grievance.Status.RESOLVED, 0L);
 
             return ResponseEntity.ok(new GrievanceStats(total, pending, resolved));
         } catch (Exception e) {
@@ -179,13 +266,25 @@ public class GrievanceController {
 
     /**
      * ✅ FIXED: Get all grievances for a specific citizen - NO CIRCULAR REFERENCE
+     *
+     * Active grievances only, unless {@code from}/{@code to} (ISO dates, both
+     * inclusive) ask for a range: archived grievances in it are then included,
+     * marked {@code archived: true}.
      */
     @GetMapping("/citizen/{citizenId}")
-    public ResponseEntity<?> getCitizenGrievances(@PathVariable Long citizenId) {
+    public ResponseEntity<?> getCitizenGrievances(
+            @PathVariable Long citizenId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
         try {
             System.out.println("📋 Fetching grievances for citizen ID: " + citizenId);
 
-            List<Grievance> grievances = grievanceRepository.findByUserIdOrderByCreatedAtDesc(citizenId);
+            boolean ranged = from != null || to != null;
+            List<Grievance> grievances = ranged
+                    ? grievanceRepository.findByUserIdAndCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByCreatedAtDesc(
+                            citizenId, rangeStart(from), rangeEnd(to))
+                    : grievanceRepository.findByUserIdOrderByCreatedAtDesc(citizenId);
 
             System.out.println("✅ Found " + grievances.size() + " grievances");
 
@@ -201,6 +300,7 @@ public class GrievanceController {
                 dto.put("description", g.getDescription());
                 dto.put("status", g.getStatus().toString());
                 dto.put("imagePath", g.getImagePath());
+                dto.put("thumbnailPath", g.getThumbnailPath());
                 dto.put("createdAt", g.getCreatedAt());
                 dto.put("latitude", g.getLatitude());
                 dto.put("longitude", g.getLongitude());
@@ -210,6 +310,12 @@ public class GrievanceController {
                 simplifiedList.add(dto);
             }
 
+            if (ranged && grievanceArchive.covers(rangeStart(from))) {
+                simplifiedList.addAll(grievanceArchive.findForCitizen(citizenId, rangeStart(from), rangeEnd(to)));
+                simplifiedList.sort(Comparator.comparing(
+                        (Map<String, Object> dto) -> (LocalDateTime) dto.get("createdAt")).reversed());
+            }
+
             System.out.println("✅ Returning " + simplifiedList.size() + " simplified DTOs");
 
             return ResponseEntity.ok(simplifiedList);
@@ -223,12 +329,14 @@ public class GrievanceController {
     }
 
     /**
-     * Get single grievance by ID
+     * Get single grievance by ID, active or archived
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Grievance> getGrievance(@PathVariable Long id) {
+    public ResponseEntity<?> getGrievance(@PathVariable Long id) {
         try {
+            // Archived grievances come back in the same shape
             Grievance grievance = grievanceRepository.findById(id)
+                    .or(() -> grievanceArchive.findGrievance(id))
                     .orElseThrow(() -> new RuntimeException("Grievance not found"));
             return ResponseEntity.ok(grievance);
         } catch (RuntimeException e) {
@@ -240,49 +348,114 @@ public class GrievanceController {
 
     /**
      * Get all grievances (for admin/officer)
+     *
+     * Without paging parameters the full list is returned as before. With
+     * {@code limit} and/or {@code after} it switches to keyset pagination on
+     * (createdAt, id): pass the returned {@code nextCursor} as {@code after}.
+     *
+     * {@code from}/{@code to} (ISO dates, both inclusive) page through a date
+     * range instead, archived grievances included; repeat them with each cursor.
      */
     @GetMapping
-    public ResponseEntity<?> getAllGrievances() {
+    public ResponseEntity<?> getAllGrievances(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        if (from != null || to != null) {
+            return getGrievancePage(after, limit, rangeStart(from), rangeEnd(to));
+        }
+        if (after != null || limit != null) {
+            return getGrievancePage(after, limit, null, null);
+        }
+
         try {
             List<Grievance> grievances = grievanceRepository.findByOrderByCreatedAtDesc();
             List<Map<String, Object>> result = new ArrayList<>();
 
             for (Grievance g : grievances) {
-                Map<String, Object> dto = new HashMap<>();
-                dto.put("id", g.getId());
-                dto.put("title", g.getTitle());
-                dto.put("category", g.getCategory());
-                dto.put("description", g.getDescription());
-                dto.put("location", g.getLocation());
-                dto.put("status", g.getStatus());
-                dto.put("createdAt", g.getCreatedAt());
-                dto.put("imagePath", g.getImagePath());
-                dto.put("verificationStatus", g.getVerificationStatus());
-                dto.put("rejectionReason", g.getRejectionReason());
-
-                // ✅ ADD FEEDBACK FIELDS
-                dto.put("feedbackSubmitted", g.getFeedbackSubmitted());
-                dto.put("reopenReason", g.getReopenReason());
-
-                // Add user info
-                if (g.getUser() != null) {
-                    Map<String, Object> userInfo = new HashMap<>();
-                    userInfo.put("id", g.getUser().getId());
-                    userInfo.put("name", g.getUser().getFullName());
-                    dto.put("user", userInfo);
-                }
+                result.add(mapGrievanceToDTO(g));
+            }
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error: " + e.getMessage());
+        }
+    }
 
-                // Add assigned officer info
-                if (g.getAssignedTo() != null) {
-                    Map<String, Object> officerInfo = new HashMap<>();
-                    officerInfo.put("id", g.getAssignedTo().getId());
-                    officerInfo.put("name", g.getAssignedTo().getFullName());
-                    dto.put("assignedTo", officerInfo);
-                }
+    /**
+     * Map Grievance to the full-list DTO (package-private for the benchmarks module)
+     */
+    Map<String, Object> mapGrievanceToDTO(Grievance g) {
+        Map<String, Object> dto = new HashMap<>();
+        dto.put("id", g.getId());
+        dto.put("title", g.getTitle());
+        dto.put("category", g.getCategory());
+        dto.put("description", g.getDescription());
+        dto.put("location", g.getLocation());
+        dto.put("status", g.getStatus());
+        dto.put("createdAt", g.getCreatedAt());
+        dto.put("imagePath", g.getImagePath());
+        dto.put("thumbnailPath", g.getThumbnailPath());
+        dto.put("verificationStatus", g.getVerificationStatus());
+        dto.put("rejectionReason", g.getRejectionReason());
+
+        // ✅ ADD FEEDBACK FIELDS
+        dto.put("feedbackSubmitted", g.getFeedbackSubmitted());
+        dto.put("reopenReason", g.getReopenReason());
+
+        // Add user info
+        if (g.getUser() != null) {
+            Map<String, Object> userInfo = new HashMap<>();
+            userInfo.put("id", g.getUser().getId());
+            userInfo.put("name", g.getUser().getFullName());
+            dto.put("user", userInfo);
+        }
+
+        // Add assigned officer info
+        if (g.getAssignedTo() != null) {
+            Map<String, Object> officerInfo = new HashMap<>();
+            officerInfo.put("id", g.getAssignedTo().getId());
+            officerInfo.put("name", g.getAssignedTo().getFullName());
+            dto.put("assignedTo", officerInfo);
+        }
 
-                result.add(dto);
+        return dto;
+    }
+
+    /**
+     * One keyset page of grievance summaries (projection, no entity loading),
+     * limited to [start, end) when a range is given
+     */
+    private ResponseEntity<?> getGrievancePage(String after, Integer limit, LocalDateTime start, LocalDateTime end) {
+        try {
+            int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+
+            // Fetch one extra row to know whether another page exists
+            PageRequest page = PageRequest.of(0, pageSize + 1);
+            List<GrievanceSummary> rows;
+            if (start != null) {
+                rows = findSummariesInRange(after, pageSize + 1, start, end);
+            } else if (after == null || after.isBlank()) {
+                rows = grievanceRepository.findSummariesFirstPage(page);
+            } else {
+                GrievanceCursor cursor = GrievanceCursor.decode(after);
+                rows = grievanceRepository.findSummariesAfter(cursor.createdAt(), cursor.id(), page);
             }
-            return ResponseEntity.ok(result);
+
+            boolean hasMore = rows.size() > pageSize;
+            List<GrievanceSummary> items = hasMore ? rows.subList(0, pageSize) : rows;
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("items", items);
+            response.put("hasMore", hasMore);
+            response.put("nextCursor", hasMore ? GrievanceCursor.of(items.get(items.size() - 1)).encode() : null);
+
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -290,6 +463,40 @@ public class GrievanceController {
         }
     }
 
+    /**
+     * Up to {@code limit} summaries created in [start, end) after the cursor,
+     * newest first, merged with the archived ones when the range reaches back
+     * to the archive
+     */
+    private List<GrievanceSummary> findSummariesInRange(String after, int limit, LocalDateTime start, LocalDateTime end) {
+        // A fresh walk starts just below the end of the range (ids are positive)
+        GrievanceCursor cursor = after == null || after.isBlank() ? null : GrievanceCursor.decode(after);
+        if (cursor == null || !cursor.createdAt().isBefore(end)) {
+            cursor = new GrievanceCursor(end, 0L);
+        }
+
+        List<GrievanceSummary> rows = grievanceRepository.findSummariesBetween(
+                start, cursor.createdAt(), cursor.id(), PageRequest.of(0, limit));
+        if (!grievanceArchive.covers(start)) {
+            return rows;
+        }
+
+        List<GrievanceSummary> merged = new ArrayList<>(rows);
+        merged.addAll(grievanceArchive.findSummariesAfter(start, cursor.createdAt(), cursor.id(), limit));
+        merged.sort(Comparator.comparing(GrievanceSummary::createdAt)
+                .thenComparing(GrievanceSummary::id).reversed());
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    private static LocalDateTime rangeStart(LocalDate from) {
+        return from != null ? from.atStartOfDay() : RANGE_START;
+    }
+
+    // Exclusive: the day after an inclusive end date
+    private static LocalDateTime rangeEnd(LocalDate to) {
+        return to != null ? to.plusDays(1).atStartOfDay() : RANGE_END;
+    }
+
     /**
      * Get grievances by status
      */
@@ -320,55 +527,136 @@ public class GrievanceController {
     }
 
     /**
-     * ✅ SUPER FIXED: Get grievances assigned to officer by department
+     * Full-text search over title, description, location, category and officer remarks
+     * GET /api/grievances/search?q={text}&status={status}&category={category}&page=0&size=20
+     *
+     * Results are ranked by relevance (newest first without q). The facets hold
+     * match counts per status and per category; each dimension ignores its own
+     * filter so the other values stay visible.
      */
-    @GetMapping("/assigned/{officerId}")
-    public ResponseEntity<List<Grievance>> getOfficerAssignedGrievances(@PathVariable Long officerId) {
+    @GetMapping("/search")
+    public ResponseEntity<?> searchGrievances(
+            @RequestParam(value = "q", required = false) String q,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size
+    ) {
         try {
-            System.out.println("\n\n==================== FULL DEBUG START ====================");
+            Grievance.Status statusFilter = status != null && !status.isBlank()
+                    ? Grievance.Status.valueOf(status) : null;
+            int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+            if (page < 0 || (long) page * pageSize >= searchIndex.getMaxResults()) {
+                return ResponseEntity.badRequest()
+                        .body("Only the first " + searchIndex.getMaxResults() + " results can be paged; refine the query");
+            }
 
-            // 1️⃣ Officer fetch
-            Officer officer = officerRepository.findById(officerId)
-                    .orElseThrow(() -> new RuntimeException("Officer not found"));
+            SearchIndex.SearchPage result = searchIndex.search(q, statusFilter, category, page, pageSize);
 
-            System.out.println("✅ Officer Found:");
-            System.out.println("   ID: " + officer.getId());
-            System.out.println("   Name: " + officer.getFullName());
-            System.out.println("   Email: " + officer.getEmail());
-            System.out.println("   Department: '" + officer.getDepartment() + "'");
-
-            String officerDepartment = officer.getDepartment();
-
-            // 2️⃣ ALL grievances fetch
-            List<Grievance> allGrievances = grievanceRepository.findAll();
-            System.out.println("\n📋 ALL Grievances in Database:");
-            for (Grievance g : allGrievances) {
-                System.out.println("   ID: " + g.getId() +
-                        " | Title: " + g.getTitle() +
-                        " | Category: '" + g.getCategory() + "'" +
-                        " | Department: '" + g.getDepartment() + "'");
+            // Hydrate the page from the database and put it back in rank order
+            List<Long> ids = result.hits().stream().map(SearchIndex.Hit::id).toList();
+            Map<Long, GrievanceSummary> rows = new HashMap<>();
+            if (!ids.isEmpty()) {
+                for (GrievanceSummary row : grievanceRepository.findSummariesByIdIn(ids)) {
+                    rows.put(row.id(), row);
+                }
             }
-
-            // 3️⃣ Manual filter - case insensitive
-            List<Grievance> filteredGrievances = new ArrayList<>();
-            for (Grievance g : allGrievances) {
-                if (g.getCategory() != null &&
-                        g.getCategory().equalsIgnoreCase(officerDepartment)) {
-                    filteredGrievances.add(g);
+            List<GrievanceSummary> items = new ArrayList<>();
+            for (Long id : ids) {
+                // A hit deleted since the last index refresh is skipped
+                if (rows.containsKey(id)) {
+                    items.add(rows.get(id));
                 }
             }
 
-            System.out.println("\n🔍 Filtered Grievances (by Category):");
-            System.out.println("   Officer Department: '" + officerDepartment + "'");
-            System.out.println("   Total Found: " + filteredGrievances.size());
-            for (Grievance g : filteredGrievances) {
-                System.out.println("   - ID: " + g.getId() + " | Title: " + g.getTitle() + " | Category: " + g.getCategory());
+            Map<String, Object> facets = new HashMap<>();
+            facets.put("status", result.statusCounts());
+            facets.put("category", result.categoryCounts());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("items", items);
+            response.put("page", page);
+            response.put("size", pageSize);
+            response.put("total", result.total());
+            response.put("totalExact", result.totalExact());
+            response.put("facets", facets);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid status: " + status);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Grievances inside a map viewport
+     * GET /api/grievances/within?bbox={west},{south},{east},{north}&zoom={0-22}
+     *
+     * Returns geohash clusters (count and mean position per cell) sized to the
+     * zoom level, or individual points once zoomed in and few enough to draw.
+     */
+    @GetMapping("/within")
+    public ResponseEntity<?> getGrievancesWithin(
+            @RequestParam("bbox") String bbox,
+            @RequestParam(value = "zoom", defaultValue = "12") int zoom
+    ) {
+        try {
+            String[] parts = bbox.split(",");
+            if (parts.length != 4 || zoom < 0 || zoom > 22) {
+                return ResponseEntity.badRequest().body("bbox must be west,south,east,north and zoom 0-22");
+            }
+            double west = Double.parseDouble(parts[0].trim());
+            double south = Double.parseDouble(parts[1].trim());
+            double east = Double.parseDouble(parts[2].trim());
+            double north = Double.parseDouble(parts[3].trim());
+            // Viewports crossing the antimeridian are not supported; split them client-side
+            if (!Geohash.isValid(south, west) || !Geohash.isValid(north, east) || west > east || south > north) {
+                return ResponseEntity.badRequest().body("Invalid bounding box");
+            }
+
+            GeoIndex.Viewport viewport = geoIndex.within(south, west, north, east, zoom);
+            Map<String, Object> response = new HashMap<>();
+            response.put("zoom", viewport.zoom());
+            response.put("precision", viewport.precision());
+            response.put("total", viewport.total());
+            if (viewport.clustered()) {
+                response.put("mode", "clusters");
+                response.put("clusters", viewport.clusters());
+            } else {
+                response.put("mode", "points");
+                response.put("points", viewport.points());
+            }
+            return ResponseEntity.ok(response);
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().body("Invalid bounding box");
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * ✅ SUPER FIXED: Get grievances assigned to officer by department
+     */
+    @GetMapping("/assigned/{officerId}")
+    public ResponseEntity<List<Grievance>> getOfficerAssignedGrievances(
+            @PathVariable Long officerId,
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "size", required = false) Integer size,
+            @AuthenticationPrincipal AuthPrincipal principal
+    ) {
+        try {
+            String department = signedInDepartment(principal);
+            if (department != null) {
+                return officerQueue(department, page, size);
             }
 
-            System.out.println("\n✅ RETURNING: " + filteredGrievances.size() + " grievances");
-            System.out.println("==================== FULL DEBUG END ====================\n\n");
+            Officer officer = identityCache.findOfficer(officerId)
+                    .orElseThrow(() -> new RuntimeException("Officer not found"));
 
-            return ResponseEntity.ok(filteredGrievances);
+            return officerQueue(officer.getDepartment(), page, size);
 
         } catch (Exception e) {
             System.err.println("❌ ERROR: " + e.getMessage());
@@ -377,6 +665,52 @@ public class GrievanceController {
         }
     }
 
+    /**
+     * A signed-in officer's current department (the token supplies only the
+     * user id); null for other callers, who are resolved from the officerId
+     * path variable
+     */
+    private String signedInDepartment(AuthPrincipal principal) {
+        return principal != null && principal.hasRole(User.Role.OFFICER)
+                ? identityCache.findOfficerDepartment(principal.userId()).orElse(null)
+                : null;
+    }
+
+    /**
+     * A just-submitted grievance as a list row. A signed-in submitter is named
+     * from the token, so the lazy user reference is never loaded.
+     */
+    private static GrievanceSummary submittedSummary(Grievance grievance, AuthPrincipal principal) {
+        return principal != null
+                ? GrievanceSummary.of(grievance, new GrievanceSummary.PersonRef(principal.userId(), principal.name()))
+                : GrievanceSummary.of(grievance);
+    }
+
+    /**
+     * A department's queue (grievance category matched case-insensitively), newest first.
+     * Without page/size the whole queue is returned, as before paging existed; with either,
+     * one page of at most MAX_QUEUE_SIZE and X-Has-More tells the client whether to request
+     * the next one.
+     */
+    private ResponseEntity<List<Grievance>> officerQueue(String department, Integer page, Integer size) {
+        String categoryKey = Grievance.normalizeCategory(department);
+        if (categoryKey == null) {
+            return ResponseEntity.ok(Collections.emptyList());
+        }
+
+        Pageable pageable = Pageable.unpaged();
+        if (page != null || size != null) {
+            int pageSize = Math.min(Math.max(size != null ? size : DEFAULT_QUEUE_SIZE, 1), MAX_QUEUE_SIZE);
+            pageable = PageRequest.of(Math.max(page != null ? page : 0, 0), pageSize);
+        }
+        Slice<Grievance> slice = grievanceRepository.findByCategoryKeyAndMasterGrievanceIdIsNullOrderByCreatedAtDescIdDesc(
+                categoryKey, pageable);
+
+        return ResponseEntity.ok()
+                .header("X-Has-More", String.valueOf(slice.hasNext()))
+                .body(slice.getContent());
+    }
+
     /**
      * Update grievance status
      */
@@ -386,17 +720,27 @@ public class GrievanceController {
             @RequestParam String status
     ) {
         try {
-            Grievance grievance = grievanceRepository.findById(id)
-                    .orElseThrow(() -> new RuntimeException("Grievance not found"));
+            Grievance.Status newStatus = Grievance.Status.valueOf(status);
 
-            grievance.setStatus(Grievance.Status.valueOf(status));
-            grievance.setUpdatedAt(LocalDateTime.now());
+            // Row-locked, so a background write (thumbnail, photo hash) is not overwritten
+            Grievance updated = transactionTemplate.execute(tx -> {
+                Grievance grievance = grievanceRepository.findForUpdate(id)
+                        .orElseThrow(() -> new RuntimeException("Grievance not found"));
+                GrievanceSnapshot before = GrievanceSnapshot.of(grievance);
 
-            if (status.equals("RESOLVED")) {
-                grievance.setResolvedAt(LocalDateTime.now());
-            }
+                grievance.setStatus(newStatus);
+                grievance.setUpdatedAt(LocalDateTime.now());
+
+                if (newStatus == Grievance.Status.RESOLVED) {
+                    grievance.setResolvedAt(LocalDateTime.now());
+                }
 
-            Grievance updated = grievanceRepository.save(grievance);
+                Grievance saved = grievanceRepository.save(grievance);
+                eventOutbox.append(GrievanceEvent.of(GrievanceEvent.Type.STATUS_CHANGED, before, saved));
+                // Linked duplicates follow their master
+                eventOutbox.appendAll(linkedDuplicates.follow(List.of(saved), GrievanceEvent.Type.STATUS_CHANGED));
+                return saved;
+            });
 
             return ResponseEntity.ok(updated);
         } catch (IllegalArgumentException e) {
@@ -418,23 +762,28 @@ public class GrievanceController {
             @RequestParam Long officerId
     ) {
         try {
-            Grievance grievance = grievanceRepository.findById(id)
-                    .orElseThrow(() -> new RuntimeException("Grievance not found"));
+            User officer = identityCache.findUser(officerId)
+                    .orElseThrow(() -> new RuntimeException("Officer not found"));
 
-            // ✅ Check verification status
-            if (!"APPROVED".equals(grievance.getVerificationStatus())) {
-                return ResponseEntity.badRequest()
-                        .body("Cannot assign unverified grievance");
-            }
+            Grievance updated = transactionTemplate.execute(tx -> {
+                Grievance grievance = grievanceRepository.findForUpdate(id)
+                        .orElseThrow(() -> new RuntimeException("Grievance not found"));
 
-            User officer = userRepository.findById(officerId)
-                    .orElseThrow(() -> new RuntimeException("Officer not found"));
+                // ✅ Check verification status
+                if (!"APPROVED".equals(grievance.getVerificationStatus())) {
+                    throw new IllegalStateException("Cannot assign unverified grievance");
+                }
 
-            grievance.setAssignedTo(officer);
-            grievance.setStatus(Grievance.Status.IN_PROGRESS);
-            grievance.setUpdatedAt(LocalDateTime.now());
+                GrievanceSnapshot before = GrievanceSnapshot.of(grievance);
+                grievance.setAssignedTo(officer);
+                grievance.setStatus(Grievance.Status.IN_PROGRESS);
+                grievance.setUpdatedAt(LocalDateTime.now());
 
-            Grievance updated = grievanceRepository.save(grievance);
+                Grievance saved = grievanceRepository.save(grievance);
+                eventOutbox.append(GrievanceEvent.of(GrievanceEvent.Type.ASSIGNED, before, saved));
+                eventOutbox.appendAll(linkedDuplicates.follow(List.of(saved), GrievanceEvent.Type.ASSIGNED));
+                return saved;
+            });
             return ResponseEntity.ok(updated);
 
         } catch (RuntimeException e) {
@@ -450,7 +799,15 @@ public class GrievanceController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteGrievance(@PathVariable Long id) {
         try {
-            grievanceRepository.deleteById(id);
+            transactionTemplate.executeWithoutResult(tx -> grievanceRepository.findForUpdate(id).ifPresent(grievance -> {
+                // Its duplicates go back to verification rather than pointing at nothing
+                eventOutbox.appendAll(linkedDuplicates.release(List.of(id), LocalDateTime.now()));
+                grievanceRepository.delete(grievance);
+                eventOutbox.append(GrievanceEvent.of(
+                        GrievanceEvent.Type.DELETED, GrievanceSnapshot.of(grievance), grievance));
+                // The file itself is reclaimed by the orphan sweeper
+                imageStorageService.release(grievance.getImagePath());
+            }));
             return ResponseEntity.ok().body("Grievance deleted successfully");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -467,20 +824,31 @@ public class GrievanceController {
             @RequestBody VerificationRequest request) {
 
         try {
-            Grievance grievance = grievanceRepository.findById(id)
-                    .orElseThrow(() -> new RuntimeException("Grievance not found"));
-
-            if (request.isApproved()) {
-                grievance.setVerificationStatus("APPROVED");
-                grievance.setVerificationReason(request.getReason());
-            } else {
-                grievance.setVerificationStatus("REJECTED");
-                grievance.setRejectionReason(request.getReason());
-                grievance.setStatus(Grievance.Status.REJECTED);
-            }
+            Grievance updated = transactionTemplate.execute(tx -> {
+                Grievance grievance = grievanceRepository.findForUpdate(id)
+                        .orElseThrow(() -> new RuntimeException("Grievance not found"));
+                GrievanceSnapshot before = GrievanceSnapshot.of(grievance);
+
+                if (request.isApproved()) {
+                    grievance.setVerificationStatus("APPROVED");
+                    grievance.setVerificationReason(request.getReason());
+                    // Approving a grievance flagged as a duplicate overrules the match
+                    grievance.setMasterGrievanceId(null);
+                } else {
+                    grievance.setVerificationStatus("REJECTED");
+                    grievance.setRejectionReason(request.getReason());
+                    grievance.setStatus(Grievance.Status.REJECTED);
+                }
 
-            grievance.setUpdatedAt(LocalDateTime.now());
-            Grievance updated = grievanceRepository.save(grievance);
+                grievance.setUpdatedAt(LocalDateTime.now());
+                Grievance saved = grievanceRepository.save(grievance);
+                eventOutbox.append(GrievanceEvent.of(GrievanceEvent.Type.VERIFIED, before, saved));
+                if (!request.isApproved()) {
+                    // A rejected master takes its duplicates with it
+                    eventOutbox.appendAll(linkedDuplicates.follow(List.of(saved), GrievanceEvent.Type.STATUS_CHANGED));
+                }
+                return saved;
+            });
 
             return ResponseEntity.ok(updated);
 
@@ -492,6 +860,22 @@ public class GrievanceController {
         }
     }
 
+    /**
+     * Grievances linked to this one as likely duplicates, oldest first
+     */
+    @GetMapping("/{id}/duplicates")
+    public ResponseEntity<?> getDuplicates(@PathVariable Long id) {
+        try {
+            if (!grievanceRepository.existsById(id)) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(grievanceRepository.findDuplicateSummaries(id));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error: " + e.getMessage());
+        }
+    }
+
     /**
      * ✅ Get pending verification
      */
@@ -509,31 +893,196 @@ public class GrievanceController {
      * ✅ Get grievance image
      */
     @GetMapping("/image/{filename}")
-    public ResponseEntity<byte[]> getImage(@PathVariable String filename) {
+    public void getImage(@PathVariable String filename,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        imageDeliveryService.serve(filename, request, response);
+    }
+
+    // ========================================
+    // BULK TRIAGE
+    // ========================================
+
+    /**
+     * Set the status of a batch of grievances; linked duplicates follow their masters
+     */
+    @PatchMapping("/bulk/status")
+    public ResponseEntity<?> bulkUpdateStatus(@RequestBody BulkStatusRequest request) {
+        Grievance.Status status;
         try {
-            Path imagePath = Paths.get(uploadPath, filename);
+            status = Grievance.Status.valueOf(String.valueOf(request.status()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid status");
+        }
 
-            if (!Files.exists(imagePath)) {
-                return ResponseEntity.notFound().build();
+        LocalDateTime now = LocalDateTime.now();
+        return bulkUpdate(request.ids(), GrievanceEvent.Type.STATUS_CHANGED, grievance -> null, grievance -> {
+            grievance.setStatus(status);
+            grievance.setUpdatedAt(now);
+            if (status == Grievance.Status.RESOLVED) {
+                grievance.setResolvedAt(now);
             }
+        }, (updated, events) -> events.addAll(linkedDuplicates.follow(updated, GrievanceEvent.Type.STATUS_CHANGED)));
+    }
+
+    /**
+     * Assign a batch of verified grievances to one officer; linked duplicates follow their masters
+     */
+    @PatchMapping("/bulk/assign")
+    public ResponseEntity<?> bulkAssign(@RequestBody BulkAssignRequest request) {
+        String invalid = checkBatch(request.ids());
+        if (invalid != null) {
+            return ResponseEntity.badRequest().body(invalid);
+        }
+        if (request.officerId() == null) {
+            return ResponseEntity.badRequest().body("Officer id is required");
+        }
+
+        Optional<User> officer;
+        try {
+            officer = identityCache.findUser(request.officerId());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error: " + e.getMessage());
+        }
+        if (officer.isEmpty()) {
+            return ResponseEntity.badRequest().body("Officer not found");
+        }
 
-            byte[] imageBytes = Files.readAllBytes(imagePath);
+        LocalDateTime now = LocalDateTime.now();
+        return bulkUpdate(request.ids(), GrievanceEvent.Type.ASSIGNED,
+                grievance -> "APPROVED".equals(grievance.getVerificationStatus())
+                        ? null
+                        : "Cannot assign unverified grievance",
+                grievance -> {
+                    grievance.setAssignedTo(officer.get());
+                    grievance.setStatus(Grievance.Status.IN_PROGRESS);
+                    grievance.setUpdatedAt(now);
+                }, (updated, events) -> events.addAll(linkedDuplicates.follow(updated, GrievanceEvent.Type.ASSIGNED)));
+    }
 
-            String contentType = "image/jpeg";
-            if (filename.toLowerCase().endsWith(".png")) {
-                contentType = "image/png";
+    /**
+     * Approve or reject a batch of grievances with one reason; duplicates of rejected masters are rejected too
+     */
+    @PatchMapping("/bulk/verify")
+    public ResponseEntity<?> bulkVerify(@RequestBody BulkVerifyRequest request) {
+        LocalDateTime now = LocalDateTime.now();
+        return bulkUpdate(request.ids(), GrievanceEvent.Type.VERIFIED, grievance -> null, grievance -> {
+            if (request.approved()) {
+                grievance.setVerificationStatus("APPROVED");
+                grievance.setVerificationReason(request.reason());
+                grievance.setMasterGrievanceId(null);
+            } else {
+                grievance.setVerificationStatus("REJECTED");
+                grievance.setRejectionReason(request.reason());
+                grievance.setStatus(Grievance.Status.REJECTED);
             }
+            grievance.setUpdatedAt(now);
+        }, (updated, events) -> {
+            if (!request.approved()) {
+                events.addAll(linkedDuplicates.follow(updated, GrievanceEvent.Type.STATUS_CHANGED));
+            }
+        });
+    }
+
+    /**
+     * Lock a batch with one IN query, check every grievance, then change them
+     * all in one transaction. The changes flush at commit as batched UPDATEs
+     * (hibernate.jdbc.batch_size) and the events go to the outbox as one
+     * batched INSERT. Nothing is written if any id is missing or fails the
+     * check; the response then lists the reason per id.
+     *
+     * @param check  reason a grievance cannot be changed, or null
+     * @param change applied to each grievance of a valid batch
+     * @param after  runs in the same transaction once the batch is changed; may add events
+     */
+    private ResponseEntity<?> bulkUpdate(List<Long> ids,
+                                         GrievanceEvent.Type type,
+                                         Function<Grievance, String> check,
+                                         Consumer<Grievance> change,
+                                         BiConsumer<List<Grievance>, List<GrievanceEvent>> after) {
+        String invalid = checkBatch(ids);
+        if (invalid != null) {
+            return ResponseEntity.badRequest().body(invalid);
+        }
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        distinct.remove(null);
+
+        try {
+            Map<String, Object> response = transactionTemplate.execute(tx -> {
+                // Row-locked, so a thumbnail or photo hash written meanwhile is not overwritten;
+                // the second read fetches their people into the same instances
+                List<Grievance> grievances = grievanceRepository.findForUpdateByIdIn(distinct);
+                if (!grievances.isEmpty()) {
+                    grievanceRepository.findByIdIn(distinct);
+                }
 
-            return ResponseEntity.ok()
-                    .header("Content-Type", contentType)
-                    .body(imageBytes);
+                Map<Long, String> errors = new TreeMap<>();
+                Set<Long> found = new HashSet<>();
+                for (Grievance grievance : grievances) {
+                    found.add(grievance.getId());
+                    String reason = check.apply(grievance);
+                    if (reason != null) {
+                        errors.put(grievance.getId(), reason);
+                    }
+                }
+                for (Long id : distinct) {
+                    if (!found.contains(id)) {
+                        errors.put(id, "Grievance not found");
+                    }
+                }
 
+                Map<String, Object> result = new HashMap<>();
+                if (!errors.isEmpty()) {
+                    result.put("message", "No grievances were changed");
+                    result.put("errors", errors);
+                    return result;
+                }
+
+                List<GrievanceSummary> summaries = new ArrayList<>(grievances.size());
+                List<GrievanceEvent> events = new ArrayList<>(grievances.size());
+                for (Grievance grievance : grievances) {
+                    GrievanceSnapshot before = GrievanceSnapshot.of(grievance);
+                    change.accept(grievance);
+                    GrievanceEvent event = GrievanceEvent.of(type, before, grievance);
+                    events.add(event);
+                    summaries.add(event.grievance());
+                }
+                after.accept(grievances, events);
+                eventOutbox.appendAll(events);
+
+                result.put("updated", summaries.size());
+                result.put("grievances", summaries);
+                return result;
+            });
+
+            return response.containsKey("errors")
+                    ? ResponseEntity.badRequest().body(response)
+                    : ResponseEntity.ok(response);
         } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error: " + e.getMessage());
         }
     }
 
+    /**
+     * Reason a batch of ids is not acceptable, or null
+     */
+    private String checkBatch(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return "No grievance ids given";
+        }
+        Set<Long> distinct = new HashSet<>(ids);
+        distinct.remove(null);
+        if (distinct.isEmpty()) {
+            return "No grievance ids given";
+        }
+        if (distinct.size() > bulkMaxSize) {
+            return "At most " + bulkMaxSize + " grievances per request";
+        }
+        return null;
+    }
+
     /**
      * Helper class for grievance statistics
      */
@@ -575,4 +1124,13 @@ public class GrievanceController {
             this.reason = reason;
         }
     }
+
+    record BulkStatusRequest(List<Long> ids, String status) {
+    }
+
+    record BulkAssignRequest(List<Long> ids, Long officerId) {
+    }
+
+    record BulkVerifyRequest(List<Long> ids, boolean approved, String reason) {
+    }
 }
\ No newline at end of file
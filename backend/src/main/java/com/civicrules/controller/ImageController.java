@@ -1,54 +1,29 @@
 package com.civicrules.controller;
 
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import com.civicrules.service.ImageDeliveryService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.IOException;
 
 @RestController
-@RequestMapping("/api/uploads")
 @CrossOrigin(origins = "*")
 public class ImageController {
 
-    @Value("${upload.path:./uploads}")
-    private String uploadPath;
+    @Autowired
+    private ImageDeliveryService imageDeliveryService;
 
     /**
      * Serve uploaded images
      * GET /api/uploads/{filename}
+     * GET /uploads/{filename}
      */
-    @GetMapping("/{filename:.+}")
-    public ResponseEntity<Resource> serveImage(@PathVariable String filename) {
-        try {
-            Path filePath = Paths.get(uploadPath).resolve(filename).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (!resource.exists() || !resource.isReadable()) {
-                return ResponseEntity.notFound().build();
-            }
-
-            // Determine content type
-            String contentType = "image/jpeg";
-            if (filename.toLowerCase().endsWith(".png")) {
-                contentType = "image/png";
-            } else if (filename.toLowerCase().endsWith(".jpg") || filename.toLowerCase().endsWith(".jpeg")) {
-                contentType = "image/jpeg";
-            }
-
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                    .body(resource);
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.notFound().build();
-        }
+    @GetMapping({"/api/uploads/{filename:.+}", "/uploads/{filename:.+}"})
+    public void serveImage(@PathVariable String filename,
+                           HttpServletRequest request,
+                           HttpServletResponse response) throws IOException {
+        imageDeliveryService.serve(filename, request, response);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,95 @@
+package com.civicrules.controller;
+
+import com.civicrules.dto.AuthPrincipal;
+import com.civicrules.model.Officer;
+import com.civicrules.model.User;
+import com.civicrules.service.GrievanceStreamBroker;
+import com.civicrules.service.IdentityCache;
+import com.civicrules.service.GrievanceStreamBroker.Audience;
+import com.civicrules.service.TokenService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/stream")
+@CrossOrigin(origins = "*")
+public class StreamController {
+
+    @Autowired
+    private GrievanceStreamBroker grievanceStreamBroker;
+
+    @Autowired
+    private IdentityCache identityCache;
+
+    @Autowired
+    private TokenService tokenService;
+
+    /**
+     * Live grievance events (Server-Sent Events)
+     * GET /api/stream?admin=true            every grievance
+     * GET /api/stream?citizenId={id}        one citizen's grievances
+     * GET /api/stream?officerId={id}        the officer's department (a signed-in officer's own)
+     * GET /api/stream?department={name}     one department
+     *
+     * Event names are the GrievanceEvent types (CREATED, VERIFIED, ...); data is
+     * the event as JSON. Browsers resume with Last-Event-ID automatically.
+     *
+     * EventSource cannot send an Authorization header, so the login token may
+     * also come as {@code ?token=}. Every grievance needs an ADMIN token, a
+     * citizen's grievances that citizen's token, a department an OFFICER or
+     * ADMIN token: 401 without a valid token, 403 with the wrong one.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(
+            @RequestParam(value = "admin", defaultValue = "false") boolean admin,
+            @RequestParam(value = "citizenId", required = false) Long citizenId,
+            @RequestParam(value = "officerId", required = false) Long officerId,
+            @RequestParam(value = "department", required = false) String department,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam,
+            @RequestParam(value = "token", required = false) String token,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @AuthenticationPrincipal AuthPrincipal principal
+    ) {
+        AuthPrincipal caller = principal != null ? principal : tokenService.verify(token).orElse(null);
+        if (caller == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        Audience audience;
+        if (admin) {
+            if (!caller.hasRole(User.Role.ADMIN)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+            audience = Audience.admin();
+        } else if (citizenId != null) {
+            if (!citizenId.equals(caller.userId())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+            audience = Audience.citizen(citizenId);
+        } else if (!caller.hasRole(User.Role.OFFICER) && !caller.hasRole(User.Role.ADMIN)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        } else if (officerId != null) {
+            // A signed-in officer follows their current department, as their queue does
+            String officerDepartment = caller.hasRole(User.Role.OFFICER)
+                    ? identityCache.findOfficerDepartment(caller.userId()).orElse(null)
+                    : identityCache.findOfficer(officerId).map(Officer::getDepartment).orElse(null);
+            if (officerDepartment == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            }
+            audience = Audience.department(officerDepartment);
+        } else if (department != null && !department.isBlank()) {
+            audience = Audience.department(department);
+        } else {
+            // One of admin, citizenId, officerId or department is required
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(grievanceStreamBroker.subscribe(
+                audience, lastEventId != null ? lastEventId : lastEventIdParam));
+    }
+}
@@ -2,10 +2,13 @@ package com.civicrules.controller;
 
 import com.civicrules.model.User;
 import com.civicrules.repository.UserRepository;
+import com.civicrules.dto.UserChangedEvent;
+import com.civicrules.service.CredentialService;
+import com.civicrules.service.IdentityCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -20,7 +23,13 @@ public class UserController {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private CredentialService credentialService;
+
+    @Autowired
+    private IdentityCache identityCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     /**
      * Get all users
@@ -41,7 +50,7 @@ public class UserController {
     @GetMapping("/{id}")
     public ResponseEntity<User> getUserById(@PathVariable Long id) {
         try {
-            User user = userRepository.findById(id)
+            User user = identityCache.findUser(id)
                     .orElseThrow(() -> new RuntimeException("User not found"));
             return ResponseEntity.ok(user);
         } catch (RuntimeException e) {
@@ -51,6 +60,14 @@ public class UserController {
         }
     }
 
+    /**
+     * Identity cache hit/miss counters
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<?> getCacheStats() {
+        return ResponseEntity.ok(identityCache.getStats());
+    }
+
     /**
      * Get users by role
      */
@@ -100,6 +117,7 @@ public class UserController {
             }
 
             User saved = userRepository.save(user);
+            eventPublisher.publishEvent(new UserChangedEvent(id));
             return ResponseEntity.ok(saved);
 
         } catch (RuntimeException e) {
@@ -124,13 +142,14 @@ public class UserController {
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             // Verify old password
-            if (!passwordEncoder.matches(oldPassword, user.getPassword())) {
+            if (!credentialService.verify(oldPassword, user.getPassword()).matches()) {
                 return ResponseEntity.badRequest().body("Incorrect old password");
             }
 
             // Update password
-            user.setPassword(passwordEncoder.encode(newPassword));
+            user.setPassword(credentialService.hash(newPassword));
             userRepository.save(user);
+            eventPublisher.publishEvent(new UserChangedEvent(id));
 
             return ResponseEntity.ok().body("Password changed successfully");
 
@@ -153,6 +172,7 @@ public class UserController {
 
             user.setIsActive(false);
             userRepository.save(user);
+            eventPublisher.publishEvent(new UserChangedEvent(id));
 
             return ResponseEntity.ok().body("User deactivated successfully");
 
@@ -174,6 +194,7 @@ public class UserController {
 
             user.setIsActive(true);
             userRepository.save(user);
+            eventPublisher.publishEvent(new UserChangedEvent(id));
 
             return ResponseEntity.ok().body("User activated successfully");
 
@@ -193,6 +214,7 @@ public class UserController {
     public ResponseEntity<?> deleteUser(@PathVariable Long id) {
         try {
             userRepository.deleteById(id);
+            eventPublisher.publishEvent(new UserChangedEvent(id));
             return ResponseEntity.ok().body("User deleted successfully");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
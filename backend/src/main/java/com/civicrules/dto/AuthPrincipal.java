@@ -0,0 +1,21 @@
+package com.civicrules.dto;
+
+import com.civicrules.model.User;
+
+/**
+ * Caller identity taken from a verified bearer token (no database lookup).
+ * Controllers receive it with {@code @AuthenticationPrincipal}; it is null for
+ * requests without a valid token.
+ */
+public record AuthPrincipal(
+        Long userId,
+        String email,
+        String name,
+        User.Role role,
+        String department
+) {
+
+    public boolean hasRole(User.Role role) {
+        return this.role == role;
+    }
+}
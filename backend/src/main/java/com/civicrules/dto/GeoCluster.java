@@ -0,0 +1,7 @@
+package com.civicrules.dto;
+
+/**
+ * Grievances in one geohash cell, placed at their mean position
+ */
+public record GeoCluster(String geohash, long count, double latitude, double longitude) {
+}
@@ -0,0 +1,9 @@
+package com.civicrules.dto;
+
+import com.civicrules.model.Grievance;
+
+/**
+ * One grievance on the map; details come from GET /api/grievances/{id}
+ */
+public record GeoPoint(Long id, double latitude, double longitude, Grievance.Status status, String category) {
+}
@@ -0,0 +1,71 @@
+package com.civicrules.dto;
+
+import com.civicrules.model.Grievance;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDateTime;
+
+/**
+ * Domain event for a grievance lifecycle change.
+ *
+ * Written to the outbox in the transaction of the change and delivered to
+ * in-process listeners by {@link com.civicrules.service.OutboxRelay} once
+ * committed. {@code grievance} has the same shape as a row of the grievance
+ * list; {@code before}/{@code after} are the analytics views of the row
+ * (null before creation and after deletion or archival). {@code sequence} is
+ * the outbox id, assigned on delivery.
+ */
+public record GrievanceEvent(
+        Long sequence,
+        Type type,
+        GrievanceSummary grievance,
+        GrievanceSnapshot before,
+        GrievanceSnapshot after,
+        LocalDateTime occurredAt
+) {
+
+    public enum Type {
+        CREATED,
+        VERIFIED,
+        ASSIGNED,
+        STATUS_CHANGED,
+        REOPENED,
+        FEEDBACK_SUBMITTED,
+        DELETED,
+        // Moved to the archive tables; gone from the active working set, not from history
+        ARCHIVED
+    }
+
+    /**
+     * @param before state prior to the change, null for CREATED
+     */
+    public static GrievanceEvent of(Type type, GrievanceSnapshot before, Grievance grievance) {
+        return of(type, before, grievance, GrievanceSummary.of(grievance));
+    }
+
+    /**
+     * @param summary list row of {@code grievance}, built by the caller without loading its users
+     */
+    public static GrievanceEvent of(Type type, GrievanceSnapshot before, Grievance grievance, GrievanceSummary summary) {
+        return new GrievanceEvent(null, type, summary, before,
+                type == Type.DELETED || type == Type.ARCHIVED ? null : GrievanceSnapshot.of(grievance),
+                LocalDateTime.now());
+    }
+
+    public GrievanceEvent withSequence(Long sequence) {
+        return new GrievanceEvent(sequence, type, grievance, before, after, occurredAt);
+    }
+
+    @JsonIgnore
+    public Long getCitizenId() {
+        return grievance.user() != null ? grievance.user().id() : null;
+    }
+
+    /**
+     * Department routing key; officers see their department's category
+     */
+    @JsonIgnore
+    public String getCategoryKey() {
+        return Grievance.normalizeCategory(grievance.category());
+    }
+}
@@ -0,0 +1,30 @@
+package com.civicrules.dto;
+
+import com.civicrules.model.Grievance;
+
+import java.time.LocalDateTime;
+
+/**
+ * The grievance fields duplicate detection compares, loaded with a
+ * constructor query (no users, no feedback).
+ */
+public record GrievanceFingerprint(
+        Long id,
+        String title,
+        String description,
+        String category,
+        Double latitude,
+        Double longitude,
+        String imagePath,
+        Long imageHash,
+        Grievance.Status status,
+        Long masterGrievanceId,
+        LocalDateTime createdAt
+) {
+
+    public static GrievanceFingerprint of(Grievance g) {
+        return new GrievanceFingerprint(g.getId(), g.getTitle(), g.getDescription(), g.getCategory(),
+                g.getLatitude(), g.getLongitude(), g.getImagePath(), g.getImageHash(), g.getStatus(),
+                g.getMasterGrievanceId(), g.getCreatedAt());
+    }
+}
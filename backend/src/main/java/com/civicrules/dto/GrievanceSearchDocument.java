@@ -0,0 +1,21 @@
+package com.civicrules.dto;
+
+import com.civicrules.model.Grievance;
+
+import java.time.LocalDateTime;
+
+/**
+ * The grievance fields the full-text index holds, loaded with a constructor
+ * query so indexing never touches users or images.
+ */
+public record GrievanceSearchDocument(
+        Long id,
+        String title,
+        String description,
+        String location,
+        String category,
+        String officerRemarks,
+        Grievance.Status status,
+        LocalDateTime createdAt
+) {
+}
@@ -0,0 +1,43 @@
+package com.civicrules.dto;
+
+import com.civicrules.model.Grievance;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight, immutable view of the grievance fields that the analytics
+ * counters depend on. Loaded with a constructor query so no User joins happen.
+ */
+public record GrievanceSnapshot(
+        Long id,
+        String category,
+        String location,
+        Grievance.Status status,
+        Double latitude,
+        Double longitude,
+        LocalDateTime createdAt,
+        LocalDateTime resolvedAt
+) {
+
+    public static GrievanceSnapshot of(Grievance g) {
+        return new GrievanceSnapshot(
+                g.getId(),
+                g.getCategory(),
+                g.getLocation(),
+                g.getStatus(),
+                g.getLatitude(),
+                g.getLongitude(),
+                g.getCreatedAt(),
+                g.getResolvedAt()
+        );
+    }
+
+    /**
+     * Resolved with a timestamp, i.e. counts towards SLA and resolution time
+     */
+    @JsonIgnore
+    public boolean isResolvedWithTime() {
+        return status == Grievance.Status.RESOLVED && resolvedAt != null && createdAt != null;
+    }
+}
@@ -0,0 +1,75 @@
+package com.civicrules.dto;
+
+import com.civicrules.model.Grievance;
+import com.civicrules.model.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row of the grievance list, fetched column-by-column via a JPQL constructor
+ * expression instead of loading Grievance entities and their users.
+ */
+public record GrievanceSummary(
+        Long id,
+        String title,
+        String category,
+        String description,
+        String location,
+        Grievance.Status status,
+        LocalDateTime createdAt,
+        String imagePath,
+        String thumbnailPath,
+        String verificationStatus,
+        String rejectionReason,
+        Boolean feedbackSubmitted,
+        String reopenReason,
+        // Set on a linked duplicate, which follows its master and is left out of officer queues
+        Long masterGrievanceId,
+        PersonRef user,
+        PersonRef assignedTo
+) {
+
+    /**
+     * Flat constructor used by the repository projection queries
+     */
+    public GrievanceSummary(Long id, String title, String category, String description, String location,
+                            Grievance.Status status, LocalDateTime createdAt, String imagePath,
+                            String thumbnailPath, String verificationStatus, String rejectionReason,
+                            Boolean feedbackSubmitted, String reopenReason, Long masterGrievanceId,
+                            Long userId, String userName, Long assignedToId, String assignedToName) {
+        this(id, title, category, description, location, status, createdAt, imagePath, thumbnailPath,
+                verificationStatus, rejectionReason, feedbackSubmitted, reopenReason, masterGrievanceId,
+                PersonRef.of(userId, userName), PersonRef.of(assignedToId, assignedToName));
+    }
+
+    public static GrievanceSummary of(Grievance g) {
+        return of(g, g.getUser() != null ? new PersonRef(g.getUser().getId(), displayName(g.getUser())) : null);
+    }
+
+    /**
+     * @param user the submitter as the caller already knows it, so a lazy
+     *             user reference on the grievance is never loaded
+     */
+    public static GrievanceSummary of(Grievance g, PersonRef user) {
+        return new GrievanceSummary(g.getId(), g.getTitle(), g.getCategory(), g.getDescription(), g.getLocation(),
+                g.getStatus(), g.getCreatedAt(), g.getImagePath(), g.getThumbnailPath(), g.getVerificationStatus(),
+                g.getRejectionReason(), g.getFeedbackSubmitted(), g.getReopenReason(), g.getMasterGrievanceId(),
+                user,
+                g.getAssignedTo() != null ? new PersonRef(g.getAssignedTo().getId(), displayName(g.getAssignedTo())) : null);
+    }
+
+    // Same fallback as the projection queries: COALESCE(fullName, name)
+    private static String displayName(User user) {
+        return user.getFullName() != null ? user.getFullName() : user.getName();
+    }
+
+    /**
+     * Id and display name of a citizen or officer
+     */
+    public record PersonRef(Long id, String name) {
+
+        static PersonRef of(Long id, String name) {
+            return id != null ? new PersonRef(id, name) : null;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.civicrules.dto;
+
+/**
+ * A user or officer row changed (profile, password, activation, deletion);
+ * cached copies must be dropped. A null userId means any number of rows
+ * changed, e.g. a bulk SQL update.
+ */
+public record UserChangedEvent(Long userId) {
+
+    public static UserChangedEvent all() {
+        return new UserChangedEvent(null);
+    }
+}
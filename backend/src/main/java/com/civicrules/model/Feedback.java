@@ -1,24 +1,44 @@
 package com.civicrules.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
+@NamedEntityGraph(name = Feedback.WITH_DETAILS,
+        attributeNodes = {
+                @NamedAttributeNode(value = "grievance", subgraph = "grievancePeople"),
+                @NamedAttributeNode("user")
+        },
+        subgraphs = @NamedSubgraph(name = "grievancePeople", attributeNodes = {
+                @NamedAttributeNode("user"),
+                @NamedAttributeNode("assignedTo")
+        }))
 @Table(name = "feedback")
 public class Feedback {
 
+    /**
+     * Fetch plan for feedback screens: the grievance with its citizen and officer, and the author
+     */
+    public static final String WITH_DETAILS = "Feedback.withDetails";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "feedback_ids")
+    @TableGenerator(name = "feedback_ids", table = IdAllocation.TABLE, pkColumnName = IdAllocation.SEGMENT_COLUMN,
+            valueColumnName = IdAllocation.VALUE_COLUMN, pkColumnValue = "feedback",
+            allocationSize = IdAllocation.ALLOCATION_SIZE)
     private Long id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "grievance_id", nullable = false)
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     private Grievance grievance;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnoreProperties({"grievances", "password", "hibernateLazyInitializer", "handler"})
     private User user;
 
     @Column(nullable = false)
@@ -1,4 +1,6 @@
 package com.civicrules.model;
+import com.civicrules.util.Geohash;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -6,13 +8,36 @@ import org.hibernate.annotations.UpdateTimestamp;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Entity
-@Table(name = "grievances")
+@NamedEntityGraph(name = Grievance.WITH_PEOPLE, attributeNodes = {
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode("assignedTo")
+})
+@Table(name = "grievances", indexes = {
+        @Index(name = "idx_grievances_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_grievances_category_key_created", columnList = "category_key, created_at, id"),
+        @Index(name = "idx_grievances_category_key_sla", columnList = "category_key, status, created_at, resolved_at, category"),
+        @Index(name = "idx_grievances_geohash", columnList = "geohash"),
+        @Index(name = "idx_grievances_master", columnList = "master_grievance_id")
+})
 public class Grievance {
 
+    /**
+     * Fetch plan for screens that show the citizen or officer; everything else
+     * (analytics, counts, citizen lists) reads the grievance row alone
+     */
+    public static final String WITH_PEOPLE = "Grievance.withPeople";
+
+    // ~5 m cells; coarser cells are prefixes of the stored hash
+    public static final int GEOHASH_PRECISION = 9;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "grievance_ids")
+    @TableGenerator(name = "grievance_ids", table = IdAllocation.TABLE, pkColumnName = IdAllocation.SEGMENT_COLUMN,
+            valueColumnName = IdAllocation.VALUE_COLUMN, pkColumnValue = "grievances",
+            allocationSize = IdAllocation.ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false, length = 200)
@@ -21,6 +46,11 @@ public class Grievance {
     @Column(nullable = false, length = 100)
     private String category;
 
+    // Normalized (trimmed, lower-case) category for indexed department lookups
+    @JsonIgnore
+    @Column(name = "category_key", length = 100)
+    private String categoryKey;
+
     @Column(nullable = false, length = 500)
     private String location;
 
@@ -30,6 +60,13 @@ public class Grievance {
     @Column(length = 255)
     private String imagePath;
 
+    // Derivatives generated in the background after upload (null until ready)
+    @Column(length = 255)
+    private String thumbnailPath;
+
+    @Column(length = 255)
+    private String thumbnailWebpPath;
+
     // ADD THESE 3 LINES:
     @Column(length = 50)
     private String verificationStatus = "PENDING"; // PENDING, APPROVED, REJECTED
@@ -50,12 +87,17 @@ public class Grievance {
     @Column
     private Double longitude;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    // Derived from latitude/longitude for prefix (cell) lookups; null without coordinates
+    @JsonIgnore
+    @Column(length = 12)
+    private String geohash;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "citizen_id", nullable = false)
     @JsonIgnoreProperties({"grievances", "password", "hibernateLazyInitializer", "handler"}) // ADD
     private User user;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "assigned_to")
     @JsonIgnoreProperties({"grievances", "password", "hibernateLazyInitializer", "handler"}) // ADD
     private User assignedTo; // Officer assigned to handle
@@ -82,6 +124,15 @@ public class Grievance {
     @Column(columnDefinition = "TEXT")
     private String reopenReason;
 
+    // Set when submitted as a likely duplicate; the grievance then follows its master's status
+    @Column(name = "master_grievance_id")
+    private Long masterGrievanceId;
+
+    // 64-bit difference hash of the photo, for near-duplicate image matching
+    @JsonIgnore
+    @Column(name = "image_dhash")
+    private Long imageHash;
+
     // Status Enum
     public enum Status {
         PENDING,
@@ -95,6 +146,20 @@ public class Grievance {
     public Grievance() {
     }
 
+    @PrePersist
+    @PreUpdate
+    private void syncDerivedColumns() {
+        this.categoryKey = normalizeCategory(category);
+        this.geohash = Geohash.encode(latitude, longitude, GEOHASH_PRECISION);
+    }
+
+    /**
+     * Key used to match grievance categories against officer departments
+     */
+    public static String normalizeCategory(String category) {
+        return category != null ? category.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
     public Grievance(String title, String category, String location, String description,
                      String imagePath, Status status, User user) {
         this.title = title;
@@ -129,6 +194,15 @@ public class Grievance {
 
     public void setCategory(String category) {
         this.category = category;
+        this.categoryKey = normalizeCategory(category);
+    }
+
+    public String getCategoryKey() {
+        return categoryKey;
+    }
+
+    public String getGeohash() {
+        return geohash;
     }
 
     public String getLocation() {
@@ -155,6 +229,22 @@ public class Grievance {
         this.imagePath = imagePath;
     }
 
+    public String getThumbnailPath() {
+        return thumbnailPath;
+    }
+
+    public void setThumbnailPath(String thumbnailPath) {
+        this.thumbnailPath = thumbnailPath;
+    }
+
+    public String getThumbnailWebpPath() {
+        return thumbnailWebpPath;
+    }
+
+    public void setThumbnailWebpPath(String thumbnailWebpPath) {
+        this.thumbnailWebpPath = thumbnailWebpPath;
+    }
+
     public Status getStatus() {
         return status;
     }
@@ -259,6 +349,22 @@ public class Grievance {
         this.reopenReason = reopenReason;
     }
 
+    public Long getMasterGrievanceId() {
+        return masterGrievanceId;
+    }
+
+    public void setMasterGrievanceId(Long masterGrievanceId) {
+        this.masterGrievanceId = masterGrievanceId;
+    }
+
+    public Long getImageHash() {
+        return imageHash;
+    }
+
+    public void setImageHash(Long imageHash) {
+        this.imageHash = imageHash;
+    }
+
     public String getVerificationReason() {
         return verificationReason;
     }
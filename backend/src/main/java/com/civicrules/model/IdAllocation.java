@@ -0,0 +1,41 @@
+package com.civicrules.model;
+
+import java.util.List;
+
+/**
+ * Pooled id allocation for the high-volume tables.
+ *
+ * MySQL has no sequences, so each table's ids come from a row in
+ * {@code id_sequences} (segment = table name). An instance reserves
+ * {@link #ALLOCATION_SIZE} ids per round trip and hands them out from
+ * memory, which lets Hibernate batch inserts; with IDENTITY every insert had
+ * to run alone to learn its key. Ids stay unique across instances but are no
+ * longer in insert order.
+ *
+ * Every instance must allocate this way: the id columns still carry
+ * AUTO_INCREMENT from the baseline schema, and an IDENTITY insert lands in
+ * blocks reserved here (see {@link com.civicrules.service.IdSequenceBackfill}
+ * for the deploy this implies).
+ *
+ * Reserving a block runs in its own transaction on a second pooled
+ * connection while the inserting request still holds its first, so requests
+ * must never hold every connection in the pool, or each waits for a
+ * connection only another can release. With virtual threads the admission
+ * filter keeps them to half the pool (see {@code db.admission}); on platform
+ * threads such a wait fails after the pool's connection timeout.
+ */
+public final class IdAllocation {
+
+    public static final String TABLE = "id_sequences";
+    public static final String SEGMENT_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "next_val";
+
+    // Matches hibernate.jdbc.batch_size
+    public static final int ALLOCATION_SIZE = 50;
+
+    // Tables whose ids are allocated this way, also the segment names
+    public static final List<String> TABLES = List.of("users", "officer", "grievances", "feedback");
+
+    private IdAllocation() {
+    }
+}
@@ -0,0 +1,72 @@
+package com.civicrules.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resolution target for one grievance category, editable by admins.
+ * Keyed like grievances.category_key (trimmed, lower case).
+ */
+@Entity
+@Table(name = "sla_targets")
+public class SlaTarget {
+
+    @Id
+    @Column(name = "category_key", length = 100)
+    private String categoryKey;
+
+    // Display name as first entered
+    @Column(nullable = false, length = 100)
+    private String category;
+
+    @Column(name = "target_days", nullable = false)
+    private Integer targetDays;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public SlaTarget() {
+    }
+
+    public SlaTarget(String category, Integer targetDays) {
+        this.categoryKey = Grievance.normalizeCategory(category);
+        this.category = category.trim();
+        this.targetDays = targetDays;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getCategoryKey() {
+        return categoryKey;
+    }
+
+    public void setCategoryKey(String categoryKey) {
+        this.categoryKey = categoryKey;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public Integer getTargetDays() {
+        return targetDays;
+    }
+
+    public void setTargetDays(Integer targetDays) {
+        this.targetDays = targetDays;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
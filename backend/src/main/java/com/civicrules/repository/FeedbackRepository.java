@@ -1,7 +1,9 @@
 package com.civicrules.repository;
 
 import com.civicrules.model.Feedback;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,21 +12,47 @@ import java.util.Optional;
 @Repository
 public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
 
+    // Screens that return Feedback entities load the grievance and both users up front
+    @Override
+    @EntityGraph(Feedback.WITH_DETAILS)
+    List<Feedback> findAll();
+
     // Find feedback by grievance ID
+    @EntityGraph(Feedback.WITH_DETAILS)
     Optional<Feedback> findByGrievanceId(Long grievanceId);
 
     // Find all feedback by user
+    @EntityGraph(Feedback.WITH_DETAILS)
     List<Feedback> findByUserId(Long userId);
 
     // Find feedback by rating
     List<Feedback> findByRating(Integer rating);
 
     // Find all feedback where complaints were reopened
+    @EntityGraph(Feedback.WITH_DETAILS)
     List<Feedback> findByIsReopened(Boolean isReopened);
 
     // ✅ ADD THIS METHOD - Check if feedback exists for a grievance
     boolean existsByGrievanceId(Long grievanceId);
 
     // Find all feedback ordered by creation date
+    @EntityGraph(Feedback.WITH_DETAILS)
     List<Feedback> findAllByOrderByCreatedAtDesc();
+
+    // Rating histogram with the reopened count per rating, in one GROUP BY; all-time,
+    // so archived feedback counts like the archived grievances do in the analytics
+    @Query(value = "SELECT f.rating AS rating, COUNT(*) AS total, " +
+            "SUM(CASE WHEN f.is_reopened = TRUE THEN 1 ELSE 0 END) AS reopened " +
+            "FROM (SELECT rating, is_reopened FROM feedback " +
+            "UNION ALL SELECT rating, is_reopened FROM feedback_archive) f GROUP BY f.rating",
+            nativeQuery = true)
+    List<RatingCount> countByRating();
+
+    interface RatingCount {
+        Integer getRating();
+
+        Long getTotal();
+
+        Long getReopened();
+    }
 }
\ No newline at end of file
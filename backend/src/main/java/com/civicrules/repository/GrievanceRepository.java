@@ -1,29 +1,82 @@
 package com.civicrules.repository;
 
+import com.civicrules.dto.GrievanceFingerprint;
+import com.civicrules.dto.GrievanceSearchDocument;
+import com.civicrules.dto.GrievanceSnapshot;
+import com.civicrules.dto.GrievanceSummary;
 import com.civicrules.model.Grievance;
 import com.civicrules.model.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface GrievanceRepository extends JpaRepository<Grievance, Long> {
 
+    // Single-grievance reads either return the entity or emit an event naming citizen and officer
+    @Override
+    @EntityGraph(Grievance.WITH_PEOPLE)
+    Optional<Grievance> findById(Long id);
+
     List<Grievance> findByUser(User user);
 
     List<Grievance> findByDepartment(String department);
 
     List<Grievance> findByUserId(Long userId);
 
+    @EntityGraph(Grievance.WITH_PEOPLE)
     List<Grievance> findByStatus(Grievance.Status status);
 
+    @EntityGraph(Grievance.WITH_PEOPLE)
     List<Grievance> findByCategory(String category);
 
-    @Query("SELECT g FROM Grievance g WHERE LOWER(g.category) = LOWER(:category)")
-    List<Grievance> findByCategoryIgnoreCase(@Param("category") String category);
+    default List<Grievance> findByCategoryIgnoreCase(String category) {
+        return findByCategoryKey(Grievance.normalizeCategory(category));
+    }
+
+    List<Grievance> findByCategoryKey(String categoryKey);
+
+    // Officer queue: one range scan on idx_grievances_category_key_created; linked duplicates follow their master and are left out
+    @EntityGraph(Grievance.WITH_PEOPLE)
+    Slice<Grievance> findByCategoryKeyAndMasterGrievanceIdIsNullOrderByCreatedAtDescIdDesc(String categoryKey, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Grievance g SET g.thumbnailPath = :thumbnailPath, g.thumbnailWebpPath = :webpPath WHERE g.id = :id")
+    int updateThumbnailPaths(@Param("id") Long id,
+                             @Param("thumbnailPath") String thumbnailPath,
+                             @Param("webpPath") String webpPath);
+
+    // Backfill rows written before the geohash column existed (the hash is computed in Java)
+    @Query("SELECT new com.civicrules.dto.GrievanceSnapshot(g.id, g.category, g.location, g.status, " +
+            "g.latitude, g.longitude, g.createdAt, g.resolvedAt) " +
+            "FROM Grievance g WHERE g.geohash IS NULL AND g.latitude IS NOT NULL AND g.longitude IS NOT NULL " +
+            "AND g.id > :afterId ORDER BY g.id")
+    List<GrievanceSnapshot> findWithoutGeohashAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Grievance g SET g.geohash = :geohash WHERE g.id = :id")
+    int updateGeohash(@Param("id") Long id, @Param("geohash") String geohash);
+
+    // Backfill rows written before category_key existed
+    @Transactional
+    @Modifying
+    @Query("UPDATE Grievance g SET g.categoryKey = LOWER(TRIM(g.category)) WHERE g.categoryKey IS NULL")
+    int backfillCategoryKeys();
 
     List<Grievance> findByAssignedTo(User assignedTo);
 
@@ -31,18 +84,27 @@ public interface GrievanceRepository extends JpaRepository<Grievance, Long> {
 
     List<Grievance> findByStatusAndUserId(Grievance.Status status, Long userId);
 
+    @EntityGraph(Grievance.WITH_PEOPLE)
     List<Grievance> findByOrderByCreatedAtDesc();
 
     List<Grievance> findByUserIdOrderByCreatedAtDesc(Long userId);
 
+    // Citizen dashboard over a date range [from, to)
+    List<Grievance> findByUserIdAndCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByCreatedAtDesc(
+            Long userId, LocalDateTime from, LocalDateTime to);
+
     // ✅ NEW: Verification-related queries
+    @EntityGraph(Grievance.WITH_PEOPLE)
     List<Grievance> findByVerificationStatus(String verificationStatus);
 
+    @EntityGraph(Grievance.WITH_PEOPLE)
     List<Grievance> findByVerificationStatusOrderByCreatedAtDesc(String verificationStatus);
 
+    @EntityGraph(Grievance.WITH_PEOPLE)
     @Query("SELECT g FROM Grievance g WHERE g.verificationStatus = 'PENDING' ORDER BY g.createdAt DESC")
     List<Grievance> findPendingVerification();
 
+    @EntityGraph(Grievance.WITH_PEOPLE)
     @Query("SELECT g FROM Grievance g WHERE g.verificationStatus = 'APPROVED' AND g.assignedTo IS NULL ORDER BY g.createdAt DESC")
     List<Grievance> findApprovedAndUnassigned();
 
@@ -56,4 +118,166 @@ public interface GrievanceRepository extends JpaRepository<Grievance, Long> {
 
     long countByStatus(Grievance.Status status);
 
+    // Anti-join: grievances in a status that have no feedback row yet
+    @Query("SELECT g FROM Grievance g JOIN FETCH g.user LEFT JOIN FETCH g.assignedTo " +
+            "WHERE g.status = :status " +
+            "AND NOT EXISTS (SELECT f.id FROM Feedback f WHERE f.grievance = g)")
+    List<Grievance> findWithoutFeedbackByStatus(@Param("status") Grievance.Status status);
+
+    @Query("SELECT COUNT(g) FROM Grievance g WHERE g.status = :status " +
+            "AND NOT EXISTS (SELECT f.id FROM Feedback f WHERE f.grievance = g)")
+    long countWithoutFeedbackByStatus(@Param("status") Grievance.Status status);
+
+    // Keyset-paginated list projection: newest first on (createdAt, id)
+    String SUMMARY_SELECT = "SELECT new com.civicrules.dto.GrievanceSummary(g.id, g.title, g.category, " +
+            "g.description, g.location, g.status, g.createdAt, g.imagePath, g.thumbnailPath, g.verificationStatus, " +
+            "g.rejectionReason, g.feedbackSubmitted, g.reopenReason, g.masterGrievanceId, " +
+            "u.id, COALESCE(u.fullName, u.name), a.id, COALESCE(a.fullName, a.name)) " +
+            "FROM Grievance g LEFT JOIN g.user u LEFT JOIN g.assignedTo a ";
+
+    @Query(SUMMARY_SELECT + "ORDER BY g.createdAt DESC, g.id DESC")
+    List<GrievanceSummary> findSummariesFirstPage(Pageable pageable);
+
+    // Search results: the rows behind the ranked hits (caller restores rank order)
+    @Query(SUMMARY_SELECT + "WHERE g.id IN :ids")
+    List<GrievanceSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // The redundant leading bound gives the planner a range on idx_grievances_created_at_id
+    @Query(SUMMARY_SELECT +
+            "WHERE g.createdAt <= :createdAt AND (g.createdAt < :createdAt OR g.id < :id) " +
+            "ORDER BY g.createdAt DESC, g.id DESC")
+    List<GrievanceSummary> findSummariesAfter(@Param("createdAt") LocalDateTime createdAt,
+                                              @Param("id") Long id,
+                                              Pageable pageable);
+
+    // Same walk, stopping at the start of a date range
+    @Query(SUMMARY_SELECT +
+            "WHERE g.createdAt >= :from AND g.createdAt <= :createdAt AND (g.createdAt < :createdAt OR g.id < :id) " +
+            "ORDER BY g.createdAt DESC, g.id DESC")
+    List<GrievanceSummary> findSummariesBetween(@Param("from") LocalDateTime from,
+                                                @Param("createdAt") LocalDateTime createdAt,
+                                                @Param("id") Long id,
+                                                Pageable pageable);
+
+    // SLA per category in one pass, each category against its sla_targets row (or the default).
+    // Whole days resolved = floor(seconds / 86400), as ChronoUnit.DAYS. Archived grievances count too;
+    // both branches read only their idx_*_category_key_sla index, which covers every column used here
+    @Query(value = "SELECT g.category_key AS categoryKey, COALESCE(MIN(t.category), MIN(g.category)) AS category, " +
+            "COALESCE(t.target_days, :defaultDays) AS targetDays, COUNT(*) AS total, " +
+            "SUM(CASE WHEN g.status = 'RESOLVED' AND g.resolved_at IS NOT NULL THEN 1 ELSE 0 END) AS resolved, " +
+            "SUM(CASE WHEN g.status = 'RESOLVED' AND g.resolved_at IS NOT NULL " +
+            "AND FLOOR(TIMESTAMPDIFF(SECOND, g.created_at, g.resolved_at) / 86400) <= COALESCE(t.target_days, :defaultDays) " +
+            "THEN 1 ELSE 0 END) AS withinSla, " +
+            "AVG(CASE WHEN g.status = 'RESOLVED' AND g.resolved_at IS NOT NULL " +
+            "THEN FLOOR(TIMESTAMPDIFF(SECOND, g.created_at, g.resolved_at) / 86400) END) AS averageDays " +
+            "FROM (SELECT category_key, category, status, created_at, resolved_at FROM grievances " +
+            "WHERE category_key IS NOT NULL " +
+            "UNION ALL SELECT category_key, category, status, created_at, resolved_at FROM grievances_archive " +
+            "WHERE category_key IS NOT NULL) g " +
+            "LEFT JOIN sla_targets t ON t.category_key = g.category_key " +
+            "GROUP BY g.category_key, t.target_days",
+            nativeQuery = true)
+    List<SlaAggregate> aggregateSla(@Param("defaultDays") int defaultDays);
+
+    interface SlaAggregate {
+        String getCategoryKey();
+
+        String getCategory();
+
+        Integer getTargetDays();
+
+        Long getTotal();
+
+        Long getResolved();
+
+        Long getWithinSla();
+
+        Double getAverageDays();
+    }
+
+    // Hotspot seed: the sliding window only, walked by id
+    @Query("SELECT new com.civicrules.dto.GrievanceSnapshot(g.id, g.category, g.location, g.status, " +
+            "g.latitude, g.longitude, g.createdAt, g.resolvedAt) " +
+            "FROM Grievance g WHERE g.createdAt >= :since AND g.latitude IS NOT NULL AND g.longitude IS NOT NULL " +
+            "AND g.id > :afterId ORDER BY g.id")
+    List<GrievanceSnapshot> findLocatedSnapshotsCreatedSince(@Param("since") LocalDateTime since,
+                                                             @Param("afterId") Long afterId,
+                                                             Pageable pageable);
+
+    // Search index: text fields only, by id range (rebuild) or by id (incremental)
+    String SEARCH_DOCUMENT_SELECT = "SELECT new com.civicrules.dto.GrievanceSearchDocument(g.id, g.title, " +
+            "g.description, g.location, g.category, g.officerRemarks, g.status, g.createdAt) FROM Grievance g ";
+
+    @Query(SEARCH_DOCUMENT_SELECT + "WHERE g.id > :afterId ORDER BY g.id")
+    List<GrievanceSearchDocument> findSearchDocumentsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(SEARCH_DOCUMENT_SELECT + "WHERE g.id IN :ids")
+    List<GrievanceSearchDocument> findSearchDocumentsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Duplicate detection: recent grievances (seed) and single rows (events)
+    String FINGERPRINT_SELECT = "SELECT new com.civicrules.dto.GrievanceFingerprint(g.id, g.title, g.description, " +
+            "g.category, g.latitude, g.longitude, g.imagePath, g.imageHash, g.status, g.masterGrievanceId, " +
+            "g.createdAt) FROM Grievance g ";
+
+    @Query(FINGERPRINT_SELECT + "WHERE g.createdAt >= :since AND g.id > :afterId ORDER BY g.id")
+    List<GrievanceFingerprint> findFingerprintsCreatedSince(@Param("since") LocalDateTime since,
+                                                            @Param("afterId") Long afterId,
+                                                            Pageable pageable);
+
+    @Query(FINGERPRINT_SELECT + "WHERE g.id IN :ids")
+    List<GrievanceFingerprint> findFingerprintsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Uploads still missing their thumbnail or photo hash, oldest first (idx_grievances_created_at_id)
+    @Query(FINGERPRINT_SELECT + "WHERE g.createdAt >= :since AND g.createdAt < :before " +
+            "AND g.imagePath IS NOT NULL AND (g.thumbnailPath IS NULL OR g.imageHash IS NULL) " +
+            "ORDER BY g.createdAt, g.id")
+    List<GrievanceFingerprint> findMissingDerivatives(@Param("since") LocalDateTime since,
+                                                      @Param("before") LocalDateTime before,
+                                                      Pageable pageable);
+
+    // Grievances linked to a master (idx_grievances_master)
+    List<Grievance> findByMasterGrievanceId(Long masterGrievanceId);
+
+    boolean existsByMasterGrievanceId(Long masterGrievanceId);
+
+    // Row-locked read for a background change that must not overwrite a concurrent one
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT g FROM Grievance g WHERE g.id = :id")
+    Optional<Grievance> findForUpdate(@Param("id") Long id);
+
+    // Bulk triage: a whole batch and its people in one query
+    @EntityGraph(Grievance.WITH_PEOPLE)
+    List<Grievance> findByIdIn(Collection<Long> ids);
+
+    // Row-locked reads in id order, so two writers cannot deadlock; without the people, whose user rows would lock too
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT g FROM Grievance g WHERE g.id IN :ids ORDER BY g.id")
+    List<Grievance> findForUpdateByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT g FROM Grievance g WHERE g.masterGrievanceId IN :masterIds ORDER BY g.id")
+    List<Grievance> findForUpdateByMasterGrievanceIdIn(@Param("masterIds") Collection<Long> masterGrievanceIds);
+
+    @Query(SUMMARY_SELECT + "WHERE g.masterGrievanceId = :masterId ORDER BY g.createdAt, g.id")
+    List<GrievanceSummary> findDuplicateSummaries(@Param("masterId") Long masterId);
+
+    // Analytics seed: keyset walk over the columns the aggregates need, no joins
+    @Query("SELECT new com.civicrules.dto.GrievanceSnapshot(g.id, g.category, g.location, g.status, " +
+            "g.latitude, g.longitude, g.createdAt, g.resolvedAt) " +
+            "FROM Grievance g WHERE g.id > :afterId ORDER BY g.id")
+    List<GrievanceSnapshot> findSnapshotsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Event listeners: the current state of one grievance, whatever the event payload says
+    @Query("SELECT new com.civicrules.dto.GrievanceSnapshot(g.id, g.category, g.location, g.status, " +
+            "g.latitude, g.longitude, g.createdAt, g.resolvedAt) " +
+            "FROM Grievance g WHERE g.id = :id")
+    Optional<GrievanceSnapshot> findSnapshotById(@Param("id") Long id);
+
+    // Archival: resolved or closed before the cutoff (idx_grievances_status_created)
+    @Query("SELECT g.id FROM Grievance g WHERE g.status IN :statuses AND g.createdAt < :cutoff " +
+            "AND COALESCE(g.resolvedAt, g.updatedAt, g.createdAt) < :cutoff")
+    List<Long> findArchivableIds(@Param("statuses") Collection<Grievance.Status> statuses,
+                                 @Param("cutoff") LocalDateTime cutoff,
+                                 Pageable pageable);
+
 }
\ No newline at end of file
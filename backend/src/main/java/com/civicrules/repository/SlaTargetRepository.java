@@ -0,0 +1,13 @@
+package com.civicrules.repository;
+
+import com.civicrules.model.SlaTarget;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SlaTargetRepository extends JpaRepository<SlaTarget, String> {
+
+    List<SlaTarget> findAllByOrderByCategoryAsc();
+}
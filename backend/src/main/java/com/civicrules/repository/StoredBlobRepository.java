@@ -0,0 +1,41 @@
+package com.civicrules.repository;
+
+import com.civicrules.model.StoredBlob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.refCount = b.refCount + 1, b.releasedAt = NULL WHERE b.hash = :hash")
+    int incrementRefCount(@Param("hash") String hash);
+
+    // releasedAt is assigned first: MySQL evaluates SET clauses left to right
+    @Transactional
+    @Modifying
+    @Query("UPDATE StoredBlob b SET " +
+            "b.releasedAt = CASE WHEN b.refCount <= 1 THEN :now ELSE b.releasedAt END, " +
+            "b.refCount = b.refCount - 1 " +
+            "WHERE b.hash = :hash AND b.refCount > 0")
+    int decrementRefCount(@Param("hash") String hash, @Param("now") LocalDateTime now);
+
+    // Orphans whose grace period has passed
+    List<StoredBlob> findByRefCountLessThanEqualAndReleasedAtBefore(Integer refCount,
+                                                                  LocalDateTime cutoff,
+                                                                  Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StoredBlob b WHERE b.hash = :hash AND b.refCount <= 0")
+    int deleteIfUnreferenced(@Param("hash") String hash);
+}
@@ -2,7 +2,11 @@ package com.civicrules.repository;
 
 import com.civicrules.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -48,6 +52,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     Long countByRole(User.Role role);
 
+    /**
+     * Replace a stored password hash (rehash on login) without loading the entity
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
+
     /**
      * Find officers (role = OFFICER)
      */
@@ -0,0 +1,217 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.GrievanceEvent;
+import com.civicrules.dto.GrievanceSnapshot;
+import com.civicrules.model.Grievance;
+import com.civicrules.repository.GrievanceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.LongFunction;
+
+/**
+ * In-memory pre-aggregated grievance counters.
+ *
+ * Seeded once at startup (before the web server accepts requests) and then
+ * kept current from the grievance events relayed out of the outbox, so
+ * analytics never has to scan the grievances table.
+ *
+ * Each event re-reads its grievance by id and replaces that grievance's
+ * contribution to the counters (see {@link OutboxRelay} for why). The price
+ * is one primary-key read per event and one small entry per grievance ever
+ * filed (category and location strings are shared).
+ *
+ * The counters are all-time: archived grievances stay in them, so a
+ * grievance missing from the active table is looked up in the archive and
+ * the seed walks the archive as well.
+ */
+@Component
+public class AnalyticsAggregateStore implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsAggregateStore.class);
+
+    private static final int SEED_BATCH_SIZE = 5000;
+
+    @Autowired
+    private GrievanceRepository grievanceRepository;
+
+    @Autowired
+    private GrievanceArchive grievanceArchive;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Bumped after every change to the counters, for cached analytics; read without the lock
+    private volatile long version;
+
+    // What each grievance currently adds to the counters
+    private final Map<Long, Contribution> contributions = new HashMap<>();
+
+    private long total;
+    private final Map<Grievance.Status, Long> statusCounts = new EnumMap<>(Grievance.Status.class);
+    private final Map<String, Long> categoryCounts = new HashMap<>();
+    private final Map<String, Long> locationCounts = new HashMap<>();
+
+    private long resolvedWithTime;
+    private long resolvedDaysSum;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        seed();
+    }
+
+    /**
+     * Rebuild all counters from the database, walking the active and archive
+     * tables by id in batches
+     */
+    public synchronized void seed() {
+        clear();
+        // One transaction: on MySQL (repeatable read) a grievance archived
+        // during the walk is seen in exactly one of the two tables
+        transactionTemplate.executeWithoutResult(tx -> {
+            walk(afterId -> grievanceRepository.findSnapshotsAfter(afterId, PageRequest.of(0, SEED_BATCH_SIZE)));
+            walk(afterId -> grievanceArchive.findSnapshotsAfter(afterId, SEED_BATCH_SIZE));
+        });
+        version++;
+
+        log.info("Analytics aggregates seeded with {} grievances", total);
+    }
+
+    // ========================================
+    // EVENT HANDLING
+    // ========================================
+
+    @EventListener
+    public void onGrievanceEvent(GrievanceEvent event) {
+        // Read before locking so analytics requests never wait on the database
+        Long id = event.grievance().id();
+        GrievanceSnapshot current = grievanceRepository.findSnapshotById(id)
+                .or(() -> grievanceArchive.findSnapshot(id))
+                .orElse(null);
+        synchronized (this) {
+            replace(id, current);
+            version++;
+        }
+    }
+
+    // ========================================
+    // READS (O(categories) / O(locations))
+    // ========================================
+
+    public long getVersion() {
+        return version;
+    }
+
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    public synchronized long getStatusCount(Grievance.Status status) {
+        return statusCounts.getOrDefault(status, 0L);
+    }
+
+    public synchronized double getAverageResolutionDays() {
+        return resolvedWithTime > 0 ? (double) resolvedDaysSum / resolvedWithTime : 0.0;
+    }
+
+    public synchronized Map<String, Long> getCategoryCounts() {
+        return new HashMap<>(categoryCounts);
+    }
+
+    public synchronized Map<String, Long> getLocationCounts() {
+        return new HashMap<>(locationCounts);
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    /**
+     * Count every snapshot of a keyset walk by id
+     */
+    private void walk(LongFunction<List<GrievanceSnapshot>> batchAfter) {
+        long afterId = 0L;
+        List<GrievanceSnapshot> batch;
+        do {
+            batch = batchAfter.apply(afterId);
+            for (GrievanceSnapshot snapshot : batch) {
+                replace(snapshot.id(), snapshot);
+                afterId = snapshot.id();
+            }
+        } while (batch.size() == SEED_BATCH_SIZE);
+    }
+
+    private void clear() {
+        contributions.clear();
+        total = 0;
+        statusCounts.clear();
+        categoryCounts.clear();
+        locationCounts.clear();
+        resolvedWithTime = 0;
+        resolvedDaysSum = 0;
+    }
+
+    /**
+     * Swap a grievance's contribution for its current state (null: gone for good)
+     */
+    private void replace(Long id, GrievanceSnapshot current) {
+        Contribution previous = current != null
+                ? contributions.put(id, Contribution.of(current))
+                : contributions.remove(id);
+        if (previous != null) {
+            apply(previous, -1);
+        }
+        if (current != null) {
+            apply(contributions.get(id), 1);
+        }
+    }
+
+    private void apply(Contribution c, long delta) {
+        total += delta;
+        if (c.status() != null) {
+            adjust(statusCounts, c.status(), delta);
+        }
+        if (c.category() != null) {
+            adjust(categoryCounts, c.category(), delta);
+        }
+
+        if (c.location() != null) {
+            adjust(locationCounts, c.location(), delta);
+        }
+
+        if (c.resolvedDays() != null) {
+            resolvedWithTime += delta;
+            resolvedDaysSum += delta * c.resolvedDays();
+        }
+    }
+
+    private static <K> void adjust(Map<K, Long> counts, K key, long delta) {
+        long updated = counts.getOrDefault(key, 0L) + delta;
+        if (updated <= 0) {
+            counts.remove(key);
+        } else {
+            counts.put(key, updated);
+        }
+    }
+
+    /**
+     * @param resolvedDays days from filing to resolution, null unless resolved with a timestamp
+     */
+    private record Contribution(Grievance.Status status, String category, String location, Long resolvedDays) {
+
+        static Contribution of(GrievanceSnapshot g) {
+            return new Contribution(g.status(),
+                    g.category() != null ? g.category().intern() : null,
+                    g.location() != null ? g.location().intern() : null,
+                    g.isResolvedWithTime() ? ChronoUnit.DAYS.between(g.createdAt(), g.resolvedAt()) : null);
+        }
+    }
+}
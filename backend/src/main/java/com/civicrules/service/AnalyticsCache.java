@@ -0,0 +1,208 @@
+package com.civicrules.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Result cache for the analytics endpoints, one entry per endpoint.
+ *
+ * An entry is tagged with the data version it was computed from: the sum of
+ * the change counters of the aggregate store, the hotspot engine and the SLA
+ * targets, each bumped after the change is applied. The version is read
+ * before computing, so a result that raced with a change is simply stale.
+ *
+ * Stale entries are served while one background recomputation per key runs
+ * (stale-while-revalidate), for at most {@code analytics.cache.max-stale-ms}
+ * after a key first went stale; past that, and on a cold cache, callers wait
+ * for that same recomputation, so a burst of dashboard loads costs one
+ * computation either way.
+ */
+@Service
+public class AnalyticsCache {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsCache.class);
+
+    @Autowired
+    private AnalyticsAggregateStore aggregateStore;
+
+    @Autowired
+    private HotspotEngine hotspotEngine;
+
+    @Autowired
+    private SlaTargetService slaTargetService;
+
+    @Value("${analytics.cache.max-stale-ms:30000}")
+    private long maxStaleMs;
+
+    private final Map<String, Entry<?>> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Entry<?>>> inFlight = new ConcurrentHashMap<>();
+    // When each key's entry was first found stale (cleared when replaced)
+    private final Map<String, Long> staleSince = new ConcurrentHashMap<>();
+
+    // ETags from an earlier run never match: versions restart from zero
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong waits = new AtomicLong();
+    private final AtomicLong computations = new AtomicLong();
+
+    private final ExecutorService refresher;
+
+    public AnalyticsCache(@Value("${analytics.cache.refresh-threads:2}") int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        this.refresher = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "analytics-refresh-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Cached result for a key, computing it at most once per data version
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Entry<T> get(String key, Supplier<T> compute) {
+        long version = currentVersion();
+        Entry<T> entry = (Entry<T>) entries.get(key);
+
+        if (entry != null && entry.version() == version) {
+            hits.incrementAndGet();
+            return entry;
+        }
+
+        CompletableFuture<Entry<?>> refresh = refresh(key, compute);
+        long now = System.currentTimeMillis();
+        if (entry != null && now - staleSince.computeIfAbsent(key, k -> now) <= maxStaleMs) {
+            staleHits.incrementAndGet();
+            return entry;
+        }
+
+        waits.incrementAndGet();
+        try {
+            return (Entry<T>) refresh.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public long currentVersion() {
+        return aggregateStore.getVersion() + hotspotEngine.getVersion() + slaTargetService.getVersion();
+    }
+
+    /**
+     * Hit, stale-serve, wait and computation counters
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("version", currentVersion());
+        stats.put("hits", hits.get());
+        stats.put("staleHits", staleHits.get());
+        stats.put("waits", waits.get());
+        stats.put("computations", computations.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    /**
+     * The running recomputation for a key, started if there is none. The
+     * future always completes, also when compute throws an Error or the
+     * executor is shut down, since callers may be waiting on it.
+     */
+    private CompletableFuture<Entry<?>> refresh(String key, Supplier<?> compute) {
+        CompletableFuture<Entry<?>> started = new CompletableFuture<>();
+        CompletableFuture<Entry<?>> running = inFlight.putIfAbsent(key, started);
+        if (running != null) {
+            return running;
+        }
+
+        Runnable recompute = () -> {
+            Entry<?> computed = null;
+            Throwable failure = null;
+            try {
+                long version = currentVersion();
+                Object value = compute.get();
+                computations.incrementAndGet();
+                computed = new Entry<>(value, version, etag(key, version), System.currentTimeMillis());
+                entries.merge(key, computed, (current, fresh) -> fresh.version() >= current.version() ? fresh : current);
+                staleSince.remove(key);
+            } catch (Throwable e) {
+                log.warn("Recomputing analytics '{}' failed: {}", key, e.toString());
+                failure = e;
+            }
+            // Free the slot first, so a caller woken by a failure can start the next attempt
+            inFlight.remove(key, started);
+            if (failure != null) {
+                started.completeExceptionally(failure);
+            } else {
+                started.complete(computed);
+            }
+        };
+
+        try {
+            refresher.execute(recompute);
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, started);
+            started.completeExceptionally(e);
+        }
+        return started;
+    }
+
+    private String etag(String key, long version) {
+        return "\"" + key + "-" + epoch + "-" + version + "\"";
+    }
+
+    /**
+     * A cached result
+     *
+     * @param etag       quoted entity tag for the version
+     * @param computedAt epoch millis
+     */
+    public record Entry<T>(T value, long version, String etag, long computedAt) {
+
+        /**
+         * Whether an If-None-Match header names this entry (or is *)
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.equals("*") || candidate.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
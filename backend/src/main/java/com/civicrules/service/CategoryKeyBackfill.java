@@ -0,0 +1,29 @@
+package com.civicrules.service;
+
+import com.civicrules.repository.GrievanceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills grievances.category_key for rows created before the column existed
+ */
+@Component
+public class CategoryKeyBackfill implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryKeyBackfill.class);
+
+    @Autowired
+    private GrievanceRepository grievanceRepository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int updated = grievanceRepository.backfillCategoryKeys();
+        if (updated > 0) {
+            log.info("Backfilled category_key on {} grievances", updated);
+        }
+    }
+}
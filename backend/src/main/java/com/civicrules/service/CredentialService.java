@@ -0,0 +1,173 @@
+package com.civicrules.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Password hashing and verification.
+ *
+ * Passwords are stored as bcrypt hashes with the cost set by
+ * {@code auth.bcrypt.strength}: each step doubles the time of a hash, so the
+ * value trades login latency against brute-force resistance. Accounts created
+ * before hashing (plaintext) are hashed at startup by {@link PasswordHashBackfill};
+ * until then they, and hashes of a lower cost, still verify, and
+ * {@link Verification#upgradedHash()} carries the replacement to store.
+ *
+ * Login verification runs on a small bounded executor rather than on request
+ * threads, so a burst of logins queues here (and is rejected once the queue
+ * is full) instead of tying up every servlet thread on bcrypt.
+ */
+@Service
+public class CredentialService {
+
+    private static final Logger log = LoggerFactory.getLogger(CredentialService.class);
+
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./A-Za-z0-9]{53}$");
+
+    private final PasswordEncoder encoder;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong verified = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong verifyNanos = new AtomicLong();
+
+    public CredentialService(
+            @Value("${auth.bcrypt.strength:10}") int strength,
+            @Value("${auth.verify.threads:0}") int threads,
+            @Value("${auth.verify.queue-capacity:200}") int queueCapacity
+    ) {
+        this.strength = strength;
+        this.encoder = new BCryptPasswordEncoder(strength);
+
+        // bcrypt is pure CPU: by default one verifier per core
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "credential-verify-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> {
+                    rejected.incrementAndGet();
+                    throw new RejectedExecutionException("Credential verification queue is full");
+                }
+        );
+    }
+
+    /**
+     * The encoder used for every stored password
+     */
+    public PasswordEncoder getEncoder() {
+        return encoder;
+    }
+
+    public String hash(String rawPassword) {
+        return encoder.encode(rawPassword);
+    }
+
+    /**
+     * Whether a stored password is a bcrypt hash rather than legacy plaintext
+     */
+    public boolean isHashed(String storedPassword) {
+        return storedPassword != null && BCRYPT.matcher(storedPassword).matches();
+    }
+
+    /**
+     * Verify on the calling thread (password change and other infrequent paths)
+     */
+    public Verification verify(String rawPassword, String storedPassword) {
+        long start = System.nanoTime();
+        try {
+            if (rawPassword == null || storedPassword == null) {
+                return Verification.FAILED;
+            }
+
+            if (!isHashed(storedPassword)) {
+                // Legacy plaintext row not yet rehashed by PasswordHashBackfill: compare without
+                // leaking the mismatch position, then hash it
+                boolean matches = MessageDigest.isEqual(
+                        rawPassword.getBytes(StandardCharsets.UTF_8),
+                        storedPassword.getBytes(StandardCharsets.UTF_8));
+                return matches ? new Verification(true, encoder.encode(rawPassword)) : Verification.FAILED;
+            }
+
+            if (!encoder.matches(rawPassword, storedPassword)) {
+                return Verification.FAILED;
+            }
+            // Hashed at a lower cost than currently configured
+            return new Verification(true,
+                    encoder.upgradeEncoding(storedPassword) ? encoder.encode(rawPassword) : null);
+        } finally {
+            verified.incrementAndGet();
+            verifyNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Verify on the credential executor.
+     *
+     * @throws RejectedExecutionException when the verification queue is full
+     */
+    public CompletableFuture<Verification> verifyAsync(String rawPassword, String storedPassword) {
+        return CompletableFuture.supplyAsync(() -> verify(rawPassword, storedPassword), executor);
+    }
+
+    // ========================================
+    // METRICS
+    // ========================================
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public long getVerifiedCount() {
+        return verified.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public double getAverageVerifyMillis() {
+        long count = verified.get();
+        return count == 0 ? 0 : verifyNanos.get() / 1_000_000.0 / count;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        log.debug("Credential verifier stopped after {} verifications", verified.get());
+    }
+
+    /**
+     * @param upgradedHash replacement hash to store (legacy plaintext or outdated cost), null if current
+     */
+    public record Verification(boolean matches, String upgradedHash) {
+
+        static final Verification FAILED = new Verification(false, null);
+    }
+}
@@ -0,0 +1,292 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.GrievanceEvent;
+import com.civicrules.dto.GrievanceFingerprint;
+import com.civicrules.model.Grievance;
+import com.civicrules.repository.GrievanceRepository;
+import com.civicrules.util.Geohash;
+import com.civicrules.util.MinHash;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Near-duplicate index of recent open grievances, checked at submission on
+ * text, distance and identical photos, and again by
+ * {@link ImageIngestionService} once the photo's dHash has been computed.
+ *
+ * Candidates for a new complaint are open master grievances in the same
+ * category, created within {@code dedup.window-days}, that either lie in the
+ * same or a neighbouring geohash cell or carry the same photo. Each candidate
+ * is scored on title/description similarity (MinHash over character
+ * shingles), photo similarity (identical blob, else dHash Hamming distance)
+ * and distance; the best one above {@code dedup.threshold} is the master.
+ *
+ * Seeded from the window at startup and kept current from grievance events
+ * (each event re-reads the grievance's fingerprint by id).
+ */
+@Component
+public class DuplicateDetector implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(DuplicateDetector.class);
+
+    private static final int SEED_BATCH_SIZE = 2000;
+
+    // ~150 m cells; with their neighbours they cover the match radius
+    private static final int CELL_PRECISION = 7;
+
+    private static final Set<Grievance.Status> OPEN = EnumSet.of(Grievance.Status.PENDING, Grievance.Status.IN_PROGRESS);
+
+    // Score weights; the photo weight is shared out when either side has no photo hash
+    private static final double TEXT_WEIGHT = 0.45;
+    private static final double IMAGE_WEIGHT = 0.35;
+    private static final double DISTANCE_WEIGHT = 0.20;
+
+    @Autowired
+    private GrievanceRepository grievanceRepository;
+
+    @Value("${dedup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${dedup.window-days:14}")
+    private int windowDays;
+
+    @Value("${dedup.radius-meters:150}")
+    private double radiusMeters;
+
+    @Value("${dedup.threshold:0.6}")
+    private double threshold;
+
+    // Guarded by this
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<String, Set<Long>> byCell = new HashMap<>();
+    private final Map<String, Set<Long>> byImage = new HashMap<>();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        seed();
+    }
+
+    /**
+     * Rebuild from the grievances created within the window
+     */
+    public synchronized void seed() {
+        entries.clear();
+        byCell.clear();
+        byImage.clear();
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime since = windowStart();
+        long afterId = 0L;
+        List<GrievanceFingerprint> batch;
+        do {
+            batch = grievanceRepository.findFingerprintsCreatedSince(since, afterId, PageRequest.of(0, SEED_BATCH_SIZE));
+            for (GrievanceFingerprint fingerprint : batch) {
+                put(fingerprint);
+                afterId = fingerprint.id();
+            }
+        } while (batch.size() == SEED_BATCH_SIZE);
+
+        log.info("Duplicate index seeded with {} open grievances from the last {} days", entries.size(), windowDays);
+    }
+
+    /**
+     * Most likely master for a grievance about to be submitted
+     */
+    public synchronized Optional<Match> findMaster(GrievanceFingerprint candidate) {
+        if (!enabled || candidate.category() == null) {
+            return Optional.empty();
+        }
+        String categoryKey = Grievance.normalizeCategory(candidate.category());
+        int[] signature = MinHash.signature(text(candidate));
+
+        Set<Long> ids = new HashSet<>();
+        String cell = Geohash.encode(candidate.latitude(), candidate.longitude(), CELL_PRECISION);
+        if (cell != null) {
+            for (String neighbour : Geohash.neighbourhood(cell)) {
+                ids.addAll(byCell.getOrDefault(categoryKey + "|" + neighbour, Collections.emptySet()));
+            }
+        }
+        if (candidate.imagePath() != null) {
+            ids.addAll(byImage.getOrDefault(categoryKey + "|" + candidate.imagePath(), Collections.emptySet()));
+        }
+
+        Match best = null;
+        for (Long id : ids) {
+            Entry existing = entries.get(id);
+            if (existing == null || existing.fingerprint.id().equals(candidate.id())) {
+                continue;
+            }
+            double score = score(candidate, signature, existing);
+            if (score >= threshold && (best == null || score > best.score())) {
+                best = new Match(id, existing.fingerprint.status(), score);
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    /**
+     * Add a just-committed grievance without waiting for its event, so an
+     * immediate resubmission already finds it
+     */
+    public synchronized void register(GrievanceFingerprint fingerprint) {
+        remove(fingerprint.id());
+        put(fingerprint);
+    }
+
+    @EventListener
+    public void onGrievanceEvent(GrievanceEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Long id = event.grievance().id();
+        // Read outside the lock; replacing an entry with the current row is idempotent
+        List<GrievanceFingerprint> current = event.after() != null
+                ? grievanceRepository.findFingerprintsByIdIn(List.of(id))
+                : Collections.emptyList();
+        synchronized (this) {
+            remove(id);
+            current.forEach(this::put);
+        }
+    }
+
+    /**
+     * Drop grievances that have slid out of the window
+     */
+    @Scheduled(fixedDelayString = "${dedup.expiry-interval-ms:600000}")
+    public synchronized void expire() {
+        LocalDateTime since = windowStart();
+        List<Long> expired = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (entry.fingerprint.createdAt().isBefore(since)) {
+                expired.add(entry.fingerprint.id());
+            }
+        }
+        expired.forEach(this::remove);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    private LocalDateTime windowStart() {
+        return LocalDateTime.now().minusDays(windowDays);
+    }
+
+    /**
+     * Only open masters can absorb new complaints
+     */
+    private void put(GrievanceFingerprint g) {
+        if (g.masterGrievanceId() != null || !OPEN.contains(g.status()) || g.category() == null
+                || g.createdAt() == null || g.createdAt().isBefore(windowStart())) {
+            return;
+        }
+        String categoryKey = Grievance.normalizeCategory(g.category());
+        String cell = Geohash.encode(g.latitude(), g.longitude(), CELL_PRECISION);
+        String cellKey = cell != null ? categoryKey + "|" + cell : null;
+        String imageKey = g.imagePath() != null ? categoryKey + "|" + g.imagePath() : null;
+
+        entries.put(g.id(), new Entry(g, MinHash.signature(text(g)), cellKey, imageKey));
+        if (cellKey != null) {
+            byCell.computeIfAbsent(cellKey, k -> new HashSet<>()).add(g.id());
+        }
+        if (imageKey != null) {
+            byImage.computeIfAbsent(imageKey, k -> new HashSet<>()).add(g.id());
+        }
+    }
+
+    private void remove(Long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        unlink(byCell, entry.cellKey, id);
+        unlink(byImage, entry.imageKey, id);
+    }
+
+    private static void unlink(Map<String, Set<Long>> index, String key, Long id) {
+        if (key == null) {
+            return;
+        }
+        Set<Long> ids = index.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private double score(GrievanceFingerprint candidate, int[] signature, Entry existing) {
+        GrievanceFingerprint other = existing.fingerprint;
+        double text = MinHash.similarity(signature, existing.signature);
+
+        Double image = null;
+        if (candidate.imagePath() != null && candidate.imagePath().equals(other.imagePath())) {
+            image = 1.0;
+        } else if (candidate.imageHash() != null && other.imageHash() != null) {
+            image = 1.0 - Long.bitCount(candidate.imageHash() ^ other.imageHash()) / 64.0;
+        }
+
+        Double proximity = null;
+        if (Geohash.isValid(candidate.latitude(), candidate.longitude())
+                && Geohash.isValid(other.latitude(), other.longitude())) {
+            double meters = Geohash.distanceMeters(candidate.latitude(), candidate.longitude(),
+                    other.latitude(), other.longitude());
+            if (meters > radiusMeters && (image == null || image < 1.0)) {
+                // Too far apart to be the same problem, unless it is literally the same photo
+                return 0;
+            }
+            proximity = Math.max(0, 1 - meters / radiusMeters);
+        }
+
+        double weighted = TEXT_WEIGHT * text;
+        double weights = TEXT_WEIGHT;
+        if (image != null) {
+            weighted += IMAGE_WEIGHT * image;
+            weights += IMAGE_WEIGHT;
+        }
+        if (proximity != null) {
+            weighted += DISTANCE_WEIGHT * proximity;
+            weights += DISTANCE_WEIGHT;
+        }
+        return weighted / weights;
+    }
+
+    private static String text(GrievanceFingerprint g) {
+        return (g.title() != null ? g.title() : "") + " " + (g.description() != null ? g.description() : "");
+    }
+
+    private record Entry(GrievanceFingerprint fingerprint, int[] signature, String cellKey, String imageKey) {
+    }
+
+    /**
+     * @param masterStatus the master's status when matched, which the duplicate takes on
+     * @param score        similarity in [0, 1]
+     */
+    public record Match(Long masterId, Grievance.Status masterStatus, double score) {
+
+        /**
+         * Link a grievance to this master instead of queueing it for verification
+         */
+        public void linkAsDuplicate(Grievance grievance) {
+            grievance.setMasterGrievanceId(masterId);
+            grievance.setStatus(masterStatus);
+            grievance.setVerificationStatus("DUPLICATE");
+            grievance.setVerificationReason(String.format(Locale.ROOT,
+                    "Likely duplicate of grievance #%d (similarity %.2f)", masterId, score));
+        }
+    }
+}
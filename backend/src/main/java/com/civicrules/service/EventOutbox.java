@@ -0,0 +1,74 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.GrievanceEvent;
+import com.civicrules.model.OutboxEvent;
+import com.civicrules.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Write side of the transactional outbox. Events are only recorded as part of
+ * the caller's transaction, so they exist exactly when the change committed.
+ */
+@Service
+public class EventOutbox {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(GrievanceEvent event) {
+        try {
+            outboxEventRepository.save(new OutboxEvent(
+                    event.type().name(),
+                    event.grievance().id(),
+                    objectMapper.writeValueAsString(event)
+            ));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + event.type() + " event", e);
+        }
+    }
+
+    /**
+     * Record a batch of events with one batched INSERT. The ids are IDENTITY, which
+     * Hibernate cannot batch, so this goes through JDBC (one multi-row statement on
+     * MySQL with rewriteBatchedStatements). It runs in the caller's transaction.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(List<GrievanceEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (GrievanceEvent event : events) {
+            try {
+                rows.add(new Object[]{event.type().name(), event.grievance().id(), objectMapper.writeValueAsString(event), now});
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize " + event.type() + " event", e);
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO outbox_events (event_type, aggregate_id, payload, attempts, created_at) "
+                + "VALUES (?, ?, ?, 0, ?)", rows);
+    }
+
+    public GrievanceEvent read(OutboxEvent row) throws JsonProcessingException {
+        return objectMapper.readValue(row.getPayload(), GrievanceEvent.class).withSequence(row.getId());
+    }
+}
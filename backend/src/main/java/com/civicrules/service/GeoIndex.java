@@ -0,0 +1,274 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.GeoCluster;
+import com.civicrules.dto.GeoPoint;
+import com.civicrules.dto.GrievanceEvent;
+import com.civicrules.dto.GrievanceSnapshot;
+import com.civicrules.model.Grievance;
+import com.civicrules.repository.GrievanceRepository;
+import com.civicrules.util.Geohash;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory geohash grid over grievance coordinates for map viewports.
+ *
+ * For every precision up to {@link #POINT_PRECISION} the index keeps a count
+ * and coordinate sum per cell, so a viewport is answered by looking up the
+ * cells that cover it: the cost depends on the number of cells on screen, not
+ * on the number of grievances. Cells at the finest precision also list their
+ * grievances, for individual markers once the map is zoomed in.
+ *
+ * Seeded at startup; each event re-reads its grievance and replaces its point.
+ */
+@Component
+public class GeoIndex implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(GeoIndex.class);
+
+    // ~150 m cells
+    static final int POINT_PRECISION = 7;
+
+    private static final int SEED_BATCH_SIZE = 5000;
+
+    @Autowired
+    private GrievanceRepository grievanceRepository;
+
+    @Value("${geo.points-min-zoom:15}")
+    private int pointsMinZoom;
+
+    @Value("${geo.max-points:2000}")
+    private int maxPoints;
+
+    @Value("${geo.max-cells:1024}")
+    private int maxCells;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, GeoPoint> points = new HashMap<>();
+
+    // cells.get(p - 1): geohash of precision p -> cell
+    private final List<Map<String, Cell>> cells = new ArrayList<>();
+
+    public GeoIndex() {
+        for (int p = 1; p <= POINT_PRECISION; p++) {
+            cells.add(new HashMap<>());
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        seed();
+    }
+
+    /**
+     * Rebuild the index from the database
+     */
+    public void seed() {
+        lock.writeLock().lock();
+        try {
+            points.clear();
+            cells.forEach(Map::clear);
+
+            long afterId = 0L;
+            List<GrievanceSnapshot> batch;
+            do {
+                batch = grievanceRepository.findSnapshotsAfter(afterId, PageRequest.of(0, SEED_BATCH_SIZE));
+                for (GrievanceSnapshot snapshot : batch) {
+                    add(snapshot);
+                    afterId = snapshot.id();
+                }
+            } while (batch.size() == SEED_BATCH_SIZE);
+
+            log.info("Geo index seeded with {} located grievances", points.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onGrievanceEvent(GrievanceEvent event) {
+        // Upsert by id from the committed row (the payload may be stale), read
+        // before locking so viewports never wait on the database
+        Long id = event.grievance().id();
+        Optional<GrievanceSnapshot> current = grievanceRepository.findSnapshotById(id);
+        lock.writeLock().lock();
+        try {
+            remove(id);
+            current.ifPresent(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Clusters (or, zoomed in far enough and few enough, individual points) in a bounding box
+     *
+     * @param zoom web map zoom level (0 = whole world in one 256 px tile)
+     */
+    public Viewport within(double minLat, double minLng, double maxLat, double maxLng, int zoom) {
+        lock.readLock().lock();
+        try {
+            if (zoom >= pointsMinZoom && cellCount(minLat, minLng, maxLat, maxLng, POINT_PRECISION) <= maxCells) {
+                List<GeoPoint> found = new ArrayList<>();
+                boolean overflow = false;
+                for (String hash : coveringCells(minLat, minLng, maxLat, maxLng, POINT_PRECISION)) {
+                    Cell cell = cells.get(POINT_PRECISION - 1).get(hash);
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (Long id : cell.ids) {
+                        GeoPoint point = points.get(id);
+                        if (point.latitude() >= minLat && point.latitude() <= maxLat
+                                && point.longitude() >= minLng && point.longitude() <= maxLng) {
+                            found.add(point);
+                        }
+                    }
+                    if (found.size() > maxPoints) {
+                        overflow = true;
+                        break;
+                    }
+                }
+                if (!overflow) {
+                    return new Viewport(zoom, POINT_PRECISION, false, found.size(), Collections.emptyList(), found);
+                }
+            }
+
+            int precision = precisionForZoom(zoom);
+            while (precision > 1 && cellCount(minLat, minLng, maxLat, maxLng, precision) > maxCells) {
+                precision--;
+            }
+
+            List<GeoCluster> clusters = new ArrayList<>();
+            long total = 0;
+            Map<String, Cell> level = cells.get(precision - 1);
+            for (String hash : coveringCells(minLat, minLng, maxLat, maxLng, precision)) {
+                Cell cell = level.get(hash);
+                if (cell != null) {
+                    clusters.add(new GeoCluster(hash, cell.count,
+                            cell.latitudeSum / cell.count, cell.longitudeSum / cell.count));
+                    total += cell.count;
+                }
+            }
+            return new Viewport(zoom, precision, true, total, clusters, Collections.emptyList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return points.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    private void add(GrievanceSnapshot g) {
+        String hash = Geohash.encode(g.latitude(), g.longitude(), POINT_PRECISION);
+        if (hash == null) {
+            return;
+        }
+        GeoPoint point = new GeoPoint(g.id(), g.latitude(), g.longitude(), g.status(), g.category());
+        points.put(g.id(), point);
+        for (int p = 1; p <= POINT_PRECISION; p++) {
+            Cell cell = cells.get(p - 1).computeIfAbsent(hash.substring(0, p), k -> new Cell());
+            cell.count++;
+            cell.latitudeSum += point.latitude();
+            cell.longitudeSum += point.longitude();
+        }
+        cells.get(POINT_PRECISION - 1).get(hash).ids.add(g.id());
+    }
+
+    private void remove(Long id) {
+        GeoPoint point = points.remove(id);
+        if (point == null) {
+            return;
+        }
+        String hash = Geohash.encode(point.latitude(), point.longitude(), POINT_PRECISION);
+        cells.get(POINT_PRECISION - 1).get(hash).ids.remove(id);
+        for (int p = 1; p <= POINT_PRECISION; p++) {
+            Map<String, Cell> level = cells.get(p - 1);
+            String prefix = hash.substring(0, p);
+            Cell cell = level.get(prefix);
+            if (--cell.count == 0) {
+                level.remove(prefix);
+            } else {
+                cell.latitudeSum -= point.latitude();
+                cell.longitudeSum -= point.longitude();
+            }
+        }
+    }
+
+    /**
+     * Finest precision whose cells are still about a quarter tile wide, so clusters do not overlap on screen
+     */
+    private static int precisionForZoom(int zoom) {
+        double clusterWidth = 360.0 / Math.pow(2, Math.max(zoom, 0)) / 4;
+        int precision = 1;
+        while (precision < POINT_PRECISION && Geohash.cellWidth(precision + 1) >= clusterWidth) {
+            precision++;
+        }
+        return precision;
+    }
+
+    private static long cellCount(double minLat, double minLng, double maxLat, double maxLng, int precision) {
+        double width = Geohash.cellWidth(precision);
+        double height = Geohash.cellHeight(precision);
+        long columns = column(maxLng, width) - column(minLng, width) + 1;
+        long rows = row(maxLat, height) - row(minLat, height) + 1;
+        return columns * rows;
+    }
+
+    private static List<String> coveringCells(double minLat, double minLng, double maxLat, double maxLng, int precision) {
+        double width = Geohash.cellWidth(precision);
+        double height = Geohash.cellHeight(precision);
+        List<String> hashes = new ArrayList<>();
+        for (long x = column(minLng, width); x <= column(maxLng, width); x++) {
+            for (long y = row(minLat, height); y <= row(maxLat, height); y++) {
+                // Encode the cell centre
+                hashes.add(Geohash.encode(-90 + (y + 0.5) * height, -180 + (x + 0.5) * width, precision));
+            }
+        }
+        return hashes;
+    }
+
+    private static long column(double longitude, double width) {
+        return Math.min((long) ((longitude + 180) / width), Math.round(360 / width) - 1);
+    }
+
+    private static long row(double latitude, double height) {
+        return Math.min((long) ((latitude + 90) / height), Math.round(180 / height) - 1);
+    }
+
+    private static class Cell {
+        private long count;
+        private double latitudeSum;
+        private double longitudeSum;
+        // Only filled at POINT_PRECISION
+        private final Set<Long> ids = new HashSet<>();
+    }
+
+    /**
+     * Index answer for one map viewport: clusters or points (the other list is empty)
+     *
+     * @param total grievances represented
+     */
+    public record Viewport(int zoom, int precision, boolean clustered, long total, List<GeoCluster> clusters, List<GeoPoint> points) {
+    }
+}
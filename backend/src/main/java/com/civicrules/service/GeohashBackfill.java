@@ -0,0 +1,51 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.GrievanceSnapshot;
+import com.civicrules.model.Grievance;
+import com.civicrules.repository.GrievanceRepository;
+import com.civicrules.util.Geohash;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Fills grievances.geohash for rows created before the column existed
+ */
+@Component
+public class GeohashBackfill implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(GeohashBackfill.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private GrievanceRepository grievanceRepository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long afterId = 0L;
+        int updated = 0;
+        List<GrievanceSnapshot> batch;
+        do {
+            batch = grievanceRepository.findWithoutGeohashAfter(afterId, PageRequest.of(0, BATCH_SIZE));
+            for (GrievanceSnapshot g : batch) {
+                String geohash = Geohash.encode(g.latitude(), g.longitude(), Grievance.GEOHASH_PRECISION);
+                // Out-of-range coordinates stay null and are skipped by the keyset walk
+                if (geohash != null) {
+                    updated += grievanceRepository.updateGeohash(g.id(), geohash);
+                }
+                afterId = g.id();
+            }
+        } while (batch.size() == BATCH_SIZE);
+
+        if (updated > 0) {
+            log.info("Backfilled geohash on {} grievances", updated);
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.GrievanceEvent;
+import com.civicrules.dto.GrievanceSnapshot;
+import com.civicrules.dto.GrievanceSummary;
+import com.civicrules.model.Grievance;
+import com.civicrules.model.User;
+import com.civicrules.repository.GrievanceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Hot/cold split of the grievances table.
+ *
+ * Grievances resolved or closed more than {@code archive.after-days} ago are
+ * moved, with their feedback, to {@code grievances_archive} and
+ * {@code feedback_archive} in batches, one transaction each. Every moved
+ * grievance gets an ARCHIVED event in the same transaction, so the in-memory
+ * indexes drop it while the all-time analytics keep counting it.
+ *
+ * Reads over the archive are for callers that ask for a date range; a range
+ * that starts after the newest archived grievance never touches it. Lists of
+ * grievances and feedback are the active working set, while counts and
+ * aggregates (analytics, SLA, feedback ratings) are all-time and include the
+ * archive. A single grievance is served in the same shape from either table.
+ */
+@Service
+public class GrievanceArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(GrievanceArchive.class);
+
+    private static final List<Grievance.Status> ARCHIVABLE =
+            List.of(Grievance.Status.RESOLVED, Grievance.Status.CLOSED);
+
+    private static final String GRIEVANCE_COLUMNS = "id, title, description, category, category_key, department, "
+            + "location, latitude, longitude, geohash, status, verification_status, verification_reason, "
+            + "rejection_reason, reopen_reason, officer_remarks, feedback_submitted, image_path, image_dhash, "
+            + "thumbnail_path, thumbnail_webp_path, master_grievance_id, citizen_id, assigned_to, "
+            + "created_at, updated_at, resolved_at";
+
+    private static final String FEEDBACK_COLUMNS =
+            "id, grievance_id, user_id, rating, comment, is_reopened, created_at";
+
+    // Same shape and name fallback as GrievanceRepository.SUMMARY_SELECT
+    private static final String SUMMARY_SELECT = "SELECT g.id, g.title, g.category, g.description, g.location, "
+            + "g.status, g.created_at, g.image_path, g.thumbnail_path, g.verification_status, g.rejection_reason, "
+            + "g.feedback_submitted, g.reopen_reason, g.master_grievance_id, u.id AS user_id, COALESCE(u.full_name, u.name) AS user_name, "
+            + "a.id AS officer_id, COALESCE(a.full_name, a.name) AS officer_name "
+            + "FROM grievances_archive g LEFT JOIN users u ON u.id = g.citizen_id "
+            + "LEFT JOIN users a ON a.id = g.assigned_to ";
+
+    private static final String SNAPSHOT_SELECT = "SELECT id, category, location, status, latitude, longitude, "
+            + "created_at, resolved_at FROM grievances_archive ";
+
+    @Autowired
+    private GrievanceRepository grievanceRepository;
+
+    @Autowired
+    private IdentityCache identityCache;
+
+    @Autowired
+    private EventOutbox eventOutbox;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${archive.after-days:365}")
+    private int afterDays;
+
+    @Value("${archive.batch-size:500}")
+    private int batchSize;
+
+    // ========================================
+    // ARCHIVAL
+    // ========================================
+
+    @Scheduled(fixedDelayString = "${archive.interval-ms:3600000}",
+            initialDelayString = "${archive.interval-ms:3600000}")
+    public void archiveScheduled() {
+        if (enabled) {
+            archive();
+        }
+    }
+
+    /**
+     * Move every grievance resolved or closed before the cutoff
+     *
+     * @return number of grievances archived
+     */
+    public int archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(afterDays);
+        int archived = 0;
+
+        // A full batch of candidates means there may be more, even if the re-check dropped some
+        Batch batch;
+        do {
+            batch = transactionTemplate.execute(tx -> archiveBatch(cutoff));
+            archived += batch.moved();
+        } while (batch.candidates() == batchSize);
+
+        if (archived > 0) {
+            log.info("Archived {} grievances resolved or closed before {}", archived, cutoff);
+        }
+        return archived;
+    }
+
+    // ========================================
+    // READS
+    // ========================================
+
+    /**
+     * Whether a date range starting at {@code from} can contain archived grievances
+     */
+    public boolean covers(LocalDateTime from) {
+        Timestamp newest = jdbcTemplate.getJdbcTemplate()
+                .queryForObject("SELECT MAX(created_at) FROM grievances_archive", Timestamp.class);
+        return newest != null && !from.isAfter(newest.toLocalDateTime());
+    }
+
+    /**
+     * Keyset page of archived summaries created in [from, createdAt), newest
+     * first, continuing after the (createdAt, id) position
+     */
+    public List<GrievanceSummary> findSummariesAfter(LocalDateTime from, LocalDateTime createdAt, long id, int limit) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("from", Timestamp.valueOf(from));
+        params.put("createdAt", Timestamp.valueOf(createdAt));
+        params.put("id", id);
+        params.put("limit", limit);
+        return jdbcTemplate.query(SUMMARY_SELECT
+                + "WHERE g.created_at >= :from AND g.created_at <= :createdAt "
+                + "AND (g.created_at < :createdAt OR g.id < :id) "
+                + "ORDER BY g.created_at DESC, g.id DESC LIMIT :limit", params, SUMMARY_MAPPER);
+    }
+
+    /**
+     * An archived grievance as a detached entity with its citizen and officer,
+     * so it serializes like an active one; never to be saved
+     */
+    public Optional<Grievance> findGrievance(Long id) {
+        Optional<Grievance> found = jdbcTemplate.query("SELECT " + GRIEVANCE_COLUMNS
+                        + " FROM grievances_archive WHERE id = :id", Map.of("id", id), GrievanceArchive::mapGrievance)
+                .stream().findFirst();
+        found.ifPresent(g -> {
+            if (g.getUser() != null) {
+                g.setUser(identityCache.findUser(g.getUser().getId()).orElse(null));
+            }
+            if (g.getAssignedTo() != null) {
+                g.setAssignedTo(identityCache.findUser(g.getAssignedTo().getId()).orElse(null));
+            }
+        });
+        return found;
+    }
+
+    /**
+     * Archived grievances with this status
+     */
+    public long countByStatus(Grievance.Status status) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM grievances_archive WHERE status = :status",
+                Map.of("status", status.name()), Long.class);
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * A citizen's archived grievances created in [from, to), newest first,
+     * as the rows of the citizen dashboard list
+     */
+    public List<Map<String, Object>> findForCitizen(Long citizenId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("citizenId", citizenId);
+        params.put("from", Timestamp.valueOf(from));
+        params.put("to", Timestamp.valueOf(to));
+        return jdbcTemplate.query("SELECT id, title, category, location, description, status, image_path, "
+                + "thumbnail_path, created_at, latitude, longitude, department, verification_status "
+                + "FROM grievances_archive WHERE citizen_id = :citizenId "
+                + "AND created_at >= :from AND created_at < :to ORDER BY created_at DESC", params, (rs, row) -> {
+            Map<String, Object> dto = new HashMap<>();
+            dto.put("id", rs.getLong("id"));
+            dto.put("title", rs.getString("title"));
+            dto.put("category", rs.getString("category"));
+            dto.put("location", rs.getString("location"));
+            dto.put("description", rs.getString("description"));
+            dto.put("status", rs.getString("status"));
+            dto.put("imagePath", rs.getString("image_path"));
+            dto.put("thumbnailPath", rs.getString("thumbnail_path"));
+            dto.put("createdAt", toLocalDateTime(rs.getTimestamp("created_at")));
+            dto.put("latitude", rs.getObject("latitude", Double.class));
+            dto.put("longitude", rs.getObject("longitude", Double.class));
+            dto.put("department", rs.getString("department"));
+            dto.put("verificationStatus", rs.getString("verification_status"));
+            dto.put("archived", true);
+            return dto;
+        });
+    }
+
+    /**
+     * A citizen's archived grievances per status
+     */
+    public Map<Grievance.Status, Long> countByStatusForCitizen(Long citizenId) {
+        Map<Grievance.Status, Long> counts = new EnumMap<>(Grievance.Status.class);
+        jdbcTemplate.query("SELECT status, COUNT(*) AS total FROM grievances_archive "
+                + "WHERE citizen_id = :citizenId GROUP BY status", Map.of("citizenId", citizenId), rs -> {
+            counts.put(Grievance.Status.valueOf(rs.getString("status")), rs.getLong("total"));
+        });
+        return counts;
+    }
+
+    /**
+     * Analytics seed: keyset walk over the archived rows, like
+     * {@link GrievanceRepository#findSnapshotsAfter}
+     */
+    public List<GrievanceSnapshot> findSnapshotsAfter(long afterId, int limit) {
+        return jdbcTemplate.query(SNAPSHOT_SELECT + "WHERE id > :afterId ORDER BY id LIMIT :limit",
+                Map.of("afterId", afterId, "limit", limit), SNAPSHOT_MAPPER);
+    }
+
+    /**
+     * One archived row, for event listeners re-reading a grievance that left the active table
+     */
+    public Optional<GrievanceSnapshot> findSnapshot(Long id) {
+        return jdbcTemplate.query(SNAPSHOT_SELECT + "WHERE id = :id", Map.of("id", id), SNAPSHOT_MAPPER)
+                .stream().findFirst();
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    /**
+     * Move one batch; feedback first, it references the grievance rows
+     */
+    private Batch archiveBatch(LocalDateTime cutoff) {
+        List<Long> candidates = grievanceRepository.findArchivableIds(ARCHIVABLE, cutoff, PageRequest.of(0, batchSize));
+        if (candidates.isEmpty()) {
+            return new Batch(0, 0);
+        }
+
+        // Lock the candidates and re-check them: one may have been reopened since
+        // it was picked. Changes to the locked rows wait for this transaction, so
+        // the copies and deletes below see exactly these rows as they are now
+        Map<String, Object> lockParams = new HashMap<>();
+        lockParams.put("ids", candidates);
+        lockParams.put("statuses", ARCHIVABLE.stream().map(Enum::name).toList());
+        lockParams.put("cutoff", Timestamp.valueOf(cutoff));
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM grievances WHERE id IN (:ids) "
+                + "AND status IN (:statuses) AND created_at < :cutoff "
+                + "AND COALESCE(resolved_at, updated_at, created_at) < :cutoff FOR UPDATE", lockParams, Long.class);
+        if (ids.isEmpty()) {
+            return new Batch(candidates.size(), 0);
+        }
+
+        // Loaded for the events before the rows go; never modified, so nothing is flushed back
+        List<Grievance> grievances = grievanceRepository.findByIdIn(ids);
+
+        Map<String, Object> params = Map.of("ids", ids, "archivedAt", Timestamp.valueOf(LocalDateTime.now()));
+        jdbcTemplate.update("INSERT INTO feedback_archive (" + FEEDBACK_COLUMNS + ", archived_at) "
+                + "SELECT " + FEEDBACK_COLUMNS + ", :archivedAt FROM feedback WHERE grievance_id IN (:ids)", params);
+        jdbcTemplate.update("DELETE FROM feedback WHERE grievance_id IN (:ids)", params);
+        jdbcTemplate.update("INSERT INTO grievances_archive (" + GRIEVANCE_COLUMNS + ", archived_at) "
+                + "SELECT " + GRIEVANCE_COLUMNS + ", :archivedAt FROM grievances WHERE id IN (:ids)", params);
+        jdbcTemplate.update("DELETE FROM grievances WHERE id IN (:ids)", params);
+
+        List<GrievanceEvent> events = new ArrayList<>(grievances.size());
+        for (Grievance grievance : grievances) {
+            events.add(GrievanceEvent.of(GrievanceEvent.Type.ARCHIVED, GrievanceSnapshot.of(grievance), grievance));
+        }
+        eventOutbox.appendAll(events);
+        return new Batch(candidates.size(), ids.size());
+    }
+
+    private static final RowMapper<GrievanceSummary> SUMMARY_MAPPER = GrievanceArchive::mapSummary;
+
+    private static final RowMapper<GrievanceSnapshot> SNAPSHOT_MAPPER = (rs, row) -> new GrievanceSnapshot(
+            rs.getLong("id"),
+            rs.getString("category"),
+            rs.getString("location"),
+            Grievance.Status.valueOf(rs.getString("status")),
+            rs.getObject("latitude", Double.class),
+            rs.getObject("longitude", Double.class),
+            toLocalDateTime(rs.getTimestamp("created_at")),
+            toLocalDateTime(rs.getTimestamp("resolved_at")));
+
+    private static GrievanceSummary mapSummary(ResultSet rs, int row) throws SQLException {
+        return new GrievanceSummary(
+                rs.getLong("id"),
+                rs.getString("title"),
+                rs.getString("category"),
+                rs.getString("description"),
+                rs.getString("location"),
+                Grievance.Status.valueOf(rs.getString("status")),
+                toLocalDateTime(rs.getTimestamp("created_at")),
+                rs.getString("image_path"),
+                rs.getString("thumbnail_path"),
+                rs.getString("verification_status"),
+                rs.getString("rejection_reason"),
+                rs.getObject("feedback_submitted", Boolean.class),
+                rs.getString("reopen_reason"),
+                rs.getObject("master_grievance_id", Long.class),
+                rs.getObject("user_id", Long.class),
+                rs.getString("user_name"),
+                rs.getObject("officer_id", Long.class),
+                rs.getString("officer_name"));
+    }
+
+    private static Grievance mapGrievance(ResultSet rs, int row) throws SQLException {
+        Grievance g = new Grievance();
+        g.setId(rs.getLong("id"));
+        g.setTitle(rs.getString("title"));
+        g.setDescription(rs.getString("description"));
+        g.setCategory(rs.getString("category"));
+        g.setDepartment(rs.getString("department"));
+        g.setLocation(rs.getString("location"));
+        g.setLatitude(rs.getObject("latitude", Double.class));
+        g.setLongitude(rs.getObject("longitude", Double.class));
+        g.setStatus(Grievance.Status.valueOf(rs.getString("status")));
+        g.setVerificationStatus(rs.getString("verification_status"));
+        g.setVerificationReason(rs.getString("verification_reason"));
+        g.setRejectionReason(rs.getString("rejection_reason"));
+        g.setReopenReason(rs.getString("reopen_reason"));
+        g.setOfficerRemarks(rs.getString("officer_remarks"));
+        g.setFeedbackSubmitted(rs.getObject("feedback_submitted", Boolean.class));
+        g.setImagePath(rs.getString("image_path"));
+        g.setImageHash(rs.getObject("image_dhash", Long.class));
+        g.setThumbnailPath(rs.getString("thumbnail_path"));
+        g.setThumbnailWebpPath(rs.getString("thumbnail_webp_path"));
+        g.setMasterGrievanceId(rs.getObject("master_grievance_id", Long.class));
+        g.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+        g.setUpdatedAt(toLocalDateTime(rs.getTimestamp("updated_at")));
+        g.setResolvedAt(toLocalDateTime(rs.getTimestamp("resolved_at")));
+        // Placeholders with the ids only; findGrievance swaps in the users
+        g.setUser(userRef(rs.getObject("citizen_id", Long.class)));
+        g.setAssignedTo(userRef(rs.getObject("assigned_to", Long.class)));
+        return g;
+    }
+
+    private static User userRef(Long id) {
+        if (id == null) {
+            return null;
+        }
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    /**
+     * Ids picked for a batch, and how many of them passed the re-check and moved
+     */
+    private record Batch(int candidates, int moved) {
+    }
+}
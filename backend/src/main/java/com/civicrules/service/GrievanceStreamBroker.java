@@ -0,0 +1,310 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.GrievanceEvent;
+import com.civicrules.dto.GrievanceSummary;
+import com.civicrules.model.Grievance;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans grievance events out to Server-Sent Events subscribers.
+ *
+ * One dispatcher thread numbers the events, keeps the most recent ones for
+ * Last-Event-ID replay and appends each to the subscribers' own bounded
+ * queues; it never writes to a connection. Each queue is drained by a sender
+ * thread of its own while it has work, so a client stalled on a full socket
+ * holds up only itself. A client that falls {@code stream.queue-capacity}
+ * events behind is disconnected and catches up by reconnecting with
+ * Last-Event-ID.
+ */
+@Service
+public class GrievanceStreamBroker {
+
+    private static final Logger log = LoggerFactory.getLogger(GrievanceStreamBroker.class);
+
+    @Value("${stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${stream.replay-size:256}")
+    private int replaySize;
+
+    @Value("${stream.queue-capacity:256}")
+    private int queueCapacity;
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    // Only touched on the dispatcher thread
+    private final Deque<Delivery> recent = new ArrayDeque<>();
+    private long sequence;
+
+    // Event ids are "<epoch>-<sequence>"; ids from an earlier run are not replayed
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sse-dispatch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // At most one thread per subscriber at a time (idle threads exit after a minute)
+    private final ExecutorService senders = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "sse-send-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    /**
+     * Open a stream for an audience, replaying events after lastEventId if still buffered
+     */
+    public SseEmitter subscribe(Audience audience, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        register(emitter, audience, lastEventId);
+        return emitter;
+    }
+
+    /**
+     * Attach an emitter; replayed events are queued ahead of anything published later
+     */
+    void register(SseEmitter emitter, Audience audience, String lastEventId) {
+        // Room for a full replay on top of the live backlog allowance
+        Subscription subscription = new Subscription(emitter, audience, Math.max(queueCapacity, replaySize));
+
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+
+        dispatcher.execute(() -> {
+            Long after = sequenceOf(lastEventId);
+            if (after != null) {
+                for (Delivery delivery : recent) {
+                    if (delivery.sequence > after && !enqueue(subscription, delivery)) {
+                        return;
+                    }
+                }
+            }
+            subscriptions.add(subscription);
+        });
+    }
+
+    @EventListener
+    public void onGrievanceEvent(GrievanceEvent event) {
+        dispatcher.execute(() -> {
+            Delivery delivery = new Delivery(++sequence, event);
+            recent.addLast(delivery);
+            while (recent.size() > replaySize) {
+                recent.removeFirst();
+            }
+            for (Subscription subscription : subscriptions) {
+                enqueue(subscription, delivery);
+            }
+        });
+    }
+
+    /**
+     * Comment lines keep proxies from closing idle streams and reveal dead clients.
+     * A client with events still queued is not idle and gets none.
+     */
+    @Scheduled(fixedRateString = "${stream.heartbeat-ms:20000}")
+    public void heartbeat() {
+        dispatcher.execute(() -> {
+            for (Subscription subscription : subscriptions) {
+                if (subscription.isIdle()) {
+                    subscription.offer(SseEmitter.event().comment("keepalive"));
+                }
+            }
+        });
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+        for (Subscription subscription : subscriptions) {
+            subscription.close();
+            subscription.emitter.complete();
+        }
+        subscriptions.clear();
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    /**
+     * Queue an event for a subscriber; false if it was disconnected for falling behind
+     */
+    private boolean enqueue(Subscription subscription, Delivery delivery) {
+        if (!subscription.audience.accepts(delivery.event)) {
+            return true;
+        }
+        if (subscription.offer(SseEmitter.event()
+                .id(epoch + "-" + delivery.sequence)
+                .name(delivery.event.type().name())
+                .data(ClientEvent.of(delivery.event), MediaType.APPLICATION_JSON))) {
+            return true;
+        }
+        log.debug("Dropping SSE subscriber {} events behind", subscription.queue.size());
+        drop(subscription, new IOException("Subscriber fell behind"));
+        return false;
+    }
+
+    /**
+     * Disconnect a subscriber. The emitter is completed on a sender thread:
+     * its methods share a lock with a send that may be stuck on the socket.
+     */
+    private void drop(Subscription subscription, Throwable cause) {
+        if (subscription.close()) {
+            senders.execute(() -> subscription.emitter.completeWithError(cause));
+        }
+    }
+
+    private Long sequenceOf(String lastEventId) {
+        if (lastEventId == null || !lastEventId.startsWith(epoch + "-")) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private record Delivery(long sequence, GrievanceEvent event) {
+    }
+
+    /**
+     * What clients receive: the list row, without the internal analytics snapshots
+     */
+    private record ClientEvent(GrievanceEvent.Type type, GrievanceSummary grievance, LocalDateTime occurredAt) {
+
+        static ClientEvent of(GrievanceEvent event) {
+            return new ClientEvent(event.type(), event.grievance(), event.occurredAt());
+        }
+    }
+
+    /**
+     * A connected client and the events waiting to be written to it
+     */
+    private final class Subscription {
+
+        private final SseEmitter emitter;
+        private final Audience audience;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+        // Set while a sender thread owns the queue
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscription(SseEmitter emitter, Audience audience, int capacity) {
+            this.emitter = emitter;
+            this.audience = audience;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        /**
+         * Queue an event without blocking; false if closed or the queue is full
+         */
+        boolean offer(SseEmitter.SseEventBuilder event) {
+            if (closed.get() || !queue.offer(event)) {
+                return false;
+            }
+            schedule();
+            return true;
+        }
+
+        boolean isIdle() {
+            return queue.isEmpty() && !draining.get();
+        }
+
+        /**
+         * Stop delivering; true for the call that closed it
+         */
+        boolean close() {
+            subscriptions.remove(this);
+            queue.clear();
+            return closed.compareAndSet(false, true);
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed.get() && (event = queue.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping SSE subscriber: {}", e.getMessage());
+                drop(this, e);
+            } finally {
+                draining.set(false);
+            }
+            // An event offered after the last poll found the flag still set
+            if (!closed.get() && !queue.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    /**
+     * Who a stream is for: all grievances (admin), one citizen's, or one department's
+     */
+    public record Audience(boolean everything, Long citizenId, String categoryKey) {
+
+        public static Audience admin() {
+            return new Audience(true, null, null);
+        }
+
+        public static Audience citizen(Long citizenId) {
+            return new Audience(false, citizenId, null);
+        }
+
+        public static Audience department(String department) {
+            return new Audience(false, null, Grievance.normalizeCategory(department));
+        }
+
+        boolean accepts(GrievanceEvent event) {
+            if (everything) {
+                return true;
+            }
+            if (citizenId != null) {
+                return citizenId.equals(event.getCitizenId());
+            }
+            return categoryKey != null && Objects.equals(categoryKey, event.getCategoryKey());
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.AnalyticsDTO.RedZone;
+import com.civicrules.dto.GrievanceEvent;
+import com.civicrules.dto.GrievanceSnapshot;
+import com.civicrules.repository.GrievanceRepository;
+import com.civicrules.util.Geohash;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Red zones found by grid density over recent grievances.
+ *
+ * Grievances created within the sliding window are binned into a fixed
+ * lat/lng grid by their coordinates, so free-text spellings of the same
+ * street land in the same place. A cell's density is the number of
+ * grievances in it and its eight neighbours, kept up to date as each
+ * grievance arrives, changes or ages out of the window; the densest
+ * non-overlapping neighbourhoods are the red zones. The top list is rebuilt
+ * after every change and served as is, so reads do no work.
+ *
+ * Seeded at startup; each event re-reads its grievance and replaces its entry.
+ */
+@Component
+public class HotspotEngine implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(HotspotEngine.class);
+
+    private static final int SEED_BATCH_SIZE = 5000;
+
+    // Cell keys are row * COLUMN_SPAN + column
+    private static final long COLUMN_SPAN = 1L << 32;
+
+    @Autowired
+    private GrievanceRepository grievanceRepository;
+
+    // ~550 m north-south
+    @Value("${hotspots.cell-degrees:0.005}")
+    private double cellDegrees;
+
+    @Value("${hotspots.window-days:30}")
+    private int windowDays;
+
+    @Value("${hotspots.top-n:10}")
+    private int topN;
+
+    @Value("${hotspots.min-count:3}")
+    private int minCount;
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Long, Cell> cells = new HashMap<>();
+
+    // Densest first; a cell is re-inserted whenever its density changes
+    private final TreeSet<Cell> ranked = new TreeSet<>(
+            Comparator.comparingLong((Cell c) -> -c.density).thenComparingLong(c -> c.key));
+
+    // Oldest first, for expiry; entries replaced or removed since are skipped when polled
+    private final PriorityQueue<Entry> byAge = new PriorityQueue<>(Comparator.comparing(Entry::createdAt));
+
+    private volatile List<RedZone> redZones = List.of();
+
+    // Bumped after every republish, for cached analytics
+    private volatile long version;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        seed();
+    }
+
+    /**
+     * Rebuild from the grievances created within the window
+     */
+    public synchronized void seed() {
+        entries.clear();
+        cells.clear();
+        ranked.clear();
+        byAge.clear();
+
+        LocalDateTime since = windowStart();
+        long afterId = 0L;
+        List<GrievanceSnapshot> batch;
+        do {
+            batch = grievanceRepository.findLocatedSnapshotsCreatedSince(since, afterId,
+                    PageRequest.of(0, SEED_BATCH_SIZE));
+            for (GrievanceSnapshot snapshot : batch) {
+                add(snapshot);
+                afterId = snapshot.id();
+            }
+        } while (batch.size() == SEED_BATCH_SIZE);
+
+        publish();
+        log.info("Hotspot engine seeded with {} grievances from the last {} days, {} red zones",
+                entries.size(), windowDays, redZones.size());
+    }
+
+    @EventListener
+    public void onGrievanceEvent(GrievanceEvent event) {
+        // The committed row, not the payload, which a concurrent change may have overtaken
+        Long id = event.grievance().id();
+        Optional<GrievanceSnapshot> current = grievanceRepository.findSnapshotById(id);
+        synchronized (this) {
+            Entry previous = entries.remove(id);
+            if (previous != null) {
+                apply(previous, -1);
+            }
+            current.ifPresent(this::add);
+            publish();
+        }
+    }
+
+    /**
+     * Drop grievances that have slid out of the window
+     */
+    @Scheduled(fixedDelayString = "${hotspots.expiry-interval-ms:60000}")
+    public synchronized void expire() {
+        LocalDateTime since = windowStart();
+        int expired = 0;
+        while (!byAge.isEmpty() && byAge.peek().createdAt().isBefore(since)) {
+            Entry entry = byAge.poll();
+            if (entries.get(entry.id()) == entry) {
+                entries.remove(entry.id());
+                apply(entry, -1);
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            publish();
+        }
+    }
+
+    /**
+     * Current red zones, densest first
+     */
+    public List<RedZone> getRedZones() {
+        return redZones;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    private LocalDateTime windowStart() {
+        return LocalDateTime.now().minusDays(windowDays);
+    }
+
+    private void add(GrievanceSnapshot g) {
+        if (!Geohash.isValid(g.latitude(), g.longitude()) || g.createdAt() == null
+                || g.createdAt().isBefore(windowStart())) {
+            return;
+        }
+        Entry entry = new Entry(g.id(), keyOf(g.latitude(), g.longitude()), g.latitude(), g.longitude(),
+                g.category(), g.location(), g.createdAt());
+        entries.put(entry.id(), entry);
+        byAge.add(entry);
+        apply(entry, 1);
+    }
+
+    private void apply(Entry entry, long delta) {
+        Cell cell = cells.computeIfAbsent(entry.cellKey(), Cell::new);
+        cell.count += delta;
+        cell.latitudeSum += delta * entry.latitude();
+        cell.longitudeSum += delta * entry.longitude();
+        if (entry.category() != null) {
+            adjust(cell.categoryCounts, entry.category(), delta);
+        }
+        if (entry.location() != null) {
+            adjust(cell.locationCounts, entry.location(), delta);
+        }
+
+        for (long neighbour : neighbourhood(entry.cellKey(), 1)) {
+            Cell affected = cells.computeIfAbsent(neighbour, Cell::new);
+            ranked.remove(affected);
+            affected.density += delta;
+            if (affected.density <= 0) {
+                cells.remove(neighbour);
+            } else {
+                ranked.add(affected);
+            }
+        }
+    }
+
+    /**
+     * Greedy pick of the densest cells whose 3x3 neighbourhoods do not overlap
+     */
+    private void publish() {
+        List<RedZone> zones = new ArrayList<>();
+        Set<Long> covered = new HashSet<>();
+        for (Cell cell : ranked) {
+            if (cell.density < minCount || zones.size() >= topN) {
+                break;
+            }
+            if (covered.contains(cell.key)) {
+                continue;
+            }
+            zones.add(toRedZone(cell));
+            covered.addAll(neighbourhood(cell.key, 2));
+        }
+        redZones = Collections.unmodifiableList(zones);
+        version++;
+    }
+
+    private RedZone toRedZone(Cell centre) {
+        long count = 0;
+        double latitudeSum = 0;
+        double longitudeSum = 0;
+        Map<String, Long> categories = new HashMap<>();
+        Map<String, Long> locations = new HashMap<>();
+        for (long key : neighbourhood(centre.key, 1)) {
+            Cell cell = cells.get(key);
+            if (cell == null || cell.count == 0) {
+                continue;
+            }
+            count += cell.count;
+            latitudeSum += cell.latitudeSum;
+            longitudeSum += cell.longitudeSum;
+            cell.categoryCounts.forEach((k, v) -> categories.merge(k, v, Long::sum));
+            cell.locationCounts.forEach((k, v) -> locations.merge(k, v, Long::sum));
+        }
+
+        RedZone zone = new RedZone();
+        zone.setComplaintCount(count);
+        zone.setLatitude(latitudeSum / count);
+        zone.setLongitude(longitudeSum / count);
+        zone.setLocation(mostCommon(locations,
+                String.format(Locale.ROOT, "%.4f, %.4f", zone.getLatitude(), zone.getLongitude())));
+        zone.setMostCommonCategory(mostCommon(categories, "Unknown"));
+
+        if (count >= 10) {
+            zone.setRiskLevel("HIGH");
+        } else if (count >= 5) {
+            zone.setRiskLevel("MEDIUM");
+        } else {
+            zone.setRiskLevel("LOW");
+        }
+        return zone;
+    }
+
+    private long keyOf(double latitude, double longitude) {
+        long row = (long) Math.floor((latitude + 90) / cellDegrees);
+        long column = (long) Math.floor((longitude + 180) / cellDegrees);
+        return row * COLUMN_SPAN + column;
+    }
+
+    private static List<Long> neighbourhood(long key, int radius) {
+        long row = key / COLUMN_SPAN;
+        long column = key % COLUMN_SPAN;
+        List<Long> keys = new ArrayList<>((2 * radius + 1) * (2 * radius + 1));
+        for (long r = row - radius; r <= row + radius; r++) {
+            for (long c = column - radius; c <= column + radius; c++) {
+                if (r >= 0 && c >= 0) {
+                    keys.add(r * COLUMN_SPAN + c);
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static String mostCommon(Map<String, Long> counts, String fallback) {
+        return counts.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElse(fallback);
+    }
+
+    private static void adjust(Map<String, Long> counts, String key, long delta) {
+        long updated = counts.getOrDefault(key, 0L) + delta;
+        if (updated <= 0) {
+            counts.remove(key);
+        } else {
+            counts.put(key, updated);
+        }
+    }
+
+    private record Entry(Long id, long cellKey, double latitude, double longitude,
+                         String category, String location, LocalDateTime createdAt) {
+    }
+
+    private static class Cell {
+        private final long key;
+        // Grievances in this cell
+        private long count;
+        // Grievances in this cell and its eight neighbours
+        private long density;
+        private double latitudeSum;
+        private double longitudeSum;
+        private final Map<String, Long> categoryCounts = new HashMap<>();
+        private final Map<String, Long> locationCounts = new HashMap<>();
+
+        private Cell(long key) {
+            this.key = key;
+        }
+    }
+}
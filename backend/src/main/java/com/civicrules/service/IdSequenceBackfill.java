@@ -0,0 +1,67 @@
+package com.civicrules.service;
+
+import com.civicrules.model.IdAllocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves each pooled id allocator past the ids already in its table.
+ *
+ * Rows inserted while the tables used AUTO_INCREMENT (or loaded with plain
+ * SQL) are unknown to {@code id_sequences}; without this the first allocated
+ * block would collide with them. Runs before the server accepts requests and
+ * only ever raises a value, so instances of this version may start in any
+ * order.
+ *
+ * It does not make a rolling deploy from an AUTO_INCREMENT version safe: an
+ * old instance keeps inserting max+1, max+2, ... into the very blocks the new
+ * instances have reserved, and the loser of each collision gets a duplicate
+ * key error. Stop every old instance before starting the first new one.
+ */
+@Component
+public class IdSequenceBackfill implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceBackfill.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        align();
+    }
+
+    public void align() {
+        for (String table : IdAllocation.TABLES) {
+            Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+            if (maxId == null) {
+                // Empty table: Hibernate starts the segment itself
+                continue;
+            }
+
+            // A pooled allocator hands out (next_val - ALLOCATION_SIZE, next_val]
+            long required = maxId + IdAllocation.ALLOCATION_SIZE + 1;
+            List<Long> current = jdbcTemplate.queryForList(
+                    "SELECT " + IdAllocation.VALUE_COLUMN + " FROM " + IdAllocation.TABLE
+                            + " WHERE " + IdAllocation.SEGMENT_COLUMN + " = ?", Long.class, table);
+
+            if (current.isEmpty()) {
+                jdbcTemplate.update("INSERT INTO " + IdAllocation.TABLE + " (" + IdAllocation.SEGMENT_COLUMN + ", "
+                        + IdAllocation.VALUE_COLUMN + ") VALUES (?, ?)", table, required);
+            } else if (current.get(0) < required) {
+                jdbcTemplate.update("UPDATE " + IdAllocation.TABLE + " SET " + IdAllocation.VALUE_COLUMN + " = ? "
+                        + "WHERE " + IdAllocation.SEGMENT_COLUMN + " = ? AND " + IdAllocation.VALUE_COLUMN + " < ?",
+                        required, table, required);
+            } else {
+                continue;
+            }
+            log.info("Id allocator for {} moved past existing id {}", table, maxId);
+        }
+    }
+}
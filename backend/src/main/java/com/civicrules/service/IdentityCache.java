@@ -0,0 +1,152 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.UserChangedEvent;
+import com.civicrules.model.Officer;
+import com.civicrules.model.User;
+import com.civicrules.repository.OfficerRepository;
+import com.civicrules.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded near-cache for identity lookups (users by id and email, officers by
+ * id), which almost every request performs.
+ *
+ * Entries are detached entities: use them to read fields or to reference the
+ * row from another entity, never to modify and save it (load it from the
+ * repository for that). Writers publish a {@link UserChangedEvent} and the
+ * affected entries are dropped; {@code identity.cache.ttl-seconds} bounds how
+ * long changes made outside the application stay invisible.
+ */
+@Service
+public class IdentityCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OfficerRepository officerRepository;
+
+    private final Cache<Long, User> users;
+    private final Cache<String, Long> userIdsByEmail;
+    private final Cache<Long, Officer> officers;
+
+    public IdentityCache(
+            @Value("${identity.cache.max-size:10000}") long maxSize,
+            @Value("${identity.cache.ttl-seconds:300}") long ttlSeconds
+    ) {
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        this.users = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        this.userIdsByEmail = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        this.officers = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+    }
+
+    public Optional<User> findUser(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        // Absent users are not cached, so a newly registered id is found at once
+        return Optional.ofNullable(users.get(id, key -> userRepository.findById(key).orElse(null)));
+    }
+
+    public Optional<User> findUserByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        String key = emailKey(email);
+        Long id = userIdsByEmail.getIfPresent(key);
+        if (id != null) {
+            Optional<User> user = findUser(id);
+            // The mapping is stale if the email was changed or the user deleted
+            if (user.isPresent() && key.equals(emailKey(user.get().getEmail()))) {
+                return user;
+            }
+            userIdsByEmail.invalidate(key);
+        }
+
+        Optional<User> user = userRepository.findByEmail(email);
+        user.ifPresent(u -> {
+            users.put(u.getId(), u);
+            userIdsByEmail.put(key, u.getId());
+        });
+        return user;
+    }
+
+    public Optional<Officer> findOfficer(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(officers.get(id, key -> officerRepository.findById(key).orElse(null)));
+    }
+
+    /**
+     * The department of a user who is an officer. Read from the cached users
+     * row rather than a token claim, so a moved officer sees the new
+     * department as soon as the change drops the entry.
+     */
+    public Optional<String> findOfficerDepartment(Long userId) {
+        return findUser(userId)
+                .filter(user -> user.getRole() == User.Role.OFFICER)
+                .map(User::getDepartment);
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.userId() == null) {
+            users.invalidateAll();
+            userIdsByEmail.invalidateAll();
+            officers.invalidateAll();
+            return;
+        }
+        User cached = users.getIfPresent(event.userId());
+        if (cached != null && cached.getEmail() != null) {
+            userIdsByEmail.invalidate(emailKey(cached.getEmail()));
+        }
+        users.invalidate(event.userId());
+    }
+
+    /**
+     * Hit/miss/eviction counters per cache
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("users", describe(users));
+        stats.put("userIdsByEmail", describe(userIdsByEmail));
+        stats.put("officers", describe(officers));
+        return stats;
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    /**
+     * Emails are keyed case-insensitively, independent of the default locale
+     * (in a Turkish locale "I" would otherwise lower-case to a dotless i)
+     */
+    private static String emailKey(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Map<String, Object> describe(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new HashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+}
@@ -0,0 +1,359 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.GrievanceEvent;
+import com.civicrules.dto.GrievanceFingerprint;
+import com.civicrules.dto.GrievanceSnapshot;
+import com.civicrules.model.Grievance;
+import com.civicrules.repository.GrievanceRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Upload ingestion: streams the multipart body into the content-addressed
+ * store on the request thread, then builds list-view thumbnails and the
+ * photo's dHash on a small bounded executor, so submission latency does not
+ * depend on the image size. Thumbnails are shared by every grievance that
+ * references the same blob, so they are only rendered once. Once the hash is
+ * stored, a grievance still awaiting verification is matched against open
+ * masters again, now with its photo.
+ *
+ * Work is queued from the outbox listener, i.e. on the relay's thread, so it
+ * must never run there: when the executor queue is full the upload is
+ * skipped and logged. Until {@link #requeueMissing()} picks it up again the
+ * grievance has a null thumbnail path (list views show the original image)
+ * and no photo hash (it is matched on text, distance and identical photos
+ * only).
+ */
+@Service
+public class ImageIngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageIngestionService.class);
+
+    private static final String THUMBNAIL_SUFFIX = "thumb";
+
+    private static final int DHASH_WIDTH = 9;
+    private static final int DHASH_HEIGHT = 8;
+
+    @Autowired
+    private GrievanceRepository grievanceRepository;
+
+    @Autowired
+    private ImageStorageService imageStorageService;
+
+    @Autowired
+    private DuplicateDetector duplicateDetector;
+
+    @Autowired
+    private EventOutbox eventOutbox;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${upload.thumbnail.max-size:320}")
+    private int thumbnailMaxSize;
+
+    @Value("${upload.ingest.retry-window-hours:24}")
+    private long retryWindowHours;
+
+    @Value("${upload.ingest.retry-grace-minutes:5}")
+    private long retryGraceMinutes;
+
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    public ImageIngestionService(
+            @Value("${upload.ingest.threads:2}") int threads,
+            @Value("${upload.ingest.queue-capacity:100}") int queueCapacity
+    ) {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-ingest-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    /**
+     * Stream the upload into the image store; identical photos share one blob.
+     * The body is hashed while it is copied and never buffered on the heap.
+     *
+     * @return the stored file name
+     */
+    public String store(MultipartFile image) throws IOException {
+        return imageStorageService.store(image);
+    }
+
+    /**
+     * Queue thumbnail generation and hashing for a stored upload and record
+     * the derivative names and the hash on the grievance once written
+     */
+    public void generateDerivativesAsync(Long grievanceId, String filename) {
+        try {
+            executor.execute(() -> {
+                try {
+                    generateDerivatives(grievanceId, filename);
+                } catch (Exception e) {
+                    log.warn("Thumbnail generation failed for grievance {} ({}): {}", grievanceId, filename, e.getMessage());
+                }
+                try {
+                    recordImageHash(grievanceId, filename);
+                } catch (Exception e) {
+                    log.warn("Image hashing failed for grievance {} ({}): {}", grievanceId, filename, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            dropped.incrementAndGet();
+            log.warn("Ingest queue full, thumbnail for grievance {} ({}) deferred to the retry sweep", grievanceId, filename);
+        }
+    }
+
+    /**
+     * Queue again the recent uploads that still lack a thumbnail or photo
+     * hash, e.g. because the queue was full when they arrived. Takes at most
+     * half the free queue so fresh uploads keep their room; uploads younger
+     * than the grace period are left to the normal path. An image that cannot
+     * be decoded is retried until it leaves the window.
+     *
+     * @return number of uploads queued
+     */
+    @Scheduled(fixedDelayString = "${upload.ingest.retry-interval-ms:300000}",
+            initialDelayString = "${upload.ingest.retry-interval-ms:300000}")
+    public int requeueMissing() {
+        int room = executor.getQueue().remainingCapacity() / 2;
+        if (room == 0) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<GrievanceFingerprint> missing = grievanceRepository.findMissingDerivatives(
+                now.minusHours(retryWindowHours), now.minusMinutes(retryGraceMinutes), PageRequest.of(0, room));
+        for (GrievanceFingerprint grievance : missing) {
+            generateDerivativesAsync(grievance.id(), grievance.imagePath());
+        }
+        if (!missing.isEmpty()) {
+            log.info("Queued {} uploads again for missing thumbnails or photo hashes", missing.size());
+        }
+        return missing.size();
+    }
+
+    /**
+     * 64-bit difference hash (dHash) of a stored upload: the image is shrunk to
+     * 9x8 grey pixels and each bit records whether a pixel is brighter than its
+     * right-hand neighbour. Re-encoded, resized or slightly recropped copies of
+     * a photo differ in only a few bits.
+     *
+     * @return the hash, or null when the image cannot be decoded
+     */
+    public Long differenceHash(String filename) {
+        try {
+            BufferedImage source = readSubsampled(imageStorageService.resolve(filename), DHASH_WIDTH * 4);
+            if (source == null) {
+                return null;
+            }
+            BufferedImage grey = new BufferedImage(DHASH_WIDTH, DHASH_HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+            Graphics2D g = grey.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(source, 0, 0, DHASH_WIDTH, DHASH_HEIGHT, null);
+            } finally {
+                g.dispose();
+            }
+
+            long hash = 0;
+            for (int y = 0; y < DHASH_HEIGHT; y++) {
+                for (int x = 0; x < DHASH_WIDTH - 1; x++) {
+                    int left = grey.getRaster().getSample(x, y, 0);
+                    int right = grey.getRaster().getSample(x + 1, y, 0);
+                    hash = (hash << 1) | (left > right ? 1 : 0);
+                }
+            }
+            return hash;
+        } catch (IOException e) {
+            log.warn("Cannot hash image {}: {}", filename, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Thumbnails are built once the grievance is committed
+     */
+    @EventListener
+    public void onGrievanceEvent(GrievanceEvent event) {
+        if (event.type() == GrievanceEvent.Type.CREATED && event.grievance().imagePath() != null) {
+            generateDerivativesAsync(event.grievance().id(), event.grievance().imagePath());
+        }
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Uploads skipped because the queue was full (the retry sweep queues them again)
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    private void generateDerivatives(Long grievanceId, String filename) throws IOException {
+        String jpegName = imageStorageService.derivativeName(filename, THUMBNAIL_SUFFIX, "jpg");
+        // WebP needs an ImageIO plugin; only produced when one is installed
+        String webpName = ImageIO.getImageWritersByFormatName("webp").hasNext()
+                ? imageStorageService.derivativeName(filename, THUMBNAIL_SUFFIX, "webp")
+                : null;
+
+        Path jpegFile = imageStorageService.resolve(jpegName);
+        Path webpFile = webpName != null ? imageStorageService.resolve(webpName) : null;
+
+        // Same content uploaded before: reuse its thumbnails
+        if (!Files.exists(jpegFile) || (webpFile != null && !Files.exists(webpFile))) {
+            BufferedImage source = readSubsampled(imageStorageService.resolve(filename), thumbnailMaxSize);
+            if (source == null) {
+                log.warn("Unsupported image format for {}", filename);
+                return;
+            }
+
+            BufferedImage thumbnail = scale(source, thumbnailMaxSize);
+            writeAtomically(thumbnail, "jpg", jpegFile);
+            if (webpFile != null) {
+                writeAtomically(thumbnail, "webp", webpFile);
+            }
+        }
+
+        grievanceRepository.updateThumbnailPaths(grievanceId, jpegName, webpName);
+    }
+
+    /**
+     * Store the photo's dHash and, if the grievance is still an unverified
+     * master nobody links to, look for its master again with the photo. A
+     * match links it as a duplicate with a VERIFIED event; otherwise only the
+     * hash is written and the local duplicate index is refreshed.
+     */
+    void recordImageHash(Long grievanceId, String filename) {
+        Long hash = differenceHash(filename);
+        if (hash == null) {
+            return;
+        }
+        GrievanceFingerprint fingerprint = transactionTemplate.execute(tx -> {
+            Grievance grievance = grievanceRepository.findForUpdate(grievanceId).orElse(null);
+            if (grievance == null) {
+                return null;
+            }
+            GrievanceSnapshot before = GrievanceSnapshot.of(grievance);
+            grievance.setImageHash(hash);
+            if ("PENDING".equals(grievance.getVerificationStatus())
+                    && grievance.getMasterGrievanceId() == null
+                    && !grievanceRepository.existsByMasterGrievanceId(grievanceId)) {
+                duplicateDetector.findMaster(GrievanceFingerprint.of(grievance)).ifPresent(match -> {
+                    match.linkAsDuplicate(grievance);
+                    eventOutbox.append(GrievanceEvent.of(GrievanceEvent.Type.VERIFIED, before, grievance));
+                });
+            }
+            return GrievanceFingerprint.of(grievance);
+        });
+        if (fingerprint != null) {
+            duplicateDetector.register(fingerprint);
+        }
+    }
+
+    /**
+     * Concurrent uploads of one photo may render the same thumbnail; a reader
+     * must never see a half-written file
+     */
+    private static void writeAtomically(BufferedImage image, String format, Path target) throws IOException {
+        Path tmp = Files.createTempFile(target.getParent(), ".derivative-", ".part");
+        try {
+            ImageIO.write(image, format, tmp.toFile());
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Decode only every n-th pixel of large images; the thumbnail or hash does not need more
+     */
+    private static BufferedImage readSubsampled(Path file, int targetSize) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longestSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, longestSide / (targetSize * 2));
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source, int maxSize) {
+        double ratio = Math.min(1.0, (double) maxSize / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        // JPEG has no alpha channel: flatten onto white
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+}
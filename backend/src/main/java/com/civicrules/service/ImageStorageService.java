@@ -0,0 +1,298 @@
+package com.civicrules.service;
+
+import com.civicrules.model.StoredBlob;
+import com.civicrules.repository.StoredBlobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed image store.
+ *
+ * Uploads are hashed (SHA-256) while they are written and kept once per
+ * distinct content under a sharded layout, {@code ab/cd/<sha256>.<ext>}, so
+ * duplicate photos share one file and no directory grows unbounded. A blob is
+ * keyed by its digest alone: the extension is metadata recorded by the first
+ * upload, and later uploads of the same bytes reuse it whatever their file
+ * name or content type says. Each blob
+ * is reference counted in {@code stored_blobs}; {@link #sweepOrphans()}
+ * deletes blobs (and their derivatives) that stayed unreferenced for the
+ * grace period. Names that are not content hashes (pre-existing UUID uploads)
+ * resolve flat in the upload directory and are not reference counted.
+ */
+@Service
+public class ImageStorageService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageStorageService.class);
+
+    // <sha256>[_derivative].<ext>
+    private static final Pattern HASHED_NAME = Pattern.compile("^([0-9a-f]{64})(_[a-z]+)?\\.([a-z0-9]{1,5})$");
+    private static final Pattern SAFE_EXTENSION = Pattern.compile("^[a-z0-9]{1,5}$");
+
+    private static final String TMP_DIR = "tmp";
+    private static final int SWEEP_BATCH_SIZE = 500;
+
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+
+    @Value("${upload.path:./uploads}")
+    private String uploadPath;
+
+    @Value("${upload.sweep.grace-minutes:60}")
+    private long sweepGraceMinutes;
+
+    // Serializes reference changes and deletion per hash (striped)
+    private final ReentrantLock[] locks = new ReentrantLock[64];
+
+    public ImageStorageService() {
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Store an upload, or add a reference to the identical blob already stored
+     *
+     * @return the stored name, {@code <sha256>.<ext>} with the extension of the stored blob
+     */
+    public String store(MultipartFile image) throws IOException {
+        String extension = extensionOf(image.getContentType(), image.getOriginalFilename());
+
+        Path tmpDir = root().resolve(TMP_DIR);
+        Files.createDirectories(tmpDir);
+        Path tmp = Files.createTempFile(tmpDir, "upload-", ".part");
+
+        try {
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(image.getInputStream(), digest)) {
+                Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+
+            ReentrantLock lock = lockFor(hash);
+            lock.lock();
+            try {
+                StoredBlob blob;
+                if (storedBlobRepository.incrementRefCount(hash) == 0) {
+                    blob = storedBlobRepository.save(new StoredBlob(hash, extension, Files.size(tmp)));
+                } else {
+                    blob = storedBlobRepository.findById(hash).orElseThrow(
+                            () -> new IllegalStateException("Blob " + hash + " vanished while referenced"));
+                }
+
+                String name = blob.getStoredName();
+                try {
+                    Path target = resolve(name);
+                    if (!Files.exists(target)) {
+                        Files.createDirectories(target.getParent());
+                        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // No grievance will hold this reference; give it back so the sweeper can reclaim the blob
+                    storedBlobRepository.decrementRefCount(hash, LocalDateTime.now());
+                    throw e;
+                }
+                return name;
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Drop one reference to a stored image (no-op for legacy, non-hashed names)
+     */
+    public void release(String name) {
+        String hash = hashOf(name);
+        if (hash == null) {
+            return;
+        }
+        ReentrantLock lock = lockFor(hash);
+        lock.lock();
+        try {
+            storedBlobRepository.decrementRefCount(hash, LocalDateTime.now());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Filesystem location of a stored name or derivative, or null if the name is not acceptable
+     */
+    public Path resolve(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        Path root = root();
+        Matcher matcher = HASHED_NAME.matcher(name);
+        Path file = matcher.matches()
+                ? root.resolve(matcher.group(1).substring(0, 2))
+                        .resolve(matcher.group(1).substring(2, 4))
+                        .resolve(name)
+                : root.resolve(name).normalize();
+        return file.startsWith(root) ? file : null;
+    }
+
+    /**
+     * Name of a derivative of a stored image, e.g. {@code <sha256>_thumb.jpg}
+     */
+    public String derivativeName(String name, String suffix, String extension) {
+        String stem = name.contains(".") ? name.substring(0, name.lastIndexOf('.')) : name;
+        return stem + "_" + suffix + "." + extension;
+    }
+
+    /**
+     * Delete blobs that have been unreferenced for longer than the grace
+     * period, plus their derivatives and abandoned temp files
+     */
+    @Scheduled(fixedDelayString = "${upload.sweep.interval-ms:3600000}",
+            initialDelayString = "${upload.sweep.interval-ms:3600000}")
+    public void sweepOrphans() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(sweepGraceMinutes);
+        int reclaimed = 0;
+
+        List<StoredBlob> orphans;
+        do {
+            orphans = storedBlobRepository.findByRefCountLessThanEqualAndReleasedAtBefore(
+                    0, cutoff, PageRequest.of(0, SWEEP_BATCH_SIZE));
+            for (StoredBlob blob : orphans) {
+                if (deleteBlob(blob)) {
+                    reclaimed++;
+                }
+            }
+        } while (orphans.size() == SWEEP_BATCH_SIZE);
+
+        int staleTemps = deleteStaleTempFiles();
+        if (reclaimed > 0 || staleTemps > 0) {
+            log.info("Image sweep reclaimed {} orphaned blobs and {} stale temp files", reclaimed, staleTemps);
+        }
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    private boolean deleteBlob(StoredBlob blob) {
+        ReentrantLock lock = lockFor(blob.getHash());
+        lock.lock();
+        try {
+            // Re-checked under the lock: a new upload may have revived it
+            if (storedBlobRepository.deleteIfUnreferenced(blob.getHash()) == 0) {
+                return false;
+            }
+            Path file = resolve(blob.getStoredName());
+            try (Stream<Path> siblings = Files.list(file.getParent())) {
+                for (Path sibling : (Iterable<Path>) siblings::iterator) {
+                    if (sibling.getFileName().toString().startsWith(blob.getHash())) {
+                        Files.deleteIfExists(sibling);
+                    }
+                }
+            }
+            return true;
+        } catch (NoSuchFileException e) {
+            return true;
+        } catch (IOException e) {
+            log.warn("Could not delete blob {}: {}", blob.getHash(), e.getMessage());
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int deleteStaleTempFiles() {
+        Path tmpDir = root().resolve(TMP_DIR);
+        if (!Files.isDirectory(tmpDir)) {
+            return 0;
+        }
+        Instant cutoff = Instant.now().minus(sweepGraceMinutes, ChronoUnit.MINUTES);
+        int deleted = 0;
+        try (Stream<Path> files = Files.list(tmpDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff) && Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not clean upload temp files: {}", e.getMessage());
+        }
+        return deleted;
+    }
+
+    private Path root() {
+        return Paths.get(uploadPath).toAbsolutePath().normalize();
+    }
+
+    private ReentrantLock lockFor(String hash) {
+        return locks[Math.floorMod(hash.hashCode(), locks.length)];
+    }
+
+    private static String hashOf(String name) {
+        if (name == null) {
+            return null;
+        }
+        Matcher matcher = HASHED_NAME.matcher(name);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    /**
+     * Extension for a new blob: from the content type when it is a known
+     * image type, else from the file name; one spelling per type
+     */
+    static String extensionOf(String contentType, String originalFilename) {
+        if (contentType != null) {
+            switch (contentType.toLowerCase(Locale.ROOT)) {
+                case "image/jpeg", "image/jpg", "image/pjpeg":
+                    return "jpg";
+                case "image/png":
+                    return "png";
+                case "image/webp":
+                    return "webp";
+                default:
+                    break;
+            }
+        }
+        if (originalFilename != null && originalFilename.contains(".")) {
+            String extension = originalFilename.substring(originalFilename.lastIndexOf('.') + 1)
+                    .toLowerCase(Locale.ROOT);
+            if (extension.equals("jpeg") || extension.equals("jpe")) {
+                return "jpg";
+            }
+            if (SAFE_EXTENSION.matcher(extension).matches()) {
+                return extension;
+            }
+        }
+        return "jpg";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.GrievanceEvent;
+import com.civicrules.dto.GrievanceSnapshot;
+import com.civicrules.model.Grievance;
+import com.civicrules.repository.GrievanceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Keeps grievances linked as duplicates in step with their master. Duplicates
+ * are hidden from verification and from the officer queue, so every change
+ * to a master must reach them or they never get an outcome.
+ *
+ * Both methods run in the caller's transaction; the duplicates are managed
+ * entities whose changes flush at commit. They return the events for the
+ * changed duplicates, for the caller to write with its own.
+ */
+@Service
+public class LinkedDuplicates {
+
+    @Autowired
+    private GrievanceRepository grievanceRepository;
+
+    /**
+     * Give the duplicates of these masters their master's status, assignee and
+     * resolution time
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<GrievanceEvent> follow(Collection<Grievance> masters, GrievanceEvent.Type type) {
+        Map<Long, Grievance> byId = new HashMap<>();
+        masters.forEach(master -> byId.put(master.getId(), master));
+        if (byId.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<GrievanceEvent> events = new ArrayList<>();
+        for (Grievance duplicate : lockDuplicates(byId.keySet())) {
+            Grievance master = byId.get(duplicate.getMasterGrievanceId());
+            GrievanceSnapshot before = GrievanceSnapshot.of(duplicate);
+            duplicate.setStatus(master.getStatus());
+            duplicate.setAssignedTo(master.getAssignedTo());
+            duplicate.setResolvedAt(master.getResolvedAt());
+            duplicate.setUpdatedAt(master.getUpdatedAt());
+            events.add(GrievanceEvent.of(type, before, duplicate));
+        }
+        return events;
+    }
+
+    /**
+     * Unlink the duplicates of masters about to be deleted and send them back
+     * to verification as grievances of their own
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<GrievanceEvent> release(Collection<Long> masterIds, LocalDateTime now) {
+        if (masterIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<GrievanceEvent> events = new ArrayList<>();
+        for (Grievance duplicate : lockDuplicates(masterIds)) {
+            GrievanceSnapshot before = GrievanceSnapshot.of(duplicate);
+            duplicate.setMasterGrievanceId(null);
+            duplicate.setStatus(Grievance.Status.PENDING);
+            duplicate.setAssignedTo(null);
+            duplicate.setResolvedAt(null);
+            duplicate.setVerificationStatus("PENDING");
+            duplicate.setVerificationReason(null);
+            duplicate.setUpdatedAt(now);
+            events.add(GrievanceEvent.of(GrievanceEvent.Type.VERIFIED, before, duplicate));
+        }
+        return events;
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    /**
+     * The duplicates row-locked, so a background write to one (thumbnail,
+     * photo hash) is not overwritten, with their people fetched by a second
+     * read into the same instances
+     */
+    private List<Grievance> lockDuplicates(Collection<Long> masterIds) {
+        List<Grievance> duplicates = grievanceRepository.findForUpdateByMasterGrievanceIdIn(masterIds);
+        if (!duplicates.isEmpty()) {
+            grievanceRepository.findByIdIn(duplicates.stream().map(Grievance::getId).toList());
+        }
+        return duplicates;
+    }
+}
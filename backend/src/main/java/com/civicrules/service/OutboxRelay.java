@@ -0,0 +1,123 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.GrievanceEvent;
+import com.civicrules.model.OutboxEvent;
+import com.civicrules.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drains the outbox in id order and publishes each event to the in-process
+ * {@code @EventListener}s (analytics counters, live stream, image pipeline).
+ *
+ * Delivery is at-least-once and follows id order, which is insert order, not
+ * commit order: a crash between publishing and marking a batch replays it,
+ * and an event whose transaction commits late arrives after higher ids. So
+ * listeners never compare sequences; they re-read the grievance by id and
+ * replace what they hold for it, which makes late and repeated deliveries
+ * harmless. An event whose delivery keeps failing is retried up to
+ * {@code outbox.relay.max-attempts} times, then skipped so it cannot block
+ * the events behind it.
+ */
+@Service
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private EventOutbox eventOutbox;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${outbox.relay.batch-size:100}")
+    private int batchSize;
+
+    @Value("${outbox.relay.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${outbox.retention-hours:24}")
+    private long retentionHours;
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:200}")
+    public void relay() {
+        boolean drained;
+        do {
+            List<OutboxEvent> batch = outboxEventRepository.findByPublishedAtIsNullOrderByIdAsc(
+                    PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            List<Long> delivered = new ArrayList<>(batch.size());
+            drained = true;
+            for (OutboxEvent row : batch) {
+                if (deliver(row)) {
+                    delivered.add(row.getId());
+                } else {
+                    // Keep order: retry from this event on the next run
+                    drained = false;
+                    break;
+                }
+            }
+
+            if (!delivered.isEmpty()) {
+                outboxEventRepository.markPublished(delivered, LocalDateTime.now());
+            }
+            drained = drained && batch.size() == batchSize;
+        } while (drained);
+    }
+
+    /**
+     * Delete delivered events once they are older than the retention period
+     */
+    @Scheduled(fixedDelayString = "${outbox.cleanup-interval-ms:3600000}")
+    public void purgePublished() {
+        int deleted = outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            log.info("Purged {} delivered outbox events", deleted);
+        }
+    }
+
+    public long getBacklog() {
+        return outboxEventRepository.countUnpublished();
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    /**
+     * @return true when the row is done with (delivered, or given up on)
+     */
+    private boolean deliver(OutboxEvent row) {
+        try {
+            GrievanceEvent event = eventOutbox.read(row);
+            eventPublisher.publishEvent(event);
+            return true;
+        } catch (Exception e) {
+            int attempts = row.getAttempts() + 1;
+            if (attempts >= maxAttempts) {
+                log.error("Skipping outbox event {} ({}) after {} attempts: {}",
+                        row.getId(), row.getEventType(), attempts, e.getMessage());
+                return true;
+            }
+            log.warn("Outbox event {} ({}) failed, will retry: {}", row.getId(), row.getEventType(), e.getMessage());
+            outboxEventRepository.incrementAttempts(row.getId());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.UserChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces plaintext passwords left from before hashing with bcrypt hashes,
+ * in users and in the citizens, admin and officer tables that keep a copy.
+ *
+ * Rows are walked by id in pages; each update only applies if the password
+ * is still the plaintext that was read, so a concurrent login upgrade or
+ * password change is never overwritten.
+ */
+@Component
+public class PasswordHashBackfill implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashBackfill.class);
+
+    static final List<String> TABLES = List.of("users", "citizens", "admin", "officer");
+
+    private static final int PAGE_SIZE = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CredentialService credentialService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (String table : TABLES) {
+            int updated = hashPlaintext(table);
+            if (updated > 0) {
+                log.info("Hashed {} plaintext passwords in {}", updated, table);
+                if ("users".equals(table)) {
+                    eventPublisher.publishEvent(UserChangedEvent.all());
+                }
+            }
+        }
+    }
+
+    int hashPlaintext(String table) {
+        String select = "SELECT id, password FROM " + table
+                + " WHERE id > ? AND password IS NOT NULL ORDER BY id LIMIT " + PAGE_SIZE;
+        String update = "UPDATE " + table + " SET password = ? WHERE id = ? AND password = ?";
+
+        int updated = 0;
+        long lastId = 0;
+        while (true) {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(select, lastId);
+            for (Map<String, Object> row : rows) {
+                Long id = ((Number) row.get("id")).longValue();
+                String password = (String) row.get("password");
+                if (!credentialService.isHashed(password)) {
+                    updated += jdbcTemplate.update(update, credentialService.hash(password), id, password);
+                }
+                lastId = id;
+            }
+            if (rows.size() < PAGE_SIZE) {
+                return updated;
+            }
+        }
+    }
+}
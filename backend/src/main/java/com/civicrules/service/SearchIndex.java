@@ -0,0 +1,448 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.GrievanceEvent;
+import com.civicrules.dto.GrievanceSearchDocument;
+import com.civicrules.model.Grievance;
+import com.civicrules.repository.GrievanceRepository;
+import com.civicrules.repository.OutboxEventRepository;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.facet.DrillDownQuery;
+import org.apache.lucene.facet.DrillSideways;
+import org.apache.lucene.facet.FacetResult;
+import org.apache.lucene.facet.Facets;
+import org.apache.lucene.facet.FacetsConfig;
+import org.apache.lucene.facet.LabelAndValue;
+import org.apache.lucene.facet.sortedset.DefaultSortedSetDocValuesReaderState;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetField;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesReaderState;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Embedded Lucene index over grievance text for GET /api/grievances/search.
+ *
+ * Title, description, location, category and officer remarks are analysed
+ * into an inverted index on local disk; status and category are also facet
+ * dimensions. The index follows grievance events (each event re-reads the
+ * grievance's text by id) and becomes searchable within
+ * {@code search.refresh-ms}.
+ *
+ * Every commit records when it was taken. Anything it misses was delivered
+ * after that, and the relay stamps {@code published_at} after delivering, so
+ * a restart re-reads the grievances of events published since the commit
+ * (less a clock margin); events still undelivered arrive through the relay.
+ * Outbox ids cannot mark the position, see {@link OutboxRelay}. The index is
+ * rebuilt instead when those events may already be purged, or when the
+ * outbox is behind the one the commit saw (a different database).
+ */
+@Component
+public class SearchIndex implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndex.class);
+
+    private static final int REBUILD_BATCH_SIZE = 2000;
+    private static final String COMMITTED_AT = "committedAt";
+    private static final String OUTBOX_POSITION = "outboxPosition";
+    // Tolerated clock difference between this process and published_at stamps
+    private static final Duration CLOCK_MARGIN = Duration.ofMinutes(1);
+    private static final int MAX_FACET_VALUES = 100;
+
+    // Field names
+    private static final String ID = "id";
+    private static final String TITLE = "title";
+    private static final String DESCRIPTION = "description";
+    private static final String LOCATION = "location";
+    private static final String CATEGORY = "category";
+    private static final String OFFICER_REMARKS = "officerRemarks";
+    private static final String CREATED_AT = "createdAt";
+    private static final String STATUS_FACET = "status";
+    private static final String CATEGORY_FACET = "category";
+
+    // Matches in the title count most, then where and what kind
+    private static final Map<String, Float> FIELD_WEIGHTS = Map.of(
+            TITLE, 3.0f,
+            LOCATION, 2.0f,
+            CATEGORY, 2.0f,
+            DESCRIPTION, 1.0f,
+            OFFICER_REMARKS, 1.0f
+    );
+
+    @Autowired
+    private GrievanceRepository grievanceRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Value("${search.path:./search-index}")
+    private String indexPath;
+
+    @Value("${search.rebuild-on-start:false}")
+    private boolean rebuildOnStart;
+
+    // Delivered events older than this are gone from the outbox
+    @Value("${outbox.retention-hours:24}")
+    private long retentionHours;
+
+    // Deepest rank reachable by paging
+    @Value("${search.max-results:10000}")
+    private int maxResults;
+
+    private final StandardAnalyzer analyzer = new StandardAnalyzer();
+    private final FacetsConfig facetsConfig = new FacetsConfig();
+
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+
+    // Writer-side state. A lock rather than synchronized: these sections do
+    // database and disk I/O, which would pin a virtual thread to its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Guarded by lock
+    private boolean uncommitted;
+
+    // Facet ordinals for the current reader, rebuilt when the reader changes
+    private volatile FacetState facetState;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            Path path = Path.of(indexPath);
+            Files.createDirectories(path);
+            directory = FSDirectory.open(path);
+            writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+            searcherManager = new SearcherManager(writer, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open search index at " + indexPath, e);
+        }
+
+        Map<String, String> commitData = commitData();
+        LocalDateTime since = catchUpStart(commitData);
+        if (rebuildOnStart || since == null) {
+            rebuild();
+        } else {
+            catchUp(since);
+        }
+    }
+
+    /**
+     * Re-index every grievance from the database
+     */
+    public void rebuild() {
+        lock.lock();
+        try {
+            writer.deleteAll();
+
+            long afterId = 0L;
+            int indexed = 0;
+            List<GrievanceSearchDocument> batch;
+            do {
+                batch = grievanceRepository.findSearchDocumentsAfter(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (GrievanceSearchDocument document : batch) {
+                    writer.addDocument(toDocument(document));
+                    afterId = document.id();
+                }
+                indexed += batch.size();
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+
+            commit();
+            searcherManager.maybeRefreshBlocking();
+            log.info("Search index rebuilt with {} grievances", indexed);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Search index rebuild failed", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onGrievanceEvent(GrievanceEvent event) throws IOException {
+        lock.lock();
+        try {
+            reindex(List.of(event.grievance().id()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Make recent changes searchable
+     */
+    @Scheduled(fixedDelayString = "${search.refresh-ms:1000}")
+    public void refresh() throws IOException {
+        searcherManager.maybeRefresh();
+    }
+
+    /**
+     * Persist recent changes
+     */
+    @Scheduled(fixedDelayString = "${search.commit-interval-ms:30000}")
+    public void commitIfChanged() throws IOException {
+        lock.lock();
+        try {
+            if (uncommitted) {
+                commit();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ranked, faceted search
+     *
+     * @param text     user query; quoted phrases, -exclusions and trailing * are
+     *                 supported, blank lists everything newest first
+     * @param status   only this status (facet counts for status ignore it)
+     * @param category only this category (facet counts for category ignore it)
+     */
+    public SearchPage search(String text, Grievance.Status status, String category, int page, int size)
+            throws IOException {
+        int end = Math.min((page + 1) * size, maxResults);
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            if (searcher.getIndexReader().numDocs() == 0) {
+                return new SearchPage(Collections.emptyList(), 0, true, Collections.emptyMap(), Collections.emptyMap());
+            }
+
+            boolean ranked = text != null && !text.isBlank();
+            Query base;
+            Sort sort;
+            if (ranked) {
+                SimpleQueryParser parser = new SimpleQueryParser(analyzer, FIELD_WEIGHTS);
+                parser.setDefaultOperator(BooleanClause.Occur.MUST);
+                base = parser.parse(text);
+                sort = new Sort(SortField.FIELD_SCORE, new SortField(CREATED_AT, SortField.Type.LONG, true));
+            } else {
+                base = new MatchAllDocsQuery();
+                sort = new Sort(new SortField(CREATED_AT, SortField.Type.LONG, true));
+            }
+
+            DrillDownQuery query = new DrillDownQuery(facetsConfig, base);
+            if (status != null) {
+                query.add(STATUS_FACET, status.name());
+            }
+            if (category != null && !category.isBlank()) {
+                query.add(CATEGORY_FACET, category);
+            }
+
+            DrillSideways drillSideways = new DrillSideways(searcher, facetsConfig, facetState(searcher.getIndexReader()));
+            DrillSideways.DrillSidewaysResult result = drillSideways.search(query, null, null,
+                    Math.max(end, 1), sort, ranked);
+
+            List<Hit> hits = new ArrayList<>();
+            ScoreDoc[] scoreDocs = result.hits.scoreDocs;
+            StoredFields storedFields = searcher.storedFields();
+            for (int i = page * size; i < Math.min(end, scoreDocs.length); i++) {
+                Document document = storedFields.document(scoreDocs[i].doc, Set.of(ID));
+                hits.add(new Hit(Long.parseLong(document.get(ID)), ranked ? scoreDocs[i].score : null));
+            }
+
+            TotalHits totalHits = result.hits.totalHits;
+            return new SearchPage(hits, totalHits.value, totalHits.relation == TotalHits.Relation.EQUAL_TO,
+                    facetCounts(result.facets, STATUS_FACET), facetCounts(result.facets, CATEGORY_FACET));
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        lock.lock();
+        try {
+            if (writer != null) {
+                commitIfChanged();
+                searcherManager.close();
+                writer.close();
+                directory.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    /**
+     * Where to re-read from after the last commit, or null when only a rebuild is safe
+     */
+    private LocalDateTime catchUpStart(Map<String, String> commitData) {
+        try {
+            String committedAt = commitData.get(COMMITTED_AT);
+            String position = commitData.get(OUTBOX_POSITION);
+            if (committedAt == null || position == null) {
+                return null;
+            }
+            if (Long.parseLong(position) > outboxEventRepository.findMaxId()) {
+                return null;
+            }
+            LocalDateTime since = LocalDateTime.parse(committedAt).minus(CLOCK_MARGIN);
+            return since.isAfter(LocalDateTime.now().minusHours(retentionHours)) ? since : null;
+        } catch (RuntimeException e) {
+            log.warn("Cannot read search index commit data, rebuilding: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void catchUp(LocalDateTime since) {
+        lock.lock();
+        try {
+            List<Long> touched = outboxEventRepository.findAggregateIdsPublishedSince(since);
+            for (int from = 0; from < touched.size(); from += REBUILD_BATCH_SIZE) {
+                reindex(touched.subList(from, Math.min(from + REBUILD_BATCH_SIZE, touched.size())));
+            }
+            commit();
+            searcherManager.maybeRefreshBlocking();
+            log.info("Search index caught up on {} grievances ({} documents)", touched.size(), writer.getDocStats().numDocs);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Search index catch-up failed", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replace the documents for these grievances with their current text, or delete them if gone
+     */
+    private void reindex(List<Long> ids) throws IOException {
+        Set<Long> missing = new HashSet<>(ids);
+        for (GrievanceSearchDocument document : grievanceRepository.findSearchDocumentsByIdIn(ids)) {
+            writer.updateDocument(new Term(ID, document.id().toString()), toDocument(document));
+            missing.remove(document.id());
+        }
+        for (Long id : missing) {
+            writer.deleteDocuments(new Term(ID, id.toString()));
+        }
+        uncommitted = true;
+    }
+
+    /**
+     * Called with the lock held, so no event is applied between the timestamp and the commit
+     */
+    private void commit() throws IOException {
+        writer.setLiveCommitData(Map.of(
+                COMMITTED_AT, LocalDateTime.now().toString(),
+                OUTBOX_POSITION, Long.toString(outboxEventRepository.findMaxId())).entrySet());
+        writer.commit();
+        uncommitted = false;
+    }
+
+    private Map<String, String> commitData() {
+        try {
+            if (!DirectoryReader.indexExists(directory)) {
+                return Collections.emptyMap();
+            }
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                return reader.getIndexCommit().getUserData();
+            }
+        } catch (IOException e) {
+            log.warn("Cannot read search index commit data, rebuilding: {}", e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    private Document toDocument(GrievanceSearchDocument g) throws IOException {
+        Document document = new Document();
+        document.add(new StringField(ID, g.id().toString(), Field.Store.YES));
+        addText(document, TITLE, g.title());
+        addText(document, DESCRIPTION, g.description());
+        addText(document, LOCATION, g.location());
+        addText(document, CATEGORY, g.category());
+        addText(document, OFFICER_REMARKS, g.officerRemarks());
+        if (g.createdAt() != null) {
+            document.add(new NumericDocValuesField(CREATED_AT,
+                    g.createdAt().toInstant(ZoneOffset.UTC).toEpochMilli()));
+        }
+        if (g.status() != null) {
+            document.add(new SortedSetDocValuesFacetField(STATUS_FACET, g.status().name()));
+        }
+        if (g.category() != null && !g.category().isBlank()) {
+            document.add(new SortedSetDocValuesFacetField(CATEGORY_FACET, g.category()));
+        }
+        return facetsConfig.build(document);
+    }
+
+    private static void addText(Document document, String field, String value) {
+        if (value != null && !value.isBlank()) {
+            document.add(new TextField(field, value, Field.Store.NO));
+        }
+    }
+
+    private SortedSetDocValuesReaderState facetState(IndexReader reader) throws IOException {
+        FacetState current = facetState;
+        if (current == null || current.reader != reader) {
+            current = new FacetState(reader, new DefaultSortedSetDocValuesReaderState(reader, facetsConfig));
+            facetState = current;
+        }
+        return current.state;
+    }
+
+    private static Map<String, Long> facetCounts(Facets facets, String dimension) throws IOException {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        FacetResult result = facets.getTopChildren(MAX_FACET_VALUES, dimension);
+        if (result != null) {
+            for (LabelAndValue child : result.labelValues) {
+                counts.put(child.label, child.value.longValue());
+            }
+        }
+        return counts;
+    }
+
+    private record FacetState(IndexReader reader, SortedSetDocValuesReaderState state) {
+    }
+
+    /**
+     * @param score relevance, null when listing without a query
+     */
+    public record Hit(Long id, Float score) {
+    }
+
+    /**
+     * One page of hits in rank order, with facet counts over all matches
+     *
+     * @param totalExact false when {@code total} is a lower bound
+     */
+    public record SearchPage(List<Hit> hits, long total, boolean totalExact,
+                             Map<String, Long> statusCounts, Map<String, Long> categoryCounts) {
+    }
+}
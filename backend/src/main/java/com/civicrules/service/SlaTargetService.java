@@ -0,0 +1,98 @@
+package com.civicrules.service;
+
+import com.civicrules.model.Grievance;
+import com.civicrules.model.SlaTarget;
+import com.civicrules.repository.SlaTargetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-category SLA targets (days to resolve). Categories without a row use
+ * {@code sla.default-target-days}. The table starts with the targets that
+ * used to be hardcoded in AnalyticsService.
+ */
+@Service
+public class SlaTargetService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(SlaTargetService.class);
+
+    private static final Map<String, Integer> INITIAL_TARGETS = Map.of(
+            "Road", 3,
+            "Water", 2,
+            "Electricity", 2,
+            "Sanitation", 3,
+            "Street Light", 1,
+            "Other", 5
+    );
+
+    @Autowired
+    private SlaTargetRepository slaTargetRepository;
+
+    @Value("${sla.default-target-days:5}")
+    private int defaultTargetDays;
+
+    // Bumped after every change, for cached analytics
+    private final AtomicLong version = new AtomicLong();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (slaTargetRepository.count() == 0) {
+            INITIAL_TARGETS.forEach((category, days) -> slaTargetRepository.save(new SlaTarget(category, days)));
+            log.info("Seeded {} SLA targets", INITIAL_TARGETS.size());
+        }
+    }
+
+    public List<SlaTarget> getTargets() {
+        return slaTargetRepository.findAllByOrderByCategoryAsc();
+    }
+
+    public int getDefaultTargetDays() {
+        return defaultTargetDays;
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Create or change a category's target
+     */
+    public SlaTarget setTarget(String category, int targetDays) {
+        String key = Grievance.normalizeCategory(category);
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException("Category is required");
+        }
+        if (targetDays < 1 || targetDays > 365) {
+            throw new IllegalArgumentException("Target must be between 1 and 365 days");
+        }
+
+        SlaTarget target = slaTargetRepository.findById(key).orElseGet(() -> new SlaTarget(category, targetDays));
+        target.setTargetDays(targetDays);
+        target.setUpdatedAt(LocalDateTime.now());
+        SlaTarget saved = slaTargetRepository.save(target);
+        version.incrementAndGet();
+        return saved;
+    }
+
+    /**
+     * Remove a category's target; it falls back to the default
+     */
+    public boolean deleteTarget(String category) {
+        String key = Grievance.normalizeCategory(category);
+        if (key == null || key.isEmpty() || !slaTargetRepository.existsById(key)) {
+            return false;
+        }
+        slaTargetRepository.deleteById(key);
+        version.incrementAndGet();
+        return true;
+    }
+}
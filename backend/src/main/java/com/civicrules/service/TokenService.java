@@ -0,0 +1,162 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.AuthPrincipal;
+import com.civicrules.model.User;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Issues and verifies the bearer tokens returned by login: compact JWTs
+ * signed with HMAC-SHA256 using {@code jwt.secret}, valid for
+ * {@code jwt.expiration} milliseconds.
+ *
+ * The secret comes from the JWT_SECRET environment variable and has no
+ * default: startup fails when it is missing, shorter than 256 bits, or the
+ * sample value that used to ship in application.properties, since anyone
+ * holding the secret can mint an admin token.
+ *
+ * The token carries the user id (sub), email, name, role and department, so
+ * a request can be attributed without loading the user. The department is
+ * as of login; officer queues and streams read the current one through
+ * {@link IdentityCache}. Signatures are compared in constant time.
+ */
+@Service
+public class TokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    // Published with the source; tokens signed with it can be forged by anyone
+    static final String SAMPLE_SECRET = "your-secret-key-here-make-it-long-and-secure-at-least-256-bits";
+
+    // The only header this service issues or accepts
+    private static final String HEADER = base64Url("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private static final TypeReference<Map<String, Object>> CLAIMS = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+    private final SecretKeySpec key;
+    private final long expirationMs;
+
+    // Mac instances are not thread-safe
+    private final ThreadLocal<Mac> macs;
+
+    public TokenService(
+            ObjectMapper objectMapper,
+            @Value("${jwt.secret:}") String secret,
+            @Value("${jwt.expiration:86400000}") long expirationMs
+    ) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("jwt.secret is not set; provide it in the JWT_SECRET environment variable");
+        }
+        if (secret.equals(SAMPLE_SECRET)) {
+            throw new IllegalStateException("jwt.secret is the published sample value; set a random JWT_SECRET");
+        }
+        byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (secretBytes.length < 32) {
+            throw new IllegalStateException("jwt.secret must be at least 256 bits (32 bytes)");
+        }
+        this.objectMapper = objectMapper;
+        this.key = new SecretKeySpec(secretBytes, ALGORITHM);
+        this.expirationMs = expirationMs;
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 unavailable", e);
+            }
+        });
+    }
+
+    public String issue(User user) {
+        long now = Instant.now().getEpochSecond();
+
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", String.valueOf(user.getId()));
+        claims.put("email", user.getEmail());
+        claims.put("name", user.getFullName() != null ? user.getFullName() : user.getName());
+        claims.put("role", user.getRole().name());
+        if (user.getDepartment() != null) {
+            claims.put("department", user.getDepartment());
+        }
+        claims.put("iat", now);
+        claims.put("exp", now + expirationMs / 1000);
+
+        try {
+            String signingInput = HEADER + "." + base64Url(objectMapper.writeValueAsBytes(claims));
+            return signingInput + "." + base64Url(sign(signingInput));
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not issue token", e);
+        }
+    }
+
+    /**
+     * @return the caller, or empty if the token is malformed, forged or expired
+     */
+    public Optional<AuthPrincipal> verify(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot <= 0 || lastDot == firstDot || token.indexOf('.', firstDot + 1) != lastDot) {
+            return Optional.empty();
+        }
+
+        try {
+            // Compare the canonical encoding so no alternative spelling of the signature verifies.
+            // Signature first (constant time), header second: nothing is parsed from unauthenticated input
+            byte[] expected = base64Url(sign(token.substring(0, lastDot))).getBytes(StandardCharsets.US_ASCII);
+            byte[] signature = token.substring(lastDot + 1).getBytes(StandardCharsets.US_ASCII);
+            if (!MessageDigest.isEqual(expected, signature)
+                    || !HEADER.equals(token.substring(0, firstDot))) {
+                return Optional.empty();
+            }
+
+            Map<String, Object> claims = objectMapper.readValue(
+                    Base64.getUrlDecoder().decode(token.substring(firstDot + 1, lastDot)), CLAIMS);
+
+            Object exp = claims.get("exp");
+            if (!(exp instanceof Number) || ((Number) exp).longValue() <= Instant.now().getEpochSecond()) {
+                return Optional.empty();
+            }
+
+            return Optional.of(new AuthPrincipal(
+                    Long.valueOf((String) claims.get("sub")),
+                    (String) claims.get("email"),
+                    (String) claims.get("name"),
+                    User.Role.valueOf((String) claims.get("role")),
+                    (String) claims.get("department")));
+        } catch (Exception e) {
+            // Bad base64, JSON or claim types
+            return Optional.empty();
+        }
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    private byte[] sign(String signingInput) {
+        return macs.get().doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,166 @@
+package com.civicrules.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Geohash encoding and cell geometry.
+ *
+ * A geohash of precision p interleaves 5p bits of longitude and latitude, so
+ * every cell of precision p splits into 32 cells of precision p + 1 and all
+ * points in a cell share its hash as a prefix.
+ */
+public final class Geohash {
+
+    public static final int MAX_PRECISION = 12;
+
+    private static final String BASE32_INDEX = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final char[] BASE32 = BASE32_INDEX.toCharArray();
+
+    private static final double EARTH_RADIUS_METERS = 6_371_000;
+
+    private Geohash() {
+    }
+
+    public static boolean isValid(Double latitude, Double longitude) {
+        return latitude != null && longitude != null
+                && latitude >= -90 && latitude <= 90
+                && longitude >= -180 && longitude <= 180;
+    }
+
+    /**
+     * @return the geohash, or null when the coordinates are missing or out of range
+     */
+    public static String encode(Double latitude, Double longitude, int precision) {
+        if (!isValid(latitude, longitude) || precision < 1 || precision > MAX_PRECISION) {
+            return null;
+        }
+
+        double minLat = -90, maxLat = 90;
+        double minLng = -180, maxLng = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int ch = 0;
+
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLng + maxLng) / 2;
+                if (longitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLng = mid;
+                } else {
+                    ch <<= 1;
+                    maxLng = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLat = mid;
+                } else {
+                    ch <<= 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+
+            if (++bit == 5) {
+                hash.append(BASE32[ch]);
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * The cell and its (up to) eight neighbours at the same precision; cells
+     * past the poles are left out and longitudes wrap at the antimeridian
+     */
+    public static List<String> neighbourhood(String hash) {
+        double[] centre = centre(hash);
+        double width = cellWidth(hash.length());
+        double height = cellHeight(hash.length());
+        List<String> cells = new ArrayList<>(9);
+        for (int dy = -1; dy <= 1; dy++) {
+            double latitude = centre[0] + dy * height;
+            if (latitude < -90 || latitude > 90) {
+                continue;
+            }
+            for (int dx = -1; dx <= 1; dx++) {
+                double longitude = centre[1] + dx * width;
+                if (longitude > 180) {
+                    longitude -= 360;
+                } else if (longitude < -180) {
+                    longitude += 360;
+                }
+                cells.add(encode(latitude, longitude, hash.length()));
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Centre of a cell as {latitude, longitude}
+     */
+    public static double[] centre(String hash) {
+        double minLat = -90, maxLat = 90;
+        double minLng = -180, maxLng = 180;
+        boolean evenBit = true;
+        for (int i = 0; i < hash.length(); i++) {
+            int ch = BASE32_INDEX.indexOf(hash.charAt(i));
+            if (ch < 0) {
+                throw new IllegalArgumentException("Invalid geohash: " + hash);
+            }
+            for (int bit = 4; bit >= 0; bit--) {
+                boolean set = ((ch >> bit) & 1) == 1;
+                if (evenBit) {
+                    double mid = (minLng + maxLng) / 2;
+                    if (set) {
+                        minLng = mid;
+                    } else {
+                        maxLng = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (set) {
+                        minLat = mid;
+                    } else {
+                        maxLat = mid;
+                    }
+                }
+                evenBit = !evenBit;
+            }
+        }
+        return new double[]{(minLat + maxLat) / 2, (minLng + maxLng) / 2};
+    }
+
+    /**
+     * Great-circle distance in metres
+     */
+    public static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Cell width in degrees of longitude
+     */
+    public static double cellWidth(int precision) {
+        int lngBits = (5 * precision + 1) / 2;
+        return 360.0 / (1L << lngBits);
+    }
+
+    /**
+     * Cell height in degrees of latitude
+     */
+    public static double cellHeight(int precision) {
+        int latBits = (5 * precision) / 2;
+        return 180.0 / (1L << latBits);
+    }
+}
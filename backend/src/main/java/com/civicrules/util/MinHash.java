@@ -0,0 +1,95 @@
+package com.civicrules.util;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * MinHash signatures over character shingles.
+ *
+ * Two texts' signatures agree in a fraction of positions that estimates the
+ * Jaccard similarity of their shingle sets, so near-duplicate complaints can
+ * be compared in constant time without keeping the text. Text is lower-cased
+ * and stripped of punctuation and spaces first, so "Street-light" and
+ * "streetlight" shingle the same.
+ */
+public final class MinHash {
+
+    public static final int SIGNATURE_LENGTH = 64;
+
+    private static final int SHINGLE_LENGTH = 4;
+
+    // Universal hashing (a * x + b) mod p; fixed seed so signatures are stable across restarts
+    private static final long PRIME = 2_147_483_647L;
+    private static final long[] A = new long[SIGNATURE_LENGTH];
+    private static final long[] B = new long[SIGNATURE_LENGTH];
+
+    static {
+        Random random = new Random(0x5EED);
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            A[i] = 1 + random.nextInt((int) PRIME - 1);
+            B[i] = random.nextInt((int) PRIME);
+        }
+    }
+
+    private MinHash() {
+    }
+
+    /**
+     * @return the signature, or null when the text has no letters or digits
+     */
+    public static int[] signature(String text) {
+        Set<Integer> shingles = shingles(text);
+        if (shingles.isEmpty()) {
+            return null;
+        }
+        int[] signature = new int[SIGNATURE_LENGTH];
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            long min = Long.MAX_VALUE;
+            for (int shingle : shingles) {
+                long hash = (A[i] * (shingle & 0xFFFFFFFFL) + B[i]) % PRIME;
+                if (hash < min) {
+                    min = hash;
+                }
+            }
+            signature[i] = (int) min;
+        }
+        return signature;
+    }
+
+    /**
+     * Estimated Jaccard similarity in [0, 1]; 0 when either signature is missing
+     */
+    public static double similarity(int[] a, int[] b) {
+        if (a == null || b == null) {
+            return 0;
+        }
+        int equal = 0;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / SIGNATURE_LENGTH;
+    }
+
+    private static Set<Integer> shingles(String text) {
+        Set<Integer> shingles = new HashSet<>();
+        if (text == null) {
+            return shingles;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]", "");
+        if (normalized.isEmpty()) {
+            return shingles;
+        }
+        if (normalized.length() <= SHINGLE_LENGTH) {
+            shingles.add(normalized.hashCode());
+            return shingles;
+        }
+        for (int i = 0; i + SHINGLE_LENGTH <= normalized.length(); i++) {
+            shingles.add(normalized.substring(i, i + SHINGLE_LENGTH).hashCode());
+        }
+        return shingles;
+    }
+}
@@ -0,0 +1,109 @@
+-- Schema as built by spring.jpa.hibernate.ddl-auto=update before the switch to
+-- Flyway, i.e. what a database already in production looks like. Existing
+-- databases are baselined at this version (see spring.flyway.baseline-on-migrate)
+-- and only run the later migrations, so nothing added since belongs here.
+
+create table users (
+    id bigint not null auto_increment,
+    name varchar(100) not null,
+    email varchar(100) not null,
+    password varchar(255) not null,
+    full_name varchar(50),
+    phone varchar(20),
+    phone_number varchar(20),
+    role enum ('CITIZEN','OFFICER','ADMIN') not null,
+    department varchar(100),
+    zone varchar(255),
+    is_active bit,
+    created_at datetime(6) not null,
+    updated_at datetime(6),
+    primary key (id),
+    constraint uk_users_email unique (email)
+) engine=InnoDB;
+
+create table admin (
+    id bigint not null auto_increment,
+    email varchar(255) not null,
+    full_name varchar(255) not null,
+    password varchar(255) not null,
+    phone_number varchar(255),
+    is_active bit,
+    created_at datetime(6),
+    primary key (id),
+    constraint uk_admin_email unique (email)
+) engine=InnoDB;
+
+create table citizens (
+    id bigint not null auto_increment,
+    email varchar(255) not null,
+    name varchar(255) not null,
+    password varchar(255) not null,
+    phone_number varchar(255),
+    is_active bit,
+    created_at datetime(6),
+    primary key (id),
+    constraint uk_citizens_email unique (email)
+) engine=InnoDB;
+
+create table officer (
+    id bigint not null auto_increment,
+    email varchar(255),
+    first_name varchar(255),
+    last_name varchar(255),
+    full_name varchar(255),
+    password varchar(255),
+    phone varchar(255),
+    phone_number varchar(255),
+    department varchar(255),
+    is_active bit,
+    created_at datetime(6),
+    primary key (id),
+    constraint uk_officer_email unique (email)
+) engine=InnoDB;
+
+create table roles (
+    id bigint not null auto_increment,
+    name varchar(50) not null,
+    primary key (id),
+    constraint uk_roles_name unique (name)
+) engine=InnoDB;
+
+create table grievances (
+    id bigint not null auto_increment,
+    title varchar(200) not null,
+    description TEXT,
+    category varchar(100) not null,
+    department varchar(100),
+    location varchar(500) not null,
+    latitude float(53),
+    longitude float(53),
+    status enum ('PENDING','IN_PROGRESS','RESOLVED','CLOSED','REJECTED') not null,
+    verification_status varchar(50),
+    verification_reason TEXT,
+    rejection_reason TEXT,
+    reopen_reason TEXT,
+    officer_remarks TEXT,
+    feedback_submitted bit,
+    image_path varchar(255),
+    citizen_id bigint not null,
+    assigned_to bigint,
+    created_at datetime(6) not null,
+    updated_at datetime(6),
+    resolved_at datetime(6),
+    primary key (id),
+    constraint fk_grievances_citizen foreign key (citizen_id) references users (id),
+    constraint fk_grievances_assigned_to foreign key (assigned_to) references users (id)
+) engine=InnoDB;
+
+create table feedback (
+    id bigint not null auto_increment,
+    grievance_id bigint not null,
+    user_id bigint not null,
+    rating integer not null,
+    comment TEXT,
+    is_reopened bit,
+    created_at datetime(6) not null,
+    primary key (id),
+    constraint fk_feedback_grievance foreign key (grievance_id) references grievances (id),
+    constraint fk_feedback_user foreign key (user_id) references users (id)
+) engine=InnoDB;
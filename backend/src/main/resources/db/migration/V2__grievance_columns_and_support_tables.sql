@@ -0,0 +1,64 @@
+-- Columns and tables added since the baseline, for pre-aggregated analytics,
+-- keyset listing, per-category SLA targets, content-addressed images, the
+-- transactional outbox, the map index, duplicate detection and pooled ids.
+
+-- Derived from category and coordinates on every write; CategoryKeyBackfill
+-- and GeohashBackfill fill them in for existing rows at startup
+alter table grievances add column category_key varchar(100);
+alter table grievances add column geohash varchar(12);
+
+alter table grievances add column thumbnail_path varchar(255);
+alter table grievances add column thumbnail_webp_path varchar(255);
+alter table grievances add column master_grievance_id bigint;
+alter table grievances add column image_dhash bigint;
+
+create index idx_grievances_created_at_id on grievances (created_at, id);
+create index idx_grievances_category_key_created on grievances (category_key, created_at, id);
+create index idx_grievances_category_key_sla on grievances (category_key, status, created_at, resolved_at);
+create index idx_grievances_geohash on grievances (geohash);
+create index idx_grievances_master on grievances (master_grievance_id);
+
+create table sla_targets (
+    category_key varchar(100) not null,
+    category varchar(100) not null,
+    target_days integer not null,
+    updated_at datetime(6) not null,
+    primary key (category_key)
+) engine=InnoDB;
+
+create table stored_blobs (
+    hash varchar(64) not null,
+    extension varchar(10) not null,
+    size_bytes bigint not null,
+    ref_count integer not null,
+    created_at datetime(6) not null,
+    released_at datetime(6),
+    primary key (hash)
+) engine=InnoDB;
+
+create index idx_stored_blobs_ref_count_released on stored_blobs (ref_count, released_at);
+
+create table outbox_events (
+    id bigint not null auto_increment,
+    event_type varchar(50) not null,
+    aggregate_id bigint,
+    payload TEXT not null,
+    attempts integer not null,
+    created_at datetime(6) not null,
+    published_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_outbox_events_published_id on outbox_events (published_at, id);
+
+-- Pooled id allocators (see IdAllocation); IdSequenceBackfill moves them past existing rows
+create table id_sequences (
+    sequence_name varchar(255) not null,
+    next_val bigint,
+    primary key (sequence_name)
+) engine=InnoDB;
+
+insert into id_sequences (sequence_name, next_val) values ('users', 0);
+insert into id_sequences (sequence_name, next_val) values ('officer', 0);
+insert into id_sequences (sequence_name, next_val) values ('grievances', 0);
+insert into id_sequences (sequence_name, next_val) values ('feedback', 0);
@@ -0,0 +1,29 @@
+-- Indexes for the predicates the repositories filter on. Each leads with the
+-- equality column and ends with the sort column, so the matching rows come
+-- back in order without a filesort. On MySQL the composite indexes on
+-- citizen_id, assigned_to and grievance_id also take over from the implicit
+-- single-column foreign key indexes.
+
+-- findByUserId / findByUserIdOrderByCreatedAtDesc (citizen dashboard, stats)
+create index idx_grievances_citizen_created on grievances (citizen_id, created_at);
+
+-- findByStatus, countByStatus, findWithoutFeedbackByStatus (resolved-without-feedback)
+create index idx_grievances_status_created on grievances (status, created_at);
+
+-- findByVerificationStatus and the pending-verification queue
+create index idx_grievances_verification_created on grievances (verification_status, created_at);
+
+-- findByCategory (exact category as entered)
+create index idx_grievances_category on grievances (category);
+
+-- findByAssignedToId and per-officer workload by status
+create index idx_grievances_assigned_status on grievances (assigned_to, status);
+
+-- findByGrievanceId / existsByGrievanceId and the feedback anti-join
+create index idx_feedback_grievance on feedback (grievance_id);
+
+-- findByIsReopened (reopened complaints)
+create index idx_feedback_reopened on feedback (is_reopened);
+
+-- findByRole / findByRoleAndDepartment (officer lists and routing)
+create index idx_users_role_department on users (role, department);
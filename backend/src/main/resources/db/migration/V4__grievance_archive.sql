@@ -0,0 +1,59 @@
+-- Cold storage for grievances that were resolved or closed long ago, moved
+-- here with their feedback by GrievanceArchive. The columns match the active
+-- tables so rows move with INSERT ... SELECT; there are no foreign keys, so
+-- archiving never blocks on (or is blocked by) the active tables.
+
+create table grievances_archive (
+    id bigint not null,
+    title varchar(200) not null,
+    description TEXT,
+    category varchar(100) not null,
+    category_key varchar(100),
+    department varchar(100),
+    location varchar(500) not null,
+    latitude float(53),
+    longitude float(53),
+    geohash varchar(12),
+    status enum ('PENDING','IN_PROGRESS','RESOLVED','CLOSED','REJECTED') not null,
+    verification_status varchar(50),
+    verification_reason TEXT,
+    rejection_reason TEXT,
+    reopen_reason TEXT,
+    officer_remarks TEXT,
+    feedback_submitted bit,
+    image_path varchar(255),
+    image_dhash bigint,
+    thumbnail_path varchar(255),
+    thumbnail_webp_path varchar(255),
+    master_grievance_id bigint,
+    citizen_id bigint not null,
+    assigned_to bigint,
+    created_at datetime(6) not null,
+    updated_at datetime(6),
+    resolved_at datetime(6),
+    archived_at datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
+
+-- Date-range listing (newest first) and the newest archived creation time
+create index idx_grievances_archive_created_id on grievances_archive (created_at, id);
+
+-- A citizen's grievances in a date range, and their archived counts
+create index idx_grievances_archive_citizen_created on grievances_archive (citizen_id, created_at);
+
+-- SLA aggregation over active and archived grievances together
+create index idx_grievances_archive_category_key_sla on grievances_archive (category_key, status, created_at, resolved_at);
+
+create table feedback_archive (
+    id bigint not null,
+    grievance_id bigint not null,
+    user_id bigint not null,
+    rating integer not null,
+    comment TEXT,
+    is_reopened bit,
+    created_at datetime(6) not null,
+    archived_at datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_feedback_archive_grievance on feedback_archive (grievance_id);
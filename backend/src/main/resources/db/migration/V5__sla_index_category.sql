@@ -0,0 +1,9 @@
+-- aggregateSla also reads category (the display name when a category has no
+-- sla_targets row). Appending it makes both SLA indexes covering, so the
+-- aggregation reads the indexes alone instead of every table row.
+
+drop index idx_grievances_category_key_sla on grievances;
+create index idx_grievances_category_key_sla on grievances (category_key, status, created_at, resolved_at, category);
+
+drop index idx_grievances_archive_category_key_sla on grievances_archive;
+create index idx_grievances_archive_category_key_sla on grievances_archive (category_key, status, created_at, resolved_at, category);
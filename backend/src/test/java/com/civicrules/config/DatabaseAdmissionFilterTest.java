@@ -0,0 +1,97 @@
+package com.civicrules.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Admission limit, exempt paths and registration of the database admission filter
+ */
+class DatabaseAdmissionFilterTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(PropertyPlaceholderAutoConfiguration.class))
+            .withUserConfiguration(DatabaseAdmissionFilter.class);
+
+    @Test
+    void limitIsHalfThePoolAtMost() {
+        assertThat(DatabaseAdmissionFilter.admissionLimit(0, 20)).isEqualTo(10);
+        assertThat(DatabaseAdmissionFilter.admissionLimit(40, 20)).isEqualTo(10);
+        assertThat(DatabaseAdmissionFilter.admissionLimit(6, 20)).isEqualTo(6);
+        assertThat(DatabaseAdmissionFilter.admissionLimit(0, 1)).isEqualTo(1);
+    }
+
+    @Test
+    void registeredOnlyWithVirtualThreads() {
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(DatabaseAdmissionFilter.class));
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=false")
+                .run(context -> assertThat(context).doesNotHaveBean(DatabaseAdmissionFilter.class));
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=true",
+                        "spring.datasource.hikari.maximum-pool-size=20")
+                .run(context -> assertThat(context.getBean(DatabaseAdmissionFilter.class).getAvailablePermits())
+                        .isEqualTo(10));
+    }
+
+    @Test
+    void imagesAndStreamsAreNotCounted() {
+        DatabaseAdmissionFilter filter = new DatabaseAdmissionFilter(true, 0, 20, 0);
+
+        assertThat(filter.shouldNotFilter(get("/api/uploads/photo.png"))).isTrue();
+        assertThat(filter.shouldNotFilter(get("/uploads/photo.png"))).isTrue();
+        assertThat(filter.shouldNotFilter(get("/api/grievances/image/photo.png"))).isTrue();
+        assertThat(filter.shouldNotFilter(get("/api/stream/grievances"))).isTrue();
+        assertThat(filter.shouldNotFilter(get("/api/grievances"))).isFalse();
+    }
+
+    @Test
+    void requestBeyondTheLimitGets503() throws Exception {
+        DatabaseAdmissionFilter filter = new DatabaseAdmissionFilter(true, 1, 20, 0);
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            try {
+                filter.doFilter(get("/api/grievances"), new MockHttpServletResponse(), (req, res) -> {
+                    inside.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        holder.start();
+        assertThat(inside.await(5, TimeUnit.SECONDS)).isTrue();
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(get("/api/grievances"), response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(filter.getRejectedCount()).isEqualTo(1);
+
+        release.countDown();
+        holder.join(5000);
+        assertThat(filter.getAvailablePermits()).isEqualTo(1);
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    private static MockHttpServletRequest get(String path) {
+        return new MockHttpServletRequest("GET", path);
+    }
+}
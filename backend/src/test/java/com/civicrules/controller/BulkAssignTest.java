@@ -0,0 +1,80 @@
+package com.civicrules.controller;
+
+import com.civicrules.repository.GrievanceRepository;
+import com.civicrules.service.IdentityCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Request validation of the bulk assign endpoint
+ */
+@ExtendWith(MockitoExtension.class)
+class BulkAssignTest {
+
+    @Mock
+    private GrievanceRepository grievanceRepository;
+
+    @Mock
+    private IdentityCache identityCache;
+
+    @InjectMocks
+    private GrievanceController controller;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(controller, "bulkMaxSize", 2);
+    }
+
+    @Test
+    void missingOfficerIdIsRejectedBeforeAnyLookup() {
+        ResponseEntity<?> response = controller.bulkAssign(new GrievanceController.BulkAssignRequest(List.of(1L), null));
+
+        assertThat(response.getStatusCode().value()).isEqualTo(400);
+        assertThat(response.getBody()).isEqualTo("Officer id is required");
+        verifyNoInteractions(identityCache, grievanceRepository);
+    }
+
+    @Test
+    void invalidBatchIsRejectedBeforeAnyLookup() {
+        assertThat(controller.bulkAssign(new GrievanceController.BulkAssignRequest(null, 5L))
+                .getStatusCode().value()).isEqualTo(400);
+        assertThat(controller.bulkAssign(new GrievanceController.BulkAssignRequest(List.of(1L, 2L, 3L), 5L))
+                .getStatusCode().value()).isEqualTo(400);
+
+        verifyNoInteractions(identityCache, grievanceRepository);
+    }
+
+    @Test
+    void unknownOfficerIsABadRequest() {
+        when(identityCache.findUser(5L)).thenReturn(Optional.empty());
+
+        ResponseEntity<?> response = controller.bulkAssign(new GrievanceController.BulkAssignRequest(List.of(1L), 5L));
+
+        assertThat(response.getStatusCode().value()).isEqualTo(400);
+        assertThat(response.getBody()).isEqualTo("Officer not found");
+        verifyNoInteractions(grievanceRepository);
+    }
+
+    @Test
+    void failedOfficerLookupIsAServerError() {
+        when(identityCache.findUser(5L)).thenThrow(new IllegalStateException("database unavailable"));
+
+        ResponseEntity<?> response = controller.bulkAssign(new GrievanceController.BulkAssignRequest(List.of(1L), 5L));
+
+        assertThat(response.getStatusCode().value()).isEqualTo(500);
+        assertThat(response.getBody()).isEqualTo("Error: database unavailable");
+    }
+}
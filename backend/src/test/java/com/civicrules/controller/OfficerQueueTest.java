@@ -0,0 +1,105 @@
+package com.civicrules.controller;
+
+import com.civicrules.dto.AuthPrincipal;
+import com.civicrules.model.Grievance;
+import com.civicrules.model.Officer;
+import com.civicrules.model.User;
+import com.civicrules.repository.GrievanceRepository;
+import com.civicrules.service.IdentityCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Paging contract of the officer queue endpoints
+ */
+@ExtendWith(MockitoExtension.class)
+class OfficerQueueTest {
+
+    @Mock
+    private GrievanceRepository grievanceRepository;
+
+    @Mock
+    private IdentityCache identityCache;
+
+    @InjectMocks
+    private GrievanceController controller;
+
+    @Test
+    void withoutPagingParametersReturnsWholeQueue() {
+        stubQueue(false);
+
+        ResponseEntity<List<Grievance>> response = controller.getOfficerAssignedGrievances(1L, null, null, null);
+
+        assertThat(requestedPage().isPaged()).isFalse();
+        assertThat(response.getHeaders().getFirst("X-Has-More")).isEqualTo("false");
+    }
+
+    @Test
+    void sizeAloneStartsAtFirstPage() {
+        stubQueue(true);
+
+        ResponseEntity<List<Grievance>> response = controller.getOfficerAssignedGrievances(1L, null, 20, null);
+
+        Pageable page = requestedPage();
+        assertThat(page.getPageNumber()).isZero();
+        assertThat(page.getPageSize()).isEqualTo(20);
+        assertThat(response.getHeaders().getFirst("X-Has-More")).isEqualTo("true");
+    }
+
+    @Test
+    void pageSizeIsCapped() {
+        stubQueue(false);
+
+        controller.getGrievancesByOfficer(1L, 3, 100000, null);
+
+        Pageable page = requestedPage();
+        assertThat(page.getPageNumber()).isEqualTo(3);
+        assertThat(page.getPageSize()).isEqualTo(500);
+    }
+
+    @Test
+    void signedInOfficerGetsTheirCurrentDepartmentNotTheTokenClaim() {
+        AuthPrincipal officer = new AuthPrincipal(5L, "officer@city.org", "Officer", User.Role.OFFICER, "Water");
+        when(identityCache.findOfficerDepartment(5L)).thenReturn(Optional.of("Road"));
+        when(grievanceRepository.findByCategoryKeyAndMasterGrievanceIdIsNullOrderByCreatedAtDescIdDesc(eq("road"), any()))
+                .thenAnswer(call -> new SliceImpl<Grievance>(Collections.emptyList(), call.getArgument(1), false));
+
+        controller.getOfficerAssignedGrievances(1L, null, null, officer);
+
+        requestedPage();
+        verify(identityCache, never()).findOfficer(any());
+    }
+
+    private void stubQueue(boolean hasMore) {
+        Officer officer = new Officer();
+        officer.setDepartment("Road");
+        when(identityCache.findOfficer(1L)).thenReturn(Optional.of(officer));
+        when(grievanceRepository.findByCategoryKeyAndMasterGrievanceIdIsNullOrderByCreatedAtDescIdDesc(eq("road"), any()))
+                .thenAnswer(call -> new SliceImpl<Grievance>(Collections.emptyList(), call.getArgument(1), hasMore));
+    }
+
+    private Pageable requestedPage() {
+        ArgumentCaptor<Pageable> captor = ArgumentCaptor.forClass(Pageable.class);
+        verify(grievanceRepository).findByCategoryKeyAndMasterGrievanceIdIsNullOrderByCreatedAtDescIdDesc(
+                eq("road"), captor.capture());
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,104 @@
+package com.civicrules.controller;
+
+import com.civicrules.dto.AuthPrincipal;
+import com.civicrules.model.User;
+import com.civicrules.service.GrievanceStreamBroker;
+import com.civicrules.service.GrievanceStreamBroker.Audience;
+import com.civicrules.service.IdentityCache;
+import com.civicrules.service.TokenService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Who may subscribe to which live stream
+ */
+@ExtendWith(MockitoExtension.class)
+class StreamAccessTest {
+
+    @Mock
+    private GrievanceStreamBroker grievanceStreamBroker;
+
+    @Mock
+    private IdentityCache identityCache;
+
+    @Mock
+    private TokenService tokenService;
+
+    @InjectMocks
+    private StreamController controller;
+
+    @Test
+    void everyGrievanceNeedsAnAdminToken() {
+        when(tokenService.verify(any())).thenReturn(Optional.empty());
+        assertThat(status(controller.stream(true, null, null, null, null, null, null, null))).isEqualTo(401);
+
+        when(tokenService.verify("citizen-token")).thenReturn(Optional.of(caller(7L, User.Role.CITIZEN)));
+        assertThat(status(controller.stream(true, null, null, null, null, "citizen-token", null, null))).isEqualTo(403);
+
+        verifyNoInteractions(grievanceStreamBroker);
+    }
+
+    @Test
+    void adminTokenFromTheQueryStringGetsEveryGrievance() {
+        when(tokenService.verify("admin-token")).thenReturn(Optional.of(caller(1L, User.Role.ADMIN)));
+        when(grievanceStreamBroker.subscribe(Audience.admin(), null)).thenReturn(new SseEmitter());
+
+        assertThat(status(controller.stream(true, null, null, null, null, "admin-token", null, null))).isEqualTo(200);
+    }
+
+    @Test
+    void citizenStreamIsOnlyForThatCitizen() {
+        AuthPrincipal citizen = caller(7L, User.Role.CITIZEN);
+        when(grievanceStreamBroker.subscribe(Audience.citizen(7L), "42")).thenReturn(new SseEmitter());
+
+        assertThat(status(controller.stream(false, 8L, null, null, null, null, null, citizen))).isEqualTo(403);
+        assertThat(status(controller.stream(false, 7L, null, null, null, null, "42", citizen))).isEqualTo(200);
+
+        verify(grievanceStreamBroker).subscribe(Audience.citizen(7L), "42");
+    }
+
+    @Test
+    void citizenCannotFollowADepartment() {
+        AuthPrincipal citizen = caller(7L, User.Role.CITIZEN);
+
+        assertThat(status(controller.stream(false, null, null, "Road", null, null, null, citizen))).isEqualTo(403);
+
+        verifyNoInteractions(grievanceStreamBroker);
+    }
+
+    @Test
+    void officerFollowsTheirCurrentDepartment() {
+        AuthPrincipal officer = new AuthPrincipal(5L, "officer@city.org", "Officer", User.Role.OFFICER, "Water");
+        when(identityCache.findOfficerDepartment(5L)).thenReturn(Optional.of("Road"));
+        when(grievanceStreamBroker.subscribe(Audience.department("Road"), null)).thenReturn(new SseEmitter());
+
+        assertThat(status(controller.stream(false, null, 9L, null, null, null, null, officer))).isEqualTo(200);
+
+        verify(grievanceStreamBroker).subscribe(Audience.department("Road"), null);
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    private static AuthPrincipal caller(Long userId, User.Role role) {
+        return new AuthPrincipal(userId, "user" + userId + "@city.org", "User " + userId, role, null);
+    }
+
+    private static int status(ResponseEntity<?> response) {
+        return response.getStatusCode().value();
+    }
+}
@@ -0,0 +1,136 @@
+package com.civicrules.controller;
+
+import com.civicrules.dto.AuthPrincipal;
+import com.civicrules.dto.GrievanceEvent;
+import com.civicrules.dto.GrievanceFingerprint;
+import com.civicrules.dto.GrievanceSummary;
+import com.civicrules.model.Grievance;
+import com.civicrules.model.User;
+import com.civicrules.repository.GrievanceRepository;
+import com.civicrules.repository.UserRepository;
+import com.civicrules.service.DuplicateDetector;
+import com.civicrules.service.EventOutbox;
+import com.civicrules.service.IdentityCache;
+import com.civicrules.service.ImageIngestionService;
+import com.civicrules.service.ImageStorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * What grievance submission does on the request thread
+ */
+@ExtendWith(MockitoExtension.class)
+class SubmitGrievanceTest {
+
+    private static final AuthPrincipal CITIZEN = new AuthPrincipal(7L, "citizen@example.com", "Citizen",
+            User.Role.CITIZEN, null);
+
+    @Mock
+    private GrievanceRepository grievanceRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private IdentityCache identityCache;
+
+    @Mock
+    private ImageIngestionService imageIngestionService;
+
+    @Mock
+    private ImageStorageService imageStorageService;
+
+    @Mock
+    private DuplicateDetector duplicateDetector;
+
+    @Mock
+    private EventOutbox eventOutbox;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private GrievanceController controller;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        lenient().when(imageIngestionService.store(any())).thenReturn("stored.png");
+        lenient().when(duplicateDetector.findMaster(any())).thenReturn(Optional.empty());
+        lenient().when(grievanceRepository.save(any(Grievance.class))).thenAnswer(invocation -> {
+            Grievance grievance = invocation.getArgument(0);
+            grievance.setId(1L);
+            return grievance;
+        });
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void signedInSubmitterIsAReferenceNotALookup() {
+        // Stands in for the lazy proxy: any getter but getId would load the user
+        User reference = mock(User.class);
+        lenient().when(reference.getId()).thenReturn(7L);
+        when(userRepository.getReferenceById(7L)).thenReturn(reference);
+
+        ResponseEntity<?> response = submit(CITIZEN);
+
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        assertThat(response.getBody()).isInstanceOfSatisfying(GrievanceSummary.class, summary -> {
+            assertThat(summary.id()).isEqualTo(1L);
+            assertThat(summary.user()).isEqualTo(new GrievanceSummary.PersonRef(7L, "Citizen"));
+        });
+        ArgumentCaptor<GrievanceEvent> event = ArgumentCaptor.forClass(GrievanceEvent.class);
+        verify(eventOutbox).append(event.capture());
+        assertThat(event.getValue().grievance().user()).isEqualTo(new GrievanceSummary.PersonRef(7L, "Citizen"));
+
+        verify(reference, atLeast(0)).getId();
+        verifyNoMoreInteractions(reference);
+        verifyNoInteractions(identityCache);
+    }
+
+    @Test
+    void photoIsNotDecodedDuringSubmit() {
+        when(userRepository.getReferenceById(7L)).thenReturn(new User());
+
+        submit(CITIZEN);
+
+        verify(imageIngestionService, never()).differenceHash(anyString());
+        ArgumentCaptor<GrievanceFingerprint> fingerprint = ArgumentCaptor.forClass(GrievanceFingerprint.class);
+        verify(duplicateDetector).findMaster(fingerprint.capture());
+        assertThat(fingerprint.getValue().imageHash()).isNull();
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    private ResponseEntity<?> submit(AuthPrincipal principal) {
+        MockMultipartFile image = new MockMultipartFile("image", "photo.png", "image/png", new byte[]{1, 2, 3});
+        return controller.submitGrievance("Pothole", "Roads", "Main Street", "Deep pothole", null, "PENDING",
+                12.97, 77.59, image, principal);
+    }
+}
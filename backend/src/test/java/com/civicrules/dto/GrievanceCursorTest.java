@@ -0,0 +1,34 @@
+package com.civicrules.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GrievanceCursorTest {
+
+    @Test
+    void roundTripsPosition() {
+        GrievanceCursor cursor = new GrievanceCursor(LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123456000), 42L);
+
+        assertThat(GrievanceCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void encodesUrlSafeWithoutPadding() {
+        String encoded = new GrievanceCursor(LocalDateTime.of(2024, 1, 1, 0, 0), 7L).encode();
+
+        assertThat(encoded).doesNotContain("+", "/", "=");
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThatThrownBy(() -> GrievanceCursor.decode("not a cursor"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> GrievanceCursor.decode(
+                new GrievanceCursor(LocalDateTime.of(2024, 1, 1, 0, 0), 1L).encode().substring(3)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
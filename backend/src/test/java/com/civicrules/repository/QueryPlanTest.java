@@ -0,0 +1,230 @@
+package com.civicrules.repository;
+
+import com.civicrules.model.Grievance;
+import com.civicrules.model.User;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query-plan regression test: runs the hot repository queries against the
+ * schema built by the Flyway migrations (H2 in MySQL mode) and fails if the
+ * plan of any SQL they issue scans a whole table.
+ *
+ * The SQL is captured from Hibernate as issued, so a changed query or a
+ * dropped index both show up here.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-plans;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        // The migrations declare MySQL enum columns, which H2Dialect would not validate
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.civicrules.repository.QueryPlanTest$SqlRecorder"
+})
+class QueryPlanTest {
+
+    private static final String FULL_SCAN = ".tableScan";
+
+    @Autowired
+    private GrievanceRepository grievanceRepository;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    // ========================================
+    // GRIEVANCES
+    // ========================================
+
+    @Test
+    void citizenGrievances() {
+        assertNoFullScan(() -> grievanceRepository.findByUserIdOrderByCreatedAtDesc(1L));
+        assertNoFullScan(() -> grievanceRepository.findByUserId(1L));
+        assertNoFullScan(() -> grievanceRepository.findByUserIdAndCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByCreatedAtDesc(
+                1L, LocalDateTime.now().minusYears(1), LocalDateTime.now()));
+    }
+
+    @Test
+    void grievancesByStatus() {
+        assertNoFullScan(() -> grievanceRepository.findByStatus(Grievance.Status.PENDING));
+        assertNoFullScan(() -> grievanceRepository.countByStatus(Grievance.Status.RESOLVED));
+    }
+
+    @Test
+    void resolvedWithoutFeedback() {
+        assertNoFullScan(() -> grievanceRepository.findWithoutFeedbackByStatus(Grievance.Status.RESOLVED));
+        assertNoFullScan(() -> grievanceRepository.countWithoutFeedbackByStatus(Grievance.Status.RESOLVED));
+    }
+
+    @Test
+    void verificationQueue() {
+        assertNoFullScan(() -> grievanceRepository.findByVerificationStatus("PENDING"));
+    }
+
+    @Test
+    void grievancesByCategory() {
+        assertNoFullScan(() -> grievanceRepository.findByCategory("Road"));
+    }
+
+    @Test
+    void officerQueue() {
+        assertNoFullScan(() -> grievanceRepository.findByCategoryKeyAndMasterGrievanceIdIsNullOrderByCreatedAtDescIdDesc(
+                "road", PageRequest.of(0, 50)));
+        assertNoFullScan(() -> grievanceRepository.findByAssignedToId(1L));
+    }
+
+    @Test
+    void keysetListing() {
+        assertNoFullScan(() -> grievanceRepository.findSummariesAfter(LocalDateTime.now(), 100L, PageRequest.of(0, 50)));
+        assertNoFullScan(() -> grievanceRepository.findSummariesBetween(
+                LocalDateTime.now().minusYears(1), LocalDateTime.now(), 100L, PageRequest.of(0, 50)));
+    }
+
+    @Test
+    void archivalCandidates() {
+        assertNoFullScan(() -> grievanceRepository.findArchivableIds(
+                List.of(Grievance.Status.RESOLVED, Grievance.Status.CLOSED),
+                LocalDateTime.now().minusYears(1), PageRequest.of(0, 500)));
+    }
+
+    @Test
+    void recentWindows() {
+        LocalDateTime since = LocalDateTime.now().minusDays(30);
+        assertNoFullScan(() -> grievanceRepository.findLocatedSnapshotsCreatedSince(since, 0L, PageRequest.of(0, 500)));
+        assertNoFullScan(() -> grievanceRepository.findFingerprintsCreatedSince(since, 0L, PageRequest.of(0, 500)));
+        assertNoFullScan(() -> grievanceRepository.findMissingDerivatives(
+                LocalDateTime.now().minusDays(1), LocalDateTime.now(), PageRequest.of(0, 50)));
+    }
+
+    @Test
+    void bulkTriage() {
+        assertNoFullScan(() -> grievanceRepository.findForUpdateByIdIn(List.of(1L, 2L)));
+        assertNoFullScan(() -> grievanceRepository.findByIdIn(List.of(1L, 2L)));
+    }
+
+    @Test
+    void duplicatesOfMaster() {
+        assertNoFullScan(() -> grievanceRepository.findByMasterGrievanceId(1L));
+        assertNoFullScan(() -> grievanceRepository.findDuplicateSummaries(1L));
+        assertNoFullScan(() -> grievanceRepository.existsByMasterGrievanceId(1L));
+        assertNoFullScan(() -> grievanceRepository.findForUpdateByMasterGrievanceIdIn(List.of(1L)));
+    }
+
+    // ========================================
+    // FEEDBACK, USERS, OUTBOX
+    // ========================================
+
+    @Test
+    void feedbackForGrievance() {
+        assertNoFullScan(() -> feedbackRepository.findByGrievanceId(1L));
+        assertNoFullScan(() -> feedbackRepository.existsByGrievanceId(1L));
+    }
+
+    @Test
+    void reopenedFeedback() {
+        assertNoFullScan(() -> feedbackRepository.findByIsReopened(true));
+    }
+
+    @Test
+    void usersByRole() {
+        assertNoFullScan(() -> userRepository.findByRole(User.Role.OFFICER));
+        assertNoFullScan(() -> userRepository.findByRoleAndDepartment(User.Role.OFFICER, "Road"));
+        assertNoFullScan(() -> userRepository.findByEmail("citizen@example.com"));
+    }
+
+    @Test
+    void outboxRelay() {
+        assertNoFullScan(() -> outboxEventRepository.findByPublishedAtIsNullOrderByIdAsc(PageRequest.of(0, 100)));
+        assertNoFullScan(() -> outboxEventRepository.countUnpublished());
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    private void assertNoFullScan(Runnable query) {
+        SqlRecorder.clear();
+        query.run();
+        List<String> statements = SqlRecorder.drain();
+        assertThat(statements).as("SQL issued").isNotEmpty();
+
+        for (String sql : statements) {
+            String plan = explain(sql);
+            assertThat(plan).as("plan of %s", sql).doesNotContain(FULL_SCAN);
+        }
+    }
+
+    private String explain(String sql) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql);
+             ResultSet result = statement.executeQuery()) {
+            StringBuilder plan = new StringBuilder();
+            while (result.next()) {
+                plan.append(result.getString(1)).append('\n');
+            }
+            return plan.toString();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not explain " + sql, e);
+        }
+    }
+
+    /**
+     * Collects the SQL Hibernate sends, unchanged
+     */
+    public static class SqlRecorder implements StatementInspector {
+
+        private static final List<String> statements = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            synchronized (statements) {
+                statements.add(sql);
+            }
+            return sql;
+        }
+
+        static void clear() {
+            synchronized (statements) {
+                statements.clear();
+            }
+        }
+
+        static List<String> drain() {
+            synchronized (statements) {
+                List<String> drained = new ArrayList<>(statements);
+                statements.clear();
+                return drained;
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.civicrules.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The entities against the schema a production database ends up with: the
+ * baseline tables built without Flyway, baselined at V1 on first start, then
+ * migrated. Hibernate runs with ddl-auto=validate, so a column or table the
+ * migrations fail to add stops the context from starting.
+ *
+ * MySQLDialect rather than H2Dialect (as in {@link QueryPlanTest}): H2 in
+ * MySQL mode reports the enum columns the way MySQL does, so they validate
+ * as they would in production.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:schema-validation;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQLDialect",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.show-sql=false",
+        "spring.flyway.baseline-on-migrate=true",
+        "spring.flyway.baseline-version=1"
+})
+class SchemaValidationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void preFlywayDatabaseIsBaselinedAndMigrated() {
+        List<String> applied = new JdbcTemplate(dataSource).queryForList("SELECT CONCAT(type, ' ', version) "
+                + "FROM flyway_schema_history WHERE success AND version IS NOT NULL ORDER BY installed_rank", String.class);
+
+        assertThat(applied).containsExactly("BASELINE 1", "SQL 2", "SQL 3", "SQL 4", "SQL 5");
+    }
+
+    @Test
+    void slaIndexesCoverTheSlaAggregation() {
+        List<String> columns = List.of("category_key", "status", "created_at", "resolved_at", "category");
+
+        assertThat(indexColumns("idx_grievances_category_key_sla")).isEqualTo(columns);
+        assertThat(indexColumns("idx_grievances_archive_category_key_sla")).isEqualTo(columns);
+    }
+
+    private List<String> indexColumns(String index) {
+        return new JdbcTemplate(dataSource).queryForList("SELECT column_name FROM information_schema.index_columns "
+                + "WHERE index_name = ? ORDER BY ordinal_position", String.class, index);
+    }
+
+    @TestConfiguration
+    static class PreFlywayDatabase {
+
+        @Bean
+        FlywayMigrationStrategy fromPreFlywaySchema() {
+            return flyway -> {
+                // What production has before the first Flyway run: the V1 tables and no history
+                Flyway.configure().configuration(flyway.getConfiguration()).target("1").load().migrate();
+                new JdbcTemplate(flyway.getConfiguration().getDataSource()).execute("DROP TABLE flyway_schema_history");
+                flyway.migrate();
+            };
+        }
+    }
+}
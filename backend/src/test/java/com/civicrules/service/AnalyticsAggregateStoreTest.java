@@ -0,0 +1,142 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.GrievanceEvent;
+import com.civicrules.dto.GrievanceSnapshot;
+import com.civicrules.model.Grievance;
+import com.civicrules.repository.GrievanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Event handling of the analytics counters: late, repeated and stale
+ * deliveries all converge on the committed state
+ */
+@ExtendWith(MockitoExtension.class)
+class AnalyticsAggregateStoreTest {
+
+    private static final LocalDateTime FILED = LocalDateTime.of(2024, 3, 1, 9, 0);
+
+    @Mock
+    private GrievanceRepository grievanceRepository;
+
+    @Mock
+    private GrievanceArchive grievanceArchive;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private AnalyticsAggregateStore store;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(grievanceRepository.findSnapshotsAfter(anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(snapshot(1L, Grievance.Status.PENDING)))
+                .thenReturn(Collections.emptyList());
+        when(grievanceArchive.findSnapshotsAfter(anyLong(), anyInt())).thenReturn(Collections.emptyList());
+
+        store.seed();
+    }
+
+    @Test
+    void eventAfterHigherSequenceIsStillApplied() {
+        // Grievance 3's transaction took outbox id 10 but committed after grievance 2's (id 11)
+        stubCurrent(2L, snapshot(2L, Grievance.Status.PENDING));
+        stubCurrent(3L, snapshot(3L, Grievance.Status.PENDING));
+
+        store.onGrievanceEvent(GrievanceEvents.event(11L, GrievanceEvent.Type.CREATED, 2L));
+        store.onGrievanceEvent(GrievanceEvents.event(10L, GrievanceEvent.Type.CREATED, 3L));
+
+        assertThat(store.getTotal()).isEqualTo(3);
+        assertThat(store.getStatusCount(Grievance.Status.PENDING)).isEqualTo(3);
+    }
+
+    @Test
+    void redeliveryCountsOnce() {
+        stubCurrent(2L, snapshot(2L, Grievance.Status.PENDING));
+        GrievanceEvent created = GrievanceEvents.event(5L, GrievanceEvent.Type.CREATED, 2L);
+
+        store.onGrievanceEvent(created);
+        store.onGrievanceEvent(created);
+
+        assertThat(store.getTotal()).isEqualTo(2);
+        assertThat(store.getCategoryCounts()).containsEntry("Roads", 2L);
+    }
+
+    @Test
+    void committedStateWinsOverEventPayload() {
+        // The payload says IN_PROGRESS; a later change already resolved it
+        stubCurrent(1L, resolved(1L, 4));
+        GrievanceEvent stale = new GrievanceEvent(7L, GrievanceEvent.Type.STATUS_CHANGED, GrievanceEvents.summary(1L),
+                snapshot(1L, Grievance.Status.PENDING), snapshot(1L, Grievance.Status.IN_PROGRESS), FILED);
+
+        store.onGrievanceEvent(stale);
+
+        assertThat(store.getTotal()).isEqualTo(1);
+        assertThat(store.getStatusCount(Grievance.Status.PENDING)).isZero();
+        assertThat(store.getStatusCount(Grievance.Status.IN_PROGRESS)).isZero();
+        assertThat(store.getStatusCount(Grievance.Status.RESOLVED)).isEqualTo(1);
+        assertThat(store.getAverageResolutionDays()).isEqualTo(4.0);
+    }
+
+    @Test
+    void archivedGrievanceKeepsCounting() {
+        when(grievanceArchive.findSnapshot(1L)).thenReturn(Optional.of(resolved(1L, 2)));
+
+        store.onGrievanceEvent(GrievanceEvents.event(8L, GrievanceEvent.Type.ARCHIVED, 1L));
+
+        assertThat(store.getTotal()).isEqualTo(1);
+        assertThat(store.getStatusCount(Grievance.Status.RESOLVED)).isEqualTo(1);
+    }
+
+    @Test
+    void deletedGrievanceIsDropped() {
+        store.onGrievanceEvent(GrievanceEvents.event(9L, GrievanceEvent.Type.DELETED, 1L));
+
+        assertThat(store.getTotal()).isZero();
+        assertThat(store.getCategoryCounts()).isEmpty();
+        assertThat(store.getLocationCounts()).isEmpty();
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    private void stubCurrent(Long id, GrievanceSnapshot snapshot) {
+        when(grievanceRepository.findSnapshotById(id)).thenReturn(Optional.of(snapshot));
+    }
+
+    private static GrievanceSnapshot snapshot(Long id, Grievance.Status status) {
+        return new GrievanceSnapshot(id, "Roads", "Main Street", status, null, null, FILED, null);
+    }
+
+    private static GrievanceSnapshot resolved(Long id, int days) {
+        return new GrievanceSnapshot(id, "Roads", "Main Street", Grievance.Status.RESOLVED, null, null,
+                FILED, FILED.plusDays(days));
+    }
+}
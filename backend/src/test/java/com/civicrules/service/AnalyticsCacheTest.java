@@ -0,0 +1,160 @@
+package com.civicrules.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.Mockito.when;
+
+/**
+ * Coalesced recomputation, the stale-while-revalidate window and failed
+ * recomputations
+ */
+@ExtendWith(MockitoExtension.class)
+class AnalyticsCacheTest {
+
+    private static final String KEY = "summary";
+    private static final int CALLERS = 16;
+
+    @Mock
+    private AnalyticsAggregateStore aggregateStore;
+
+    @Mock
+    private HotspotEngine hotspotEngine;
+
+    @Mock
+    private SlaTargetService slaTargetService;
+
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicInteger computed = new AtomicInteger();
+
+    private AnalyticsCache cache;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AnalyticsCache(2);
+        ReflectionTestUtils.setField(cache, "aggregateStore", aggregateStore);
+        ReflectionTestUtils.setField(cache, "hotspotEngine", hotspotEngine);
+        ReflectionTestUtils.setField(cache, "slaTargetService", slaTargetService);
+        ReflectionTestUtils.setField(cache, "maxStaleMs", 30000L);
+        when(aggregateStore.getVersion()).thenAnswer(invocation -> version.get());
+        callers = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        cache.shutdown();
+    }
+
+    @Test
+    void parallelCallersOnAColdCacheShareOneComputation() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<AnalyticsCache.Entry<String>>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> cache.get(KEY, blockingUntil(release, "v0"))));
+        }
+        // Every caller has joined the running computation before it may finish
+        awaitStat("waits", CALLERS);
+        release.countDown();
+
+        for (Future<AnalyticsCache.Entry<String>> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS).value()).isEqualTo("v0");
+        }
+        assertThat(computed).hasValue(1);
+        assertThat(cache.getStats()).containsEntry("computations", 1L);
+    }
+
+    @Test
+    void staleEntryIsServedUntilMaxStaleThenCallersWait() throws Exception {
+        ReflectionTestUtils.setField(cache, "maxStaleMs", 300L);
+        cache.get(KEY, () -> compute("v0"));
+        version.incrementAndGet();
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Within the window: the old result at once, and one recomputation however many ask
+        for (int i = 0; i < 3; i++) {
+            assertThat(cache.get(KEY, blockingUntil(release, "v1")).value()).isEqualTo("v0");
+        }
+        assertThat(cache.getStats()).containsEntry("staleHits", 3L);
+
+        Thread.sleep(400);
+        Future<AnalyticsCache.Entry<String>> late = callers.submit(() -> cache.get(KEY, blockingUntil(release, "v1")));
+        awaitStat("waits", 2);
+        assertThat(late.isDone()).isFalse();
+
+        release.countDown();
+
+        assertThat(late.get(5, TimeUnit.SECONDS).value()).isEqualTo("v1");
+        assertThat(computed).hasValue(2);
+        assertThat(cache.get(KEY, () -> compute("v2")).value()).isEqualTo("v1");
+    }
+
+    @Test
+    void errorFromComputeReachesTheWaitingCallerAndIsRetried() {
+        Supplier<String> broken = () -> {
+            throw new LinkageError("analytics class missing");
+        };
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertThatThrownBy(() -> cache.get(KEY, broken)).isInstanceOf(LinkageError.class);
+            assertThat(cache.get(KEY, () -> compute("v0")).value()).isEqualTo("v0");
+        });
+    }
+
+    @Test
+    void callerFailsInsteadOfWaitingOnAShutDownCache() {
+        cache.shutdown();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+                assertThatThrownBy(() -> cache.get(KEY, () -> compute("v0")))
+                        .isInstanceOf(RejectedExecutionException.class));
+        assertThat(computed).hasValue(0);
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    private String compute(String value) {
+        computed.incrementAndGet();
+        return value;
+    }
+
+    private Supplier<String> blockingUntil(CountDownLatch release, String value) {
+        return () -> {
+            try {
+                assertThat(release.await(5, TimeUnit.SECONDS)).isTrue();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            return compute(value);
+        };
+    }
+
+    private void awaitStat(String name, long count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!cache.getStats().get(name).equals(count) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(cache.getStats()).containsEntry(name, count);
+    }
+}
@@ -0,0 +1,176 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.GrievanceEvent;
+import com.civicrules.dto.GrievanceFingerprint;
+import com.civicrules.dto.GrievanceSnapshot;
+import com.civicrules.model.Grievance;
+import com.civicrules.repository.GrievanceRepository;
+import com.civicrules.util.Geohash;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Master lookup, scoring, index upkeep and linking of likely duplicates
+ */
+@ExtendWith(MockitoExtension.class)
+class DuplicateDetectorTest {
+
+    private static final String TITLE = "Large pothole on MG Road";
+    private static final String DESCRIPTION = "Deep pothole near the bus stop, two-wheelers keep falling";
+
+    // Centre of a 7-character geohash cell, and that cell's width in degrees of longitude
+    private static final double[] CENTRE = Geohash.centre(Geohash.encode(12.9716, 77.5946, 7));
+    private static final double CELL_WIDTH = Geohash.cellWidth(7);
+
+    @Mock
+    private GrievanceRepository grievanceRepository;
+
+    @InjectMocks
+    private DuplicateDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(detector, "enabled", true);
+        ReflectionTestUtils.setField(detector, "windowDays", 14);
+        ReflectionTestUtils.setField(detector, "radiusMeters", 150.0);
+        ReflectionTestUtils.setField(detector, "threshold", 0.6);
+    }
+
+    @Test
+    void similarNearbyComplaintMatchesItsMaster() {
+        seed(master(1L, CENTRE[1], "a.jpg"));
+
+        assertThat(detector.findMaster(candidate(TITLE, DESCRIPTION, CENTRE[1] + 0.0001, "b.jpg")))
+                .hasValueSatisfying(match -> {
+                    assertThat(match.masterId()).isEqualTo(1L);
+                    assertThat(match.masterStatus()).isEqualTo(Grievance.Status.IN_PROGRESS);
+                    assertThat(match.score()).isGreaterThan(0.9);
+                });
+    }
+
+    @Test
+    void unrelatedTextAtTheSameSpotIsNoMatch() {
+        seed(master(1L, CENTRE[1], "a.jpg"));
+
+        assertThat(detector.findMaster(candidate("Streetlight out", "Lamp post dark since Monday",
+                CENTRE[1], "b.jpg"))).isEmpty();
+    }
+
+    @Test
+    void matchIsFoundAcrossACellBoundary() {
+        double masterLng = CENTRE[1] + 0.45 * CELL_WIDTH;
+        double candidateLng = CENTRE[1] + 0.55 * CELL_WIDTH;
+        assertThat(Geohash.encode(CENTRE[0], candidateLng, 7)).isNotEqualTo(Geohash.encode(CENTRE[0], masterLng, 7));
+        seed(master(1L, masterLng, "a.jpg"));
+
+        assertThat(detector.findMaster(candidate(TITLE, DESCRIPTION, candidateLng, "b.jpg")))
+                .hasValueSatisfying(match -> assertThat(match.masterId()).isEqualTo(1L));
+    }
+
+    @Test
+    void distantComplaintOnlyMatchesWithTheSamePhoto() {
+        seed(master(1L, CENTRE[1], "a.jpg"));
+        double farLng = CENTRE[1] + 0.05;
+
+        assertThat(detector.findMaster(candidate(TITLE, DESCRIPTION, farLng, "b.jpg"))).isEmpty();
+        assertThat(detector.findMaster(candidate(TITLE, DESCRIPTION, farLng, "a.jpg")))
+                .hasValueSatisfying(match -> assertThat(match.masterId()).isEqualTo(1L));
+    }
+
+    @Test
+    void onlyOpenMastersAreIndexed() {
+        GrievanceFingerprint resolved = fingerprint(1L, Grievance.Status.RESOLVED, null, CENTRE[1], "a.jpg",
+                LocalDateTime.now().minusDays(1));
+        GrievanceFingerprint duplicate = fingerprint(2L, Grievance.Status.PENDING, 9L, CENTRE[1], "b.jpg",
+                LocalDateTime.now().minusDays(1));
+        seed(resolved, duplicate);
+
+        assertThat(detector.size()).isZero();
+    }
+
+    @Test
+    void resolvedEventDropsTheMaster() {
+        seed(master(1L, CENTRE[1], "a.jpg"));
+        when(grievanceRepository.findFingerprintsByIdIn(List.of(1L))).thenReturn(List.of(
+                fingerprint(1L, Grievance.Status.RESOLVED, null, CENTRE[1], "a.jpg", LocalDateTime.now().minusDays(1))));
+
+        detector.onGrievanceEvent(event(1L));
+
+        assertThat(detector.findMaster(candidate(TITLE, DESCRIPTION, CENTRE[1], "b.jpg"))).isEmpty();
+    }
+
+    @Test
+    void expiryDropsGrievancesOutsideTheWindow() {
+        seed(master(1L, CENTRE[1], "a.jpg"),
+                fingerprint(2L, Grievance.Status.PENDING, null, CENTRE[1] + 0.01, "c.jpg", LocalDateTime.now().minusDays(10)));
+
+        ReflectionTestUtils.setField(detector, "windowDays", 5);
+        detector.expire();
+
+        assertThat(detector.size()).isEqualTo(1);
+        assertThat(detector.findMaster(candidate(TITLE, DESCRIPTION, CENTRE[1], "b.jpg")))
+                .hasValueSatisfying(match -> assertThat(match.masterId()).isEqualTo(1L));
+    }
+
+    @Test
+    void linkingTakesTheMastersStatusAndLeavesVerification() {
+        Grievance grievance = new Grievance();
+        grievance.setStatus(Grievance.Status.PENDING);
+        grievance.setVerificationStatus("PENDING");
+
+        new DuplicateDetector.Match(1L, Grievance.Status.IN_PROGRESS, 0.75).linkAsDuplicate(grievance);
+
+        assertThat(grievance.getMasterGrievanceId()).isEqualTo(1L);
+        assertThat(grievance.getStatus()).isEqualTo(Grievance.Status.IN_PROGRESS);
+        assertThat(grievance.getVerificationStatus()).isEqualTo("DUPLICATE");
+        assertThat(grievance.getVerificationReason()).isEqualTo("Likely duplicate of grievance #1 (similarity 0.75)");
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    private void seed(GrievanceFingerprint... fingerprints) {
+        when(grievanceRepository.findFingerprintsCreatedSince(any(), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(fingerprints))
+                .thenReturn(Collections.emptyList());
+        detector.seed();
+    }
+
+    private static GrievanceFingerprint master(Long id, double longitude, String imagePath) {
+        return fingerprint(id, Grievance.Status.IN_PROGRESS, null, longitude, imagePath, LocalDateTime.now().minusDays(1));
+    }
+
+    private static GrievanceFingerprint fingerprint(Long id, Grievance.Status status, Long masterId,
+                                                    double longitude, String imagePath, LocalDateTime createdAt) {
+        return new GrievanceFingerprint(id, TITLE, DESCRIPTION, "Roads", CENTRE[0], longitude, imagePath, null,
+                status, masterId, createdAt);
+    }
+
+    private static GrievanceFingerprint candidate(String title, String description, double longitude, String imagePath) {
+        return new GrievanceFingerprint(null, title, description, "Roads", CENTRE[0], longitude, imagePath, null,
+                Grievance.Status.PENDING, null, LocalDateTime.now());
+    }
+
+    private static GrievanceEvent event(Long id) {
+        GrievanceSnapshot snapshot = new GrievanceSnapshot(id, "Roads", "MG Road", Grievance.Status.RESOLVED,
+                CENTRE[0], CENTRE[1], LocalDateTime.now().minusDays(1), LocalDateTime.now());
+        return new GrievanceEvent(null, GrievanceEvent.Type.STATUS_CHANGED,
+                GrievanceEvents.summary(id), snapshot, snapshot, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,91 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.GeoPoint;
+import com.civicrules.dto.GrievanceEvent;
+import com.civicrules.repository.GrievanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Viewport answers and event upserts of the geo index
+ */
+@ExtendWith(MockitoExtension.class)
+class GeoIndexTest {
+
+    private static final LocalDateTime FILED = LocalDateTime.of(2024, 3, 1, 9, 0);
+
+    @Mock
+    private GrievanceRepository grievanceRepository;
+
+    @InjectMocks
+    private GeoIndex index;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(index, "pointsMinZoom", 15);
+        ReflectionTestUtils.setField(index, "maxPoints", 2000);
+        ReflectionTestUtils.setField(index, "maxCells", 1024);
+        when(grievanceRepository.findSnapshotsAfter(anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(GrievanceEvents.located(1L, 12.9716, 77.5946, FILED),
+                        GrievanceEvents.located(2L, 12.9720, 77.5950, FILED)))
+                .thenReturn(Collections.emptyList());
+
+        index.seed();
+    }
+
+    @Test
+    void zoomedOutViewportIsClustered() {
+        GeoIndex.Viewport viewport = index.within(12.0, 77.0, 13.5, 78.0, 8);
+
+        assertThat(viewport.clustered()).isTrue();
+        assertThat(viewport.total()).isEqualTo(2);
+        assertThat(viewport.clusters()).hasSize(1);
+    }
+
+    @Test
+    void zoomedInViewportListsPoints() {
+        GeoIndex.Viewport viewport = index.within(12.970, 77.594, 12.973, 77.596, 17);
+
+        assertThat(viewport.clustered()).isFalse();
+        assertThat(viewport.points()).extracting(GeoPoint::id).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void eventMovesThePointToItsCommittedPosition() {
+        when(grievanceRepository.findSnapshotById(1L))
+                .thenReturn(Optional.of(GrievanceEvents.located(1L, 13.0827, 80.2707, FILED)));
+
+        index.onGrievanceEvent(GrievanceEvents.event(GrievanceEvent.Type.STATUS_CHANGED, 1L));
+        index.onGrievanceEvent(GrievanceEvents.event(GrievanceEvent.Type.STATUS_CHANGED, 1L));
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.within(12.970, 77.594, 12.973, 77.596, 17).points())
+                .extracting(GeoPoint::id).containsExactly(2L);
+        assertThat(index.within(13.08, 80.27, 13.09, 80.28, 17).points())
+                .extracting(GeoPoint::id).containsExactly(1L);
+    }
+
+    @Test
+    void grievanceGoneFromTheTableIsRemoved() {
+        index.onGrievanceEvent(GrievanceEvents.event(GrievanceEvent.Type.DELETED, 2L));
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.within(12.0, 77.0, 13.5, 78.0, 8).total()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,194 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.GrievanceSummary;
+import com.civicrules.model.Grievance;
+import com.civicrules.repository.FeedbackRepository;
+import com.civicrules.repository.GrievanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Moving grievances and their feedback to the archive tables, against the
+ * migrated schema (H2 in MySQL mode)
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({GrievanceArchive.class, EventOutbox.class, IdentityCache.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:grievance-archive;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQLDialect",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.show-sql=false",
+        "archive.after-days=365",
+        "archive.batch-size=10"
+})
+class GrievanceArchiveTest {
+
+    private static final LocalDateTime LONG_AGO = LocalDateTime.now().minusYears(2);
+    private static final LocalDateTime RECENTLY = LocalDateTime.now().minusDays(3);
+
+    @Autowired
+    private GrievanceArchive grievanceArchive;
+
+    @SpyBean
+    private GrievanceRepository grievanceRepository;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.update("INSERT INTO users (id, name, email, password, role, created_at) "
+                + "VALUES (1, 'Citizen', 'citizen@example.com', 'x', 'CITIZEN', ?)", Timestamp.valueOf(LONG_AGO));
+        jdbc.update("INSERT INTO users (id, name, email, password, role, created_at) "
+                + "VALUES (2, 'Officer', 'officer@example.com', 'x', 'OFFICER', ?)", Timestamp.valueOf(LONG_AGO));
+    }
+
+    @Test
+    void oldResolvedGrievanceMovesWithItsFeedback() {
+        grievance(10L, Grievance.Status.RESOLVED, LONG_AGO);
+        feedback(100L, 10L, 4);
+
+        assertThat(grievanceArchive.archive()).isEqualTo(1);
+
+        assertThat(count("grievances WHERE id = 10")).isZero();
+        assertThat(count("grievances_archive WHERE id = 10")).isEqualTo(1);
+        assertThat(count("feedback WHERE id = 100")).isZero();
+        assertThat(count("feedback_archive WHERE id = 100 AND grievance_id = 10")).isEqualTo(1);
+        assertThat(count("outbox_events WHERE event_type = 'ARCHIVED' AND aggregate_id = 10")).isEqualTo(1);
+    }
+
+    @Test
+    void openOrRecentGrievancesStay() {
+        grievance(11L, Grievance.Status.PENDING, LONG_AGO);
+        grievance(12L, Grievance.Status.RESOLVED, RECENTLY);
+
+        assertThat(grievanceArchive.archive()).isZero();
+
+        assertThat(count("grievances WHERE id IN (11, 12)")).isEqualTo(2);
+        assertThat(count("grievances_archive")).isZero();
+    }
+
+    @Test
+    void candidateReopenedAfterSelectionIsLeftAlone() {
+        grievance(13L, Grievance.Status.RESOLVED, LONG_AGO);
+        grievance(14L, Grievance.Status.IN_PROGRESS, LONG_AGO);
+        feedback(101L, 14L, 1);
+        // 14 was picked while resolved, then reopened before the batch ran
+        doReturn(List.of(13L, 14L)).doReturn(List.of())
+                .when(grievanceRepository).findArchivableIds(anyCollection(), any(), any(Pageable.class));
+
+        assertThat(grievanceArchive.archive()).isEqualTo(1);
+
+        assertThat(count("grievances_archive WHERE id = 14")).isZero();
+        assertThat(count("grievances WHERE id = 14")).isEqualTo(1);
+        assertThat(count("feedback WHERE id = 101")).isEqualTo(1);
+        assertThat(count("outbox_events WHERE aggregate_id = 14")).isZero();
+    }
+
+    @Test
+    void batchShortenedByTheRecheckIsFollowedByTheNextOne() {
+        for (long id = 20; id <= 30; id++) {
+            grievance(id, Grievance.Status.RESOLVED, LONG_AGO);
+        }
+        grievance(31L, Grievance.Status.IN_PROGRESS, LONG_AGO);
+        // A full first batch in which 31 was reopened after being picked
+        doReturn(List.of(20L, 21L, 22L, 23L, 24L, 25L, 26L, 27L, 28L, 31L)).doCallRealMethod()
+                .when(grievanceRepository).findArchivableIds(anyCollection(), any(), any(Pageable.class));
+
+        assertThat(grievanceArchive.archive()).isEqualTo(11);
+
+        assertThat(count("grievances_archive WHERE id BETWEEN 20 AND 30")).isEqualTo(11);
+        assertThat(count("grievances WHERE id = 31")).isEqualTo(1);
+    }
+
+    @Test
+    void archivedGrievanceReadsLikeAnActiveOne() {
+        grievance(15L, Grievance.Status.RESOLVED, LONG_AGO);
+        grievanceArchive.archive();
+
+        Grievance archived = grievanceArchive.findGrievance(15L).orElseThrow();
+
+        assertThat(archived.getTitle()).isEqualTo("Grievance 15");
+        assertThat(archived.getStatus()).isEqualTo(Grievance.Status.RESOLVED);
+        assertThat(archived.getUser().getEmail()).isEqualTo("citizen@example.com");
+        assertThat(archived.getAssignedTo().getEmail()).isEqualTo("officer@example.com");
+        assertThat(grievanceArchive.findGrievance(99L)).isEmpty();
+    }
+
+    @Test
+    void archivedSummariesCarryTheirMaster() {
+        grievance(18L, Grievance.Status.RESOLVED, LONG_AGO);
+        grievance(19L, Grievance.Status.RESOLVED, LONG_AGO);
+        jdbc.update("UPDATE grievances SET master_grievance_id = 18 WHERE id = 19");
+        grievanceArchive.archive();
+
+        List<GrievanceSummary> summaries = grievanceArchive.findSummariesAfter(
+                LONG_AGO.minusDays(1), LocalDateTime.now(), Long.MAX_VALUE, 10);
+
+        assertThat(summaries).extracting(GrievanceSummary::id, GrievanceSummary::masterGrievanceId)
+                .containsExactlyInAnyOrder(tuple(18L, null), tuple(19L, 18L));
+    }
+
+    @Test
+    void ratingsAndResolvedCountsIncludeTheArchive() {
+        grievance(16L, Grievance.Status.RESOLVED, LONG_AGO);
+        grievance(17L, Grievance.Status.RESOLVED, RECENTLY);
+        feedback(102L, 16L, 5);
+        feedback(103L, 17L, 5);
+        grievanceArchive.archive();
+
+        assertThat(grievanceArchive.countByStatus(Grievance.Status.RESOLVED)).isEqualTo(1);
+        assertThat(feedbackRepository.countByRating()).singleElement().satisfies(row -> {
+            assertThat(row.getRating()).isEqualTo(5);
+            assertThat(row.getTotal()).isEqualTo(2);
+        });
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    private void grievance(Long id, Grievance.Status status, LocalDateTime at) {
+        jdbc.update("INSERT INTO grievances (id, title, category, location, status, citizen_id, assigned_to, "
+                        + "created_at, updated_at, resolved_at) VALUES (?, ?, 'Roads', 'Main Street', ?, 1, 2, ?, ?, ?)",
+                id, "Grievance " + id, status.name(), Timestamp.valueOf(at), Timestamp.valueOf(at),
+                status == Grievance.Status.RESOLVED ? Timestamp.valueOf(at) : null);
+    }
+
+    private void feedback(Long id, Long grievanceId, int rating) {
+        jdbc.update("INSERT INTO feedback (id, grievance_id, user_id, rating, is_reopened, created_at) "
+                + "VALUES (?, ?, 1, ?, FALSE, ?)", id, grievanceId, rating, Timestamp.valueOf(LONG_AGO));
+    }
+
+    private long count(String from) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM " + from, Long.class);
+    }
+}
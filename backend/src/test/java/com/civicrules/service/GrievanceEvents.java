@@ -0,0 +1,38 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.GrievanceEvent;
+import com.civicrules.dto.GrievanceSnapshot;
+import com.civicrules.dto.GrievanceSummary;
+import com.civicrules.model.Grievance;
+
+import java.time.LocalDateTime;
+
+/**
+ * Events and rows for the tests of the event-driven indexes, which take only
+ * the grievance id from an event and re-read the row themselves
+ */
+final class GrievanceEvents {
+
+    private static final LocalDateTime FILED = LocalDateTime.of(2024, 3, 1, 9, 0);
+
+    private GrievanceEvents() {
+    }
+
+    static GrievanceEvent event(GrievanceEvent.Type type, Long id) {
+        return event(null, type, id);
+    }
+
+    static GrievanceEvent event(Long sequence, GrievanceEvent.Type type, Long id) {
+        return new GrievanceEvent(sequence, type, summary(id), null, null, FILED);
+    }
+
+    static GrievanceSummary summary(Long id) {
+        return new GrievanceSummary(id, "Pothole", "Roads", null, "Main Street", Grievance.Status.PENDING,
+                FILED, null, null, null, null, null, null, null, null, null, null, null);
+    }
+
+    static GrievanceSnapshot located(Long id, double latitude, double longitude, LocalDateTime createdAt) {
+        return new GrievanceSnapshot(id, "Roads", "Main Street", Grievance.Status.PENDING,
+                latitude, longitude, createdAt, null);
+    }
+}
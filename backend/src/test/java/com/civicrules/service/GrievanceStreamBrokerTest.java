@@ -0,0 +1,141 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.GrievanceEvent;
+import com.civicrules.dto.GrievanceSummary;
+import com.civicrules.model.Grievance;
+import com.civicrules.service.GrievanceStreamBroker.Audience;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GrievanceStreamBrokerTest {
+
+    private GrievanceStreamBroker broker;
+
+    @BeforeEach
+    void setUp() {
+        broker = new GrievanceStreamBroker();
+        ReflectionTestUtils.setField(broker, "timeoutMs", 60000L);
+        ReflectionTestUtils.setField(broker, "replaySize", 4);
+        ReflectionTestUtils.setField(broker, "queueCapacity", 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        broker.shutdown();
+    }
+
+    @Test
+    void stalledSubscriberDoesNotHoldUpOthers() throws Exception {
+        RecordingEmitter stalled = new RecordingEmitter(new CountDownLatch(1));
+        RecordingEmitter healthy = new RecordingEmitter(null);
+        broker.register(stalled, Audience.admin(), null);
+        broker.register(healthy, Audience.admin(), null);
+
+        for (long id = 1; id <= 3; id++) {
+            broker.onGrievanceEvent(event(id, 1L));
+        }
+
+        healthy.awaitSends(3);
+        assertThat(stalled.sent).isEmpty();
+        assertThat(healthy.sent).hasSize(3);
+        stalled.release.countDown();
+    }
+
+    @Test
+    void subscriberFallingBehindIsDisconnected() throws Exception {
+        RecordingEmitter stalled = new RecordingEmitter(new CountDownLatch(1));
+        RecordingEmitter healthy = new RecordingEmitter(null);
+        broker.register(stalled, Audience.admin(), null);
+        broker.register(healthy, Audience.admin(), null);
+
+        // The first event is being written to the stalled client, the next four fill
+        // its queue and the sixth overflows it; the healthy client keeps up throughout
+        broker.onGrievanceEvent(event(1L, 1L));
+        assertThat(stalled.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        for (long id = 1; id <= 6; id++) {
+            if (id > 1) {
+                broker.onGrievanceEvent(event(id, 1L));
+            }
+            healthy.awaitSends((int) id);
+        }
+
+        awaitSubscribers(1);
+        assertThat(healthy.sent).hasSize(6);
+        assertThat(broker.getSubscriberCount()).isEqualTo(1);
+        stalled.release.countDown();
+    }
+
+    @Test
+    void eventsReachOnlyTheirAudience() throws Exception {
+        RecordingEmitter citizen = new RecordingEmitter(null);
+        broker.register(citizen, Audience.citizen(7L), null);
+
+        broker.onGrievanceEvent(event(1L, 8L));
+        broker.onGrievanceEvent(event(2L, 7L));
+
+        citizen.awaitSends(1);
+        Thread.sleep(100);
+        assertThat(citizen.sent).hasSize(1);
+    }
+
+    private void awaitSubscribers(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (broker.getSubscriberCount() != count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static GrievanceEvent event(long grievanceId, long citizenId) {
+        GrievanceSummary summary = new GrievanceSummary(grievanceId, "Pothole", "Road", "", "MG Road",
+                Grievance.Status.PENDING, LocalDateTime.now(), null, null, "PENDING", null, false, null,
+                null, citizenId, "Citizen", null, null);
+        return new GrievanceEvent(grievanceId, GrievanceEvent.Type.CREATED, summary, null, null, LocalDateTime.now());
+    }
+
+    /**
+     * Records sends; with a latch, the first send blocks until released (a client that stopped reading)
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        final List<SseEventBuilder> sent = new CopyOnWriteArrayList<>();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release;
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            entered.countDown();
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            sent.add(builder);
+        }
+
+        void awaitSends(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (sent.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+    }
+}
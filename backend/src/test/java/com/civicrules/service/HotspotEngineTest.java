@@ -0,0 +1,109 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.AnalyticsDTO.RedZone;
+import com.civicrules.dto.GrievanceEvent;
+import com.civicrules.dto.GrievanceSnapshot;
+import com.civicrules.repository.GrievanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Red zone density under late, repeated and removing events, and as the window slides
+ */
+@ExtendWith(MockitoExtension.class)
+class HotspotEngineTest {
+
+    private static final LocalDateTime RECENT = LocalDateTime.now().minusDays(1);
+
+    @Mock
+    private GrievanceRepository grievanceRepository;
+
+    @InjectMocks
+    private HotspotEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(engine, "cellDegrees", 0.005);
+        ReflectionTestUtils.setField(engine, "windowDays", 30);
+        ReflectionTestUtils.setField(engine, "topN", 10);
+        ReflectionTestUtils.setField(engine, "minCount", 3);
+        when(grievanceRepository.findLocatedSnapshotsCreatedSince(any(), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(located(1L, RECENT), located(2L, RECENT)))
+                .thenReturn(Collections.emptyList());
+
+        engine.seed();
+    }
+
+    @Test
+    void belowMinimumCountIsNoZone() {
+        assertThat(engine.getRedZones()).isEmpty();
+    }
+
+    @Test
+    void lateEventCompletesAZone() {
+        when(grievanceRepository.findSnapshotById(3L)).thenReturn(Optional.of(located(3L, RECENT)));
+
+        engine.onGrievanceEvent(GrievanceEvents.event(GrievanceEvent.Type.CREATED, 3L));
+
+        assertThat(engine.getRedZones()).singleElement()
+                .extracting(RedZone::getComplaintCount).isEqualTo(3L);
+    }
+
+    @Test
+    void redeliveredEventCountsOnce() {
+        when(grievanceRepository.findSnapshotById(2L)).thenReturn(Optional.of(located(2L, RECENT)));
+
+        engine.onGrievanceEvent(GrievanceEvents.event(GrievanceEvent.Type.STATUS_CHANGED, 2L));
+        engine.onGrievanceEvent(GrievanceEvents.event(GrievanceEvent.Type.STATUS_CHANGED, 2L));
+
+        assertThat(engine.getRedZones()).isEmpty();
+    }
+
+    @Test
+    void removedGrievanceLeavesTheZone() {
+        when(grievanceRepository.findSnapshotById(3L)).thenReturn(Optional.of(located(3L, RECENT)));
+        engine.onGrievanceEvent(GrievanceEvents.event(GrievanceEvent.Type.CREATED, 3L));
+
+        engine.onGrievanceEvent(GrievanceEvents.event(GrievanceEvent.Type.DELETED, 1L));
+
+        assertThat(engine.getRedZones()).isEmpty();
+    }
+
+    @Test
+    void grievanceAgingOutOfTheWindowLeavesTheZone() {
+        when(grievanceRepository.findSnapshotById(3L))
+                .thenReturn(Optional.of(located(3L, LocalDateTime.now().minusDays(10))));
+        engine.onGrievanceEvent(GrievanceEvents.event(GrievanceEvent.Type.CREATED, 3L));
+        assertThat(engine.getRedZones()).hasSize(1);
+
+        ReflectionTestUtils.setField(engine, "windowDays", 5);
+        engine.expire();
+
+        assertThat(engine.getRedZones()).isEmpty();
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    // A few metres apart, all in one grid cell
+    private static GrievanceSnapshot located(Long id, LocalDateTime createdAt) {
+        return GrievanceEvents.located(id, 12.9716 + id * 0.0001, 77.5946, createdAt);
+    }
+}
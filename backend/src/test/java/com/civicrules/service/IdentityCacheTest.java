@@ -0,0 +1,103 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.UserChangedEvent;
+import com.civicrules.model.User;
+import com.civicrules.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Locale;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Email lookups through the identity near-cache
+ */
+@ExtendWith(MockitoExtension.class)
+class IdentityCacheTest {
+
+    private static final Locale TURKISH = Locale.forLanguageTag("tr-TR");
+
+    @Mock
+    private UserRepository userRepository;
+
+    private IdentityCache cache;
+
+    private Locale defaultLocale;
+
+    @BeforeEach
+    void setUp() {
+        defaultLocale = Locale.getDefault();
+        cache = new IdentityCache(100, 300);
+        ReflectionTestUtils.setField(cache, "userRepository", userRepository);
+    }
+
+    @AfterEach
+    void restoreLocale() {
+        Locale.setDefault(defaultLocale);
+    }
+
+    @Test
+    void emailWithCapitalIIsCachedUnderATurkishLocale() {
+        Locale.setDefault(TURKISH);
+        // The database matches emails case-insensitively
+        User user = user(1L, "ADMIN@CITY.ORG");
+        when(userRepository.findByEmail("admin@city.org")).thenReturn(Optional.of(user));
+
+        assertThat(cache.findUserByEmail("admin@city.org")).containsSame(user);
+        assertThat(cache.findUserByEmail("admin@city.org")).containsSame(user);
+
+        verify(userRepository, times(1)).findByEmail("admin@city.org");
+    }
+
+    @Test
+    void changedEmailIsLookedUpAgain() {
+        User user = user(1L, "old@city.org");
+        when(userRepository.findByEmail("old@city.org")).thenReturn(Optional.of(user));
+        cache.findUserByEmail("old@city.org");
+
+        user.setEmail("new@city.org");
+        when(userRepository.findByEmail("old@city.org")).thenReturn(Optional.empty());
+
+        assertThat(cache.findUserByEmail("old@city.org")).isEmpty();
+    }
+
+    @Test
+    void movedOfficerHasTheNewDepartmentOnceUsersChange() {
+        User officer = user(3L, "officer@city.org");
+        officer.setRole(User.Role.OFFICER);
+        officer.setDepartment("Road");
+        User moved = user(3L, "officer@city.org");
+        moved.setRole(User.Role.OFFICER);
+        moved.setDepartment("Water");
+        when(userRepository.findById(3L)).thenReturn(Optional.of(officer), Optional.of(moved));
+
+        assertThat(cache.findOfficerDepartment(3L)).contains("Road");
+        assertThat(cache.findOfficerDepartment(3L)).contains("Road");
+
+        cache.onUserChanged(UserChangedEvent.all());
+
+        assertThat(cache.findOfficerDepartment(3L)).contains("Water");
+        verify(userRepository, times(2)).findById(3L);
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    private static User user(Long id, String email) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        return user;
+    }
+}
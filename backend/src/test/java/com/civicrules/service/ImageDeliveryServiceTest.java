@@ -0,0 +1,158 @@
+package com.civicrules.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.lenient;
+
+/**
+ * Conditional and byte-range handling of image responses
+ */
+@ExtendWith(MockitoExtension.class)
+class ImageDeliveryServiceTest {
+
+    private static final String NAME = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef.png";
+    private static final String ETAG = "\"0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef\"";
+
+    @TempDir
+    Path uploads;
+
+    @Mock
+    private ImageStorageService imageStorageService;
+
+    @InjectMocks
+    private ImageDeliveryService delivery;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path file = uploads.resolve(NAME);
+        Files.writeString(file, "0123456789", StandardCharsets.US_ASCII);
+        lenient().when(imageStorageService.resolve(NAME)).thenReturn(file);
+    }
+
+    @Test
+    void wholeFileWithoutRange() throws IOException {
+        MockHttpServletResponse response = serve(request(null));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo("0123456789");
+        assertThat(response.getContentType()).isEqualTo("image/png");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(ETAG);
+    }
+
+    @Test
+    void boundedRange() throws IOException {
+        MockHttpServletResponse response = serve("bytes=2-5");
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 2-5/10");
+        assertThat(response.getContentAsString()).isEqualTo("2345");
+        assertThat(response.getContentLengthLong()).isEqualTo(4);
+    }
+
+    @Test
+    void openEndedAndClampedRanges() throws IOException {
+        assertThat(serve("bytes=7-").getContentAsString()).isEqualTo("789");
+
+        MockHttpServletResponse clamped = serve("bytes=8-100");
+        assertThat(clamped.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 8-9/10");
+        assertThat(clamped.getContentAsString()).isEqualTo("89");
+    }
+
+    @Test
+    void suffixRange() throws IOException {
+        assertThat(serve("bytes=-3").getContentAsString()).isEqualTo("789");
+        // Longer than the file: the whole file
+        assertThat(serve("bytes=-50").getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 0-9/10");
+    }
+
+    @Test
+    void unsatisfiableRanges() throws IOException {
+        for (String range : new String[]{"bytes=10-", "bytes=12-20", "bytes=-0"}) {
+            MockHttpServletResponse response = serve(range);
+            assertThat(response.getStatus()).as(range).isEqualTo(416);
+            assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).as(range).isEqualTo("bytes */10");
+        }
+    }
+
+    @Test
+    void unsupportedOrMalformedRangesSendWholeFile() throws IOException {
+        for (String range : new String[]{"bytes=0-1,4-5", "items=0-1", "bytes=a-b", "bytes=5"}) {
+            MockHttpServletResponse response = serve(range);
+            assertThat(response.getStatus()).as(range).isEqualTo(200);
+            assertThat(response.getContentAsString()).as(range).isEqualTo("0123456789");
+        }
+    }
+
+    @Test
+    void lastBeforeFirstIsIgnoredNotUnsatisfiable() throws IOException {
+        MockHttpServletResponse response = serve("bytes=5-3");
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isNull();
+        assertThat(response.getContentAsString()).isEqualTo("0123456789");
+    }
+
+    @Test
+    void ifRangeWithStaleValidatorSendsWholeFile() throws IOException {
+        MockHttpServletRequest request = request("bytes=0-1");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"other\"");
+        MockHttpServletResponse stale = serve(request);
+        assertThat(stale.getStatus()).isEqualTo(200);
+
+        request = request("bytes=0-1");
+        request.addHeader(HttpHeaders.IF_RANGE, ETAG);
+        assertThat(serve(request).getStatus()).isEqualTo(206);
+    }
+
+    @Test
+    void matchingEtagIsNotModified() throws IOException {
+        MockHttpServletRequest request = request(null);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "W/" + ETAG);
+
+        MockHttpServletResponse response = serve(request);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void unknownNameIsNotFound() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        delivery.serve("missing.png", new MockHttpServletRequest("GET", "/uploads/missing.png"), response);
+
+        assertThat(response.getStatus()).isEqualTo(404);
+    }
+
+    private MockHttpServletResponse serve(String range) throws IOException {
+        return serve(request(range));
+    }
+
+    private MockHttpServletResponse serve(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        delivery.serve(NAME, request, response);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String range) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/" + NAME);
+        if (range != null) {
+            request.addHeader(HttpHeaders.RANGE, range);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,280 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.GrievanceEvent;
+import com.civicrules.dto.GrievanceFingerprint;
+import com.civicrules.model.Grievance;
+import com.civicrules.repository.GrievanceRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Difference hashes of stored uploads, the late photo match and the bounded
+ * thumbnail queue
+ */
+class ImageIngestionServiceTest {
+
+    @TempDir
+    Path uploads;
+
+    private ImageStorageService storage;
+
+    private GrievanceRepository grievanceRepository;
+
+    private DuplicateDetector duplicateDetector;
+
+    private EventOutbox eventOutbox;
+
+    private ImageIngestionService ingestion;
+
+    @BeforeEach
+    void setUp() {
+        storage = Mockito.mock(ImageStorageService.class);
+        when(storage.resolve(anyString())).thenAnswer(invocation -> uploads.resolve(invocation.<String>getArgument(0)));
+        grievanceRepository = Mockito.mock(GrievanceRepository.class);
+        duplicateDetector = Mockito.mock(DuplicateDetector.class);
+        eventOutbox = Mockito.mock(EventOutbox.class);
+        TransactionTemplate transactionTemplate = Mockito.mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        ingestion = new ImageIngestionService(1, 1);
+        ReflectionTestUtils.setField(ingestion, "imageStorageService", storage);
+        ReflectionTestUtils.setField(ingestion, "grievanceRepository", grievanceRepository);
+        ReflectionTestUtils.setField(ingestion, "duplicateDetector", duplicateDetector);
+        ReflectionTestUtils.setField(ingestion, "eventOutbox", eventOutbox);
+        ReflectionTestUtils.setField(ingestion, "transactionTemplate", transactionTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ingestion.shutdown();
+    }
+
+    @Test
+    void fullQueueDropsTheThumbnailInsteadOfRunningItOnTheCaller() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        when(storage.derivativeName(anyString(), anyString(), anyString())).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            release.await(5, TimeUnit.SECONDS);
+            return "thumb.jpg";
+        });
+
+        // One worker and one queue slot: the third upload has nowhere to go
+        ingestion.generateDerivativesAsync(1L, "a.png");
+        ingestion.generateDerivativesAsync(2L, "b.png");
+        ingestion.generateDerivativesAsync(3L, "c.png");
+
+        assertThat(ingestion.getDroppedCount()).isEqualTo(1);
+        release.countDown();
+        ingestion.shutdown();
+        assertThat(((ThreadPoolExecutor) ReflectionTestUtils.getField(ingestion, "executor"))
+                .awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(threads).allMatch(name -> name.startsWith("image-ingest-"));
+    }
+
+    @Test
+    void skippedUploadsAreQueuedAgainWithinHalfTheFreeQueue() throws InterruptedException {
+        ingestion.shutdown();
+        ingestion = new ImageIngestionService(1, 4);
+        ReflectionTestUtils.setField(ingestion, "imageStorageService", storage);
+        ReflectionTestUtils.setField(ingestion, "grievanceRepository", grievanceRepository);
+        ReflectionTestUtils.setField(ingestion, "retryWindowHours", 24L);
+        ReflectionTestUtils.setField(ingestion, "retryGraceMinutes", 5L);
+        CountDownLatch processed = new CountDownLatch(2);
+        when(storage.derivativeName(anyString(), anyString(), anyString())).thenAnswer(invocation -> {
+            processed.countDown();
+            return "thumb.jpg";
+        });
+        when(grievanceRepository.findMissingDerivatives(any(), any(), any())).thenReturn(List.of(
+                fingerprint(1L, "a.png"), fingerprint(2L, "b.png")));
+
+        assertThat(ingestion.requeueMissing()).isEqualTo(2);
+
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(grievanceRepository).findMissingDerivatives(any(), any(), page.capture());
+        assertThat(page.getValue().getPageSize()).isEqualTo(2);
+        assertThat(processed.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void unverifiedGrievanceIsMatchedAgainWithItsPhoto() throws IOException {
+        write(scene(42, 800, 600), "png", "photo.png");
+        Grievance grievance = grievance(5L, "PENDING");
+        when(grievanceRepository.findForUpdate(5L)).thenReturn(Optional.of(grievance));
+        when(duplicateDetector.findMaster(any()))
+                .thenReturn(Optional.of(new DuplicateDetector.Match(3L, Grievance.Status.IN_PROGRESS, 0.8)));
+
+        ingestion.recordImageHash(5L, "photo.png");
+
+        ArgumentCaptor<GrievanceFingerprint> matched = ArgumentCaptor.forClass(GrievanceFingerprint.class);
+        verify(duplicateDetector).findMaster(matched.capture());
+        assertThat(matched.getValue().imageHash()).isEqualTo(ingestion.differenceHash("photo.png"));
+        assertThat(grievance.getMasterGrievanceId()).isEqualTo(3L);
+        assertThat(grievance.getVerificationStatus()).isEqualTo("DUPLICATE");
+        assertThat(grievance.getStatus()).isEqualTo(Grievance.Status.IN_PROGRESS);
+        ArgumentCaptor<GrievanceEvent> event = ArgumentCaptor.forClass(GrievanceEvent.class);
+        verify(eventOutbox).append(event.capture());
+        assertThat(event.getValue().type()).isEqualTo(GrievanceEvent.Type.VERIFIED);
+        verify(duplicateDetector).register(any());
+    }
+
+    @Test
+    void verifiedGrievanceOnlyGetsItsHash() throws IOException {
+        write(scene(42, 800, 600), "png", "photo.png");
+        Grievance grievance = grievance(5L, "APPROVED");
+        when(grievanceRepository.findForUpdate(5L)).thenReturn(Optional.of(grievance));
+
+        ingestion.recordImageHash(5L, "photo.png");
+
+        assertThat(grievance.getImageHash()).isEqualTo(ingestion.differenceHash("photo.png"));
+        assertThat(grievance.getMasterGrievanceId()).isNull();
+        verify(duplicateDetector, never()).findMaster(any());
+        verifyNoInteractions(eventOutbox);
+        verify(duplicateDetector).register(any());
+    }
+
+    @Test
+    void masterWithDuplicatesIsNotRelinked() throws IOException {
+        write(scene(42, 800, 600), "png", "photo.png");
+        when(grievanceRepository.findForUpdate(5L)).thenReturn(Optional.of(grievance(5L, "PENDING")));
+        when(grievanceRepository.existsByMasterGrievanceId(5L)).thenReturn(true);
+
+        ingestion.recordImageHash(5L, "photo.png");
+
+        verify(duplicateDetector, never()).findMaster(any());
+        verifyNoInteractions(eventOutbox);
+    }
+
+    @Test
+    void resizedJpegCopyDiffersInFewBits() throws IOException {
+        BufferedImage photo = scene(42, 800, 600);
+        write(photo, "png", "original.png");
+        write(resize(photo, 320, 240), "jpg", "copy.jpg");
+
+        assertThat(distance(ingestion.differenceHash("original.png"), ingestion.differenceHash("copy.jpg")))
+                .isLessThanOrEqualTo(6);
+    }
+
+    @Test
+    void differentPhotosDifferInManyBits() throws IOException {
+        write(scene(42, 800, 600), "png", "first.png");
+        write(scene(7, 800, 600), "png", "second.png");
+
+        assertThat(distance(ingestion.differenceHash("first.png"), ingestion.differenceHash("second.png")))
+                .isGreaterThanOrEqualTo(16);
+    }
+
+    @Test
+    void sameImageHashesTheSame() throws IOException {
+        write(scene(42, 800, 600), "png", "original.png");
+
+        assertThat(ingestion.differenceHash("original.png")).isEqualTo(ingestion.differenceHash("original.png"));
+    }
+
+    @Test
+    void undecodableFileHasNoHash() throws IOException {
+        Files.writeString(uploads.resolve("notes.png"), "not an image");
+
+        assertThat(ingestion.differenceHash("notes.png")).isNull();
+        assertThat(ingestion.differenceHash("missing.png")).isNull();
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    private static Grievance grievance(Long id, String verificationStatus) {
+        Grievance grievance = new Grievance();
+        grievance.setId(id);
+        grievance.setTitle("Pothole");
+        grievance.setCategory("Roads");
+        grievance.setImagePath("photo.png");
+        grievance.setStatus(Grievance.Status.PENDING);
+        grievance.setVerificationStatus(verificationStatus);
+        grievance.setCreatedAt(LocalDateTime.now());
+        return grievance;
+    }
+
+    private static GrievanceFingerprint fingerprint(Long id, String imagePath) {
+        return new GrievanceFingerprint(id, "Pothole", null, "Roads", null, null, imagePath, null,
+                Grievance.Status.PENDING, null, LocalDateTime.now().minusHours(1));
+    }
+
+    /**
+     * Blocks of random grey levels: enough structure for a stable hash
+     */
+    private static BufferedImage scene(long seed, int width, int height) {
+        Random random = new Random(seed);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            int cellWidth = width / 9;
+            int cellHeight = height / 8;
+            for (int y = 0; y < 8; y++) {
+                for (int x = 0; x < 9; x++) {
+                    int grey = random.nextInt(256);
+                    g.setColor(new Color(grey, grey, grey));
+                    g.fillRect(x * cellWidth, y * cellHeight, cellWidth + 1, cellHeight + 1);
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    private static BufferedImage resize(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private void write(BufferedImage image, String format, String name) throws IOException {
+        assertThat(ImageIO.write(image, format, uploads.resolve(name).toFile())).isTrue();
+    }
+
+    private static int distance(Long a, Long b) {
+        assertThat(a).isNotNull();
+        assertThat(b).isNotNull();
+        return Long.bitCount(a ^ b);
+    }
+}
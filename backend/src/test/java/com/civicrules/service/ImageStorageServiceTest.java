@@ -0,0 +1,125 @@
+package com.civicrules.service;
+
+import com.civicrules.model.StoredBlob;
+import com.civicrules.repository.StoredBlobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ImageStorageServiceTest {
+
+    private static final byte[] PHOTO = "same photo bytes".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path uploads;
+
+    @Mock
+    private StoredBlobRepository storedBlobRepository;
+
+    @InjectMocks
+    private ImageStorageService storage;
+
+    // stored_blobs, by hash
+    private final Map<String, StoredBlob> blobs = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(storage, "uploadPath", uploads.toString());
+        lenient().when(storedBlobRepository.incrementRefCount(anyString())).thenAnswer(call -> {
+            StoredBlob blob = blobs.get(call.<String>getArgument(0));
+            if (blob == null) {
+                return 0;
+            }
+            blob.setRefCount(blob.getRefCount() + 1);
+            return 1;
+        });
+        lenient().when(storedBlobRepository.save(any(StoredBlob.class))).thenAnswer(call -> {
+            StoredBlob blob = call.getArgument(0);
+            blobs.put(blob.getHash(), blob);
+            return blob;
+        });
+        lenient().when(storedBlobRepository.findById(anyString()))
+                .thenAnswer(call -> Optional.ofNullable(blobs.get(call.<String>getArgument(0))));
+    }
+
+    @Test
+    void sameBytesUnderAnotherExtensionShareOneBlob() throws IOException {
+        String first = storage.store(new MockMultipartFile("image", "a.jpg", "image/jpeg", PHOTO));
+        String second = storage.store(new MockMultipartFile("image", "b.jpeg", "image/jpeg", PHOTO));
+        String third = storage.store(new MockMultipartFile("image", "c.JPEG", null, PHOTO));
+
+        assertThat(second).isEqualTo(first);
+        assertThat(third).isEqualTo(first);
+        assertThat(storedFiles()).containsExactly(storage.resolve(first));
+        assertThat(blobs).hasSize(1);
+        assertThat(blobs.values().iterator().next().getRefCount()).isEqualTo(3);
+    }
+
+    @Test
+    void laterUploadsReuseTheExtensionOfTheStoredBlob() throws IOException {
+        String first = storage.store(new MockMultipartFile("image", "scan.png", "image/png", PHOTO));
+        String second = storage.store(new MockMultipartFile("image", "scan.jpg", "image/jpeg", PHOTO));
+
+        assertThat(first).endsWith(".png");
+        assertThat(second).isEqualTo(first);
+        assertThat(storedFiles()).hasSize(1);
+    }
+
+    @Test
+    void failedMoveGivesTheReferenceBack() throws Exception {
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(PHOTO));
+        // A file where the shard directory belongs makes the move fail
+        Files.createFile(uploads.resolve(hash.substring(0, 2)));
+
+        assertThatThrownBy(() -> storage.store(new MockMultipartFile("image", "a.jpg", "image/jpeg", PHOTO)))
+                .isInstanceOf(IOException.class);
+
+        verify(storedBlobRepository).decrementRefCount(eq(hash), any(LocalDateTime.class));
+    }
+
+    @Test
+    void extensionFollowsContentTypeWithOneSpellingPerType() {
+        assertThat(ImageStorageService.extensionOf("image/jpeg", "photo.jpeg")).isEqualTo("jpg");
+        assertThat(ImageStorageService.extensionOf("image/jpg", "photo")).isEqualTo("jpg");
+        assertThat(ImageStorageService.extensionOf("image/png", "photo.jpg")).isEqualTo("png");
+        assertThat(ImageStorageService.extensionOf(null, "photo.JPEG")).isEqualTo("jpg");
+        assertThat(ImageStorageService.extensionOf("application/octet-stream", "photo.gif")).isEqualTo("gif");
+        assertThat(ImageStorageService.extensionOf(null, "../../etc/passwd")).isEqualTo("jpg");
+    }
+
+    private List<Path> storedFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(uploads)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(file -> !file.getParent().getFileName().toString().equals("tmp"))
+                    .toList();
+        }
+    }
+}
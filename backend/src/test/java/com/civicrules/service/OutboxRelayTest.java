@@ -0,0 +1,138 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.GrievanceEvent;
+import com.civicrules.model.OutboxEvent;
+import com.civicrules.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Ordering and retry behaviour of the outbox relay
+ */
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private EventOutbox eventOutbox;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(relay, "batchSize", 100);
+        ReflectionTestUtils.setField(relay, "maxAttempts", 3);
+    }
+
+    @Test
+    void deliversInIdOrderAndMarksTheBatch() throws Exception {
+        List<OutboxEvent> rows = rows(1, 2, 3);
+        when(outboxEventRepository.findByPublishedAtIsNullOrderByIdAsc(any(Pageable.class))).thenReturn(rows);
+        List<GrievanceEvent> events = stubRead(rows);
+
+        relay.relay();
+
+        InOrder order = inOrder(eventPublisher);
+        for (GrievanceEvent event : events) {
+            order.verify(eventPublisher).publishEvent(event);
+        }
+        verify(outboxEventRepository).markPublished(eq(List.of(1L, 2L, 3L)), any(LocalDateTime.class));
+    }
+
+    @Test
+    void failingEventHoldsBackTheOnesBehindIt() throws Exception {
+        List<OutboxEvent> rows = rows(1, 2, 3);
+        when(outboxEventRepository.findByPublishedAtIsNullOrderByIdAsc(any(Pageable.class))).thenReturn(rows);
+        List<GrievanceEvent> events = stubRead(rows.subList(0, 2));
+        lenient().doThrow(new IllegalStateException("listener down")).when(eventPublisher).publishEvent(events.get(1));
+
+        relay.relay();
+
+        verify(eventPublisher, never()).publishEvent(argThatHasSequence(3L));
+        verify(outboxEventRepository).markPublished(eq(List.of(1L)), any(LocalDateTime.class));
+        verify(outboxEventRepository).incrementAttempts(2L);
+    }
+
+    @Test
+    void eventIsSkippedAfterMaxAttempts() throws Exception {
+        List<OutboxEvent> rows = rows(1, 2);
+        rows.get(0).setAttempts(2);
+        when(outboxEventRepository.findByPublishedAtIsNullOrderByIdAsc(any(Pageable.class))).thenReturn(rows);
+        when(eventOutbox.read(rows.get(0))).thenThrow(new IllegalStateException("unreadable"));
+        when(eventOutbox.read(rows.get(1))).thenReturn(event(2L));
+
+        relay.relay();
+
+        verify(eventPublisher).publishEvent(event(2L));
+        verify(outboxEventRepository).markPublished(eq(List.of(1L, 2L)), any(LocalDateTime.class));
+        verify(outboxEventRepository, never()).incrementAttempts(anyLong());
+    }
+
+    @Test
+    void emptyOutboxDoesNothing() {
+        when(outboxEventRepository.findByPublishedAtIsNullOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+
+        relay.relay();
+
+        verifyNoInteractions(eventPublisher);
+        verify(outboxEventRepository, never()).markPublished(any(), any());
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    private static List<OutboxEvent> rows(long... ids) {
+        List<OutboxEvent> rows = new ArrayList<>();
+        for (long id : ids) {
+            OutboxEvent row = new OutboxEvent("STATUS_CHANGED", id, "{}");
+            row.setId(id);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private List<GrievanceEvent> stubRead(List<OutboxEvent> rows) throws Exception {
+        List<GrievanceEvent> events = new ArrayList<>();
+        for (OutboxEvent row : rows) {
+            GrievanceEvent event = event(row.getId());
+            when(eventOutbox.read(row)).thenReturn(event);
+            events.add(event);
+        }
+        return events;
+    }
+
+    private static GrievanceEvent event(Long sequence) {
+        return new GrievanceEvent(sequence, GrievanceEvent.Type.STATUS_CHANGED, null, null, null,
+                LocalDateTime.of(2024, 1, 1, 0, 0));
+    }
+
+    private static Object argThatHasSequence(Long sequence) {
+        return argThat(event -> event instanceof GrievanceEvent e && sequence.equals(e.sequence()));
+    }
+}
@@ -0,0 +1,102 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.UserChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hashing of legacy plaintext passwords in every table that stores one
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PasswordHashBackfill.class, CredentialService.class})
+@RecordApplicationEvents
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:password-backfill;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQLDialect",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.show-sql=false",
+        "auth.bcrypt.strength=4"
+})
+class PasswordHashBackfillTest {
+
+    @Autowired
+    private PasswordHashBackfill backfill;
+
+    @Autowired
+    private CredentialService credentialService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Test
+    void plaintextIsHashedInEveryTable() {
+        jdbc.update("INSERT INTO users (id, name, email, password, role, created_at) "
+                + "VALUES (1, 'Citizen', 'citizen@example.com', 'secret1', 'CITIZEN', CURRENT_TIMESTAMP)");
+        jdbc.update("INSERT INTO citizens (id, email, name, password) VALUES (1, 'citizen@example.com', 'Citizen', 'secret1')");
+        jdbc.update("INSERT INTO admin (id, email, full_name, password) VALUES (1, 'admin@example.com', 'Admin', 'secret2')");
+        jdbc.update("INSERT INTO officer (id, email, password) VALUES (1, 'officer@example.com', 'secret3')");
+        jdbc.update("INSERT INTO officer (id, email, password) VALUES (2, 'nopassword@example.com', NULL)");
+
+        backfill.run(new DefaultApplicationArguments());
+
+        assertVerifies("users", 1, "secret1");
+        assertVerifies("citizens", 1, "secret1");
+        assertVerifies("admin", 1, "secret2");
+        assertVerifies("officer", 1, "secret3");
+        assertThat(password("officer", 2)).isNull();
+        assertThat(events.stream(UserChangedEvent.class)).containsExactly(UserChangedEvent.all());
+    }
+
+    @Test
+    void existingHashesAreLeftAsTheyAre() {
+        String hash = credentialService.hash("secret1");
+        jdbc.update("INSERT INTO citizens (id, email, name, password) VALUES (1, 'citizen@example.com', 'Citizen', ?)", hash);
+
+        assertThat(backfill.hashPlaintext("citizens")).isZero();
+
+        assertThat(password("citizens", 1)).isEqualTo(hash);
+    }
+
+    @Test
+    void walksPastOnePage() {
+        for (int id = 1; id <= 1200; id++) {
+            jdbc.update("INSERT INTO admin (id, email, full_name, password) VALUES (?, ?, 'Admin', 'secret')",
+                    id, "admin" + id + "@example.com");
+        }
+
+        assertThat(backfill.hashPlaintext("admin")).isEqualTo(1200);
+
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM admin WHERE password = 'secret'", Long.class)).isZero();
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    private void assertVerifies(String table, long id, String rawPassword) {
+        String stored = password(table, id);
+        assertThat(credentialService.isHashed(stored)).as(table).isTrue();
+        assertThat(credentialService.verify(rawPassword, stored).matches()).as(table).isTrue();
+    }
+
+    private String password(String table, long id) {
+        return jdbc.queryForObject("SELECT password FROM " + table + " WHERE id = ?", String.class, id);
+    }
+}
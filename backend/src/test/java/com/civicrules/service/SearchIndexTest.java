@@ -0,0 +1,148 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.GrievanceEvent;
+import com.civicrules.dto.GrievanceSearchDocument;
+import com.civicrules.model.Grievance;
+import com.civicrules.repository.GrievanceRepository;
+import com.civicrules.repository.OutboxEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Event handling and restart catch-up of the search index
+ */
+@ExtendWith(MockitoExtension.class)
+class SearchIndexTest {
+
+    private static final LocalDateTime FILED = LocalDateTime.of(2024, 3, 1, 9, 0);
+
+    @TempDir
+    Path indexPath;
+
+    @Mock
+    private GrievanceRepository grievanceRepository;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    private final List<SearchIndex> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (SearchIndex index : opened) {
+            index.shutdown();
+        }
+    }
+
+    @Test
+    void lateEventIsIndexed() throws Exception {
+        SearchIndex index = open(24);
+        stubById(document(2L, "Broken streetlight"));
+        stubById(document(3L, "Overflowing drain"));
+
+        index.onGrievanceEvent(event(11L, 2L));
+        index.onGrievanceEvent(event(10L, 3L));
+        index.refresh();
+
+        assertThat(hitIds(index, "streetlight")).containsExactly(2L);
+        assertThat(hitIds(index, "drain")).containsExactly(3L);
+    }
+
+    @Test
+    void restartReReadsGrievancesPublishedSinceTheLastCommit() throws Exception {
+        when(grievanceRepository.findSearchDocumentsAfter(anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(document(1L, "Pothole on Main Street")))
+                .thenReturn(Collections.emptyList());
+        LocalDateTime beforeCommit = LocalDateTime.now();
+        close(open(24));
+
+        when(outboxEventRepository.findAggregateIdsPublishedSince(any())).thenReturn(List.of(1L));
+        stubById(document(1L, "Pothole filled, road resurfaced"));
+        SearchIndex restarted = open(24);
+
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxEventRepository).findAggregateIdsPublishedSince(since.capture());
+        assertThat(since.getValue()).isBefore(beforeCommit);
+        // Only the first start rebuilt
+        verify(grievanceRepository, times(1)).findSearchDocumentsAfter(anyLong(), any(Pageable.class));
+        assertThat(hitIds(restarted, "resurfaced")).containsExactly(1L);
+    }
+
+    @Test
+    void commitOlderThanOutboxRetentionRebuilds() throws Exception {
+        close(open(24));
+
+        open(0);
+
+        verify(outboxEventRepository, never()).findAggregateIdsPublishedSince(any());
+        verify(grievanceRepository, times(2)).findSearchDocumentsAfter(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void outboxBehindTheCommitRebuilds() throws Exception {
+        when(outboxEventRepository.findMaxId()).thenReturn(500L);
+        close(open(24));
+
+        when(outboxEventRepository.findMaxId()).thenReturn(0L);
+        open(24);
+
+        verify(outboxEventRepository, never()).findAggregateIdsPublishedSince(any());
+        verify(grievanceRepository, times(2)).findSearchDocumentsAfter(anyLong(), any(Pageable.class));
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    private SearchIndex open(long retentionHours) {
+        SearchIndex index = new SearchIndex();
+        ReflectionTestUtils.setField(index, "grievanceRepository", grievanceRepository);
+        ReflectionTestUtils.setField(index, "outboxEventRepository", outboxEventRepository);
+        ReflectionTestUtils.setField(index, "indexPath", indexPath.toString());
+        ReflectionTestUtils.setField(index, "retentionHours", retentionHours);
+        ReflectionTestUtils.setField(index, "maxResults", 100);
+        index.afterSingletonsInstantiated();
+        opened.add(index);
+        return index;
+    }
+
+    private void close(SearchIndex index) throws Exception {
+        index.shutdown();
+        opened.remove(index);
+    }
+
+    private void stubById(GrievanceSearchDocument document) {
+        when(grievanceRepository.findSearchDocumentsByIdIn(List.of(document.id()))).thenReturn(List.of(document));
+    }
+
+    private static List<Long> hitIds(SearchIndex index, String text) throws Exception {
+        return index.search(text, null, null, 0, 10).hits().stream().map(SearchIndex.Hit::id).toList();
+    }
+
+    private static GrievanceSearchDocument document(Long id, String title) {
+        return new GrievanceSearchDocument(id, title, null, "Main Street", "Roads", null,
+                Grievance.Status.PENDING, FILED);
+    }
+
+    private static GrievanceEvent event(Long sequence, Long id) {
+        return GrievanceEvents.event(sequence, GrievanceEvent.Type.CREATED, id);
+    }
+}
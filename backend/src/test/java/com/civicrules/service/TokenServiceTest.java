@@ -0,0 +1,107 @@
+package com.civicrules.service;
+
+import com.civicrules.dto.AuthPrincipal;
+import com.civicrules.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenServiceTest {
+
+    private static final String SECRET = "test-secret-0123456789-abcdefghijklmnop";
+
+    private final TokenService tokens = new TokenService(new ObjectMapper(), SECRET, 3_600_000);
+
+    @Test
+    void issuedTokenVerifiesToTheUser() {
+        AuthPrincipal principal = tokens.verify(tokens.issue(officer())).orElseThrow();
+
+        assertThat(principal.userId()).isEqualTo(7L);
+        assertThat(principal.email()).isEqualTo("officer@example.com");
+        assertThat(principal.role()).isEqualTo(User.Role.OFFICER);
+        assertThat(principal.department()).isEqualTo("Roads");
+    }
+
+    @Test
+    void alteredClaimsAreRejected() {
+        String[] parts = tokens.issue(officer()).split("\\.");
+        String claims = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                .replace("\"OFFICER\"", "\"ADMIN\"");
+        String forged = parts[0] + "." + encode(claims) + "." + parts[2];
+
+        assertThat(tokens.verify(forged)).isEmpty();
+    }
+
+    @Test
+    void unsignedHeaderIsRejected() {
+        String[] parts = tokens.issue(officer()).split("\\.");
+        String none = encode("{\"alg\":\"none\",\"typ\":\"JWT\"}") + "." + parts[1] + ".";
+
+        assertThat(tokens.verify(none)).isEmpty();
+        assertThat(tokens.verify(encode("{\"alg\":\"none\",\"typ\":\"JWT\"}") + "." + parts[1] + "." + parts[2]))
+                .isEmpty();
+    }
+
+    @Test
+    void tokenFromAnotherSecretIsRejected() {
+        TokenService other = new TokenService(new ObjectMapper(), SECRET + "-other", 3_600_000);
+
+        assertThat(tokens.verify(other.issue(officer()))).isEmpty();
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        TokenService shortLived = new TokenService(new ObjectMapper(), SECRET, 0);
+
+        assertThat(shortLived.verify(shortLived.issue(officer()))).isEmpty();
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        assertThat(tokens.verify(null)).isEmpty();
+        assertThat(tokens.verify("")).isEmpty();
+        assertThat(tokens.verify("a.b")).isEmpty();
+        assertThat(tokens.verify("a.b.c.d")).isEmpty();
+        assertThat(tokens.verify("!!.??.**")).isEmpty();
+    }
+
+    @Test
+    void missingSecretFailsStartup() {
+        assertThatThrownBy(() -> new TokenService(new ObjectMapper(), "", 3_600_000))
+                .isInstanceOf(IllegalStateException.class).hasMessageContaining("JWT_SECRET");
+        assertThatThrownBy(() -> new TokenService(new ObjectMapper(), null, 3_600_000))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void sampleSecretFailsStartup() {
+        assertThatThrownBy(() -> new TokenService(new ObjectMapper(), TokenService.SAMPLE_SECRET, 3_600_000))
+                .isInstanceOf(IllegalStateException.class).hasMessageContaining("sample");
+    }
+
+    @Test
+    void shortSecretFailsStartup() {
+        assertThatThrownBy(() -> new TokenService(new ObjectMapper(), "too-short", 3_600_000))
+                .isInstanceOf(IllegalStateException.class).hasMessageContaining("256 bits");
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    private static User officer() {
+        User user = new User("Officer", "officer@example.com", "hash", User.Role.OFFICER);
+        user.setId(7L);
+        user.setDepartment("Roads");
+        return user;
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,82 @@
+package com.civicrules.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class GeohashTest {
+
+    @Test
+    void encodesKnownPoint() {
+        assertThat(Geohash.encode(57.64911, 10.40744, 11)).isEqualTo("u4pruydqqvj");
+        assertThat(Geohash.encode(57.64911, 10.40744, 5)).isEqualTo("u4pru");
+    }
+
+    @Test
+    void finerHashExtendsCoarserOne() {
+        String coarse = Geohash.encode(12.9716, 77.5946, 5);
+        String fine = Geohash.encode(12.9716, 77.5946, 7);
+
+        assertThat(fine).startsWith(coarse);
+    }
+
+    @Test
+    void missingOrOutOfRangeCoordinatesHaveNoHash() {
+        assertThat(Geohash.encode(null, 10.0, 7)).isNull();
+        assertThat(Geohash.encode(91.0, 10.0, 7)).isNull();
+        assertThat(Geohash.encode(10.0, -181.0, 7)).isNull();
+        assertThat(Geohash.encode(10.0, 10.0, Geohash.MAX_PRECISION + 1)).isNull();
+    }
+
+    @Test
+    void centreLiesInsideTheCell() {
+        String hash = Geohash.encode(12.9716, 77.5946, 7);
+        double[] centre = Geohash.centre(hash);
+
+        assertThat(centre[0]).isCloseTo(12.9716, within(Geohash.cellHeight(7) / 2));
+        assertThat(centre[1]).isCloseTo(77.5946, within(Geohash.cellWidth(7) / 2));
+        assertThat(Geohash.encode(centre[0], centre[1], 7)).isEqualTo(hash);
+    }
+
+    @Test
+    void centreRejectsInvalidCharacters() {
+        assertThatThrownBy(() -> Geohash.centre("u4pa")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void neighbourhoodIsTheCellAndItsEightNeighbours() {
+        String hash = Geohash.encode(12.9716, 77.5946, 6);
+
+        List<String> cells = Geohash.neighbourhood(hash);
+
+        assertThat(cells).hasSize(9).doesNotHaveDuplicates().contains(hash)
+                .allSatisfy(cell -> assertThat(cell).hasSize(6));
+    }
+
+    @Test
+    void neighbourhoodWrapsAtTheAntimeridianAndStopsAtThePoles() {
+        String east = Geohash.encode(0.0, 179.99, 4);
+        assertThat(Geohash.neighbourhood(east)).contains(Geohash.encode(0.0, -179.99, 4));
+
+        String north = Geohash.encode(89.99, 0.0, 4);
+        assertThat(Geohash.neighbourhood(north)).hasSize(6);
+    }
+
+    @Test
+    void cellSizesHalveAlternately() {
+        assertThat(Geohash.cellWidth(1)).isEqualTo(45.0);
+        assertThat(Geohash.cellHeight(1)).isEqualTo(45.0);
+        assertThat(Geohash.cellWidth(2)).isEqualTo(11.25);
+        assertThat(Geohash.cellHeight(2)).isEqualTo(5.625);
+    }
+
+    @Test
+    void distanceOfOneDegreeOfLatitude() {
+        assertThat(Geohash.distanceMeters(0, 0, 1, 0)).isCloseTo(111_195, within(1.0));
+        assertThat(Geohash.distanceMeters(12.97, 77.59, 12.97, 77.59)).isZero();
+    }
+}
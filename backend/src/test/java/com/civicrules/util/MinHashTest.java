@@ -0,0 +1,78 @@
+package com.civicrules.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * MinHash signatures and their Jaccard estimate
+ */
+class MinHashTest {
+
+    private static final String POTHOLE = "Large pothole on MG Road near the bus stop, two-wheelers keep falling";
+
+    @Test
+    void identicalTextIsFullySimilar() {
+        assertThat(MinHash.signature(POTHOLE)).hasSize(MinHash.SIGNATURE_LENGTH);
+        assertThat(MinHash.similarity(MinHash.signature(POTHOLE), MinHash.signature(POTHOLE))).isEqualTo(1.0);
+    }
+
+    @Test
+    void caseSpacingAndPunctuationAreIgnored() {
+        assertThat(MinHash.signature("Street-light not working!")).isEqualTo(MinHash.signature("streetlight NOT working"));
+    }
+
+    @Test
+    void textWithoutLettersOrDigitsHasNoSignature() {
+        assertThat(MinHash.signature(null)).isNull();
+        assertThat(MinHash.signature(" -- !! ")).isNull();
+        assertThat(MinHash.similarity(null, MinHash.signature(POTHOLE))).isZero();
+    }
+
+    @Test
+    void shortTextIsOneShingle() {
+        assertThat(MinHash.similarity(MinHash.signature("Tree"), MinHash.signature("tree."))).isEqualTo(1.0);
+        assertThat(MinHash.similarity(MinHash.signature("Tree"), MinHash.signature("Trees"))).isLessThan(1.0);
+    }
+
+    @Test
+    void estimateTracksTheExactJaccardSimilarity() {
+        String reworded = "Big pothole on MG Road near the bus stop, two wheelers keep falling into it";
+        String unrelated = "Garbage has not been collected in sector 4 for over a week";
+
+        // 64 positions: the standard error of the estimate is at most 1/16
+        assertThat(MinHash.similarity(MinHash.signature(POTHOLE), MinHash.signature(reworded)))
+                .isCloseTo(jaccard(POTHOLE, reworded), within(0.2));
+        assertThat(MinHash.similarity(MinHash.signature(POTHOLE), MinHash.signature(unrelated)))
+                .isCloseTo(jaccard(POTHOLE, unrelated), within(0.2));
+        assertThat(MinHash.similarity(MinHash.signature(POTHOLE), MinHash.signature(reworded)))
+                .isGreaterThan(MinHash.similarity(MinHash.signature(POTHOLE), MinHash.signature(unrelated)));
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    private static double jaccard(String a, String b) {
+        Set<String> left = shingles(a);
+        Set<String> right = shingles(b);
+        Set<String> union = new HashSet<>(left);
+        union.addAll(right);
+        left.retainAll(right);
+        return (double) left.size() / union.size();
+    }
+
+    private static Set<String> shingles(String text) {
+        String normalized = text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]", "");
+        Set<String> shingles = new HashSet<>();
+        for (int i = 0; i + 4 <= normalized.length(); i++) {
+            shingles.add(normalized.substring(i, i + 4));
+        }
+        return shingles;
+    }
+}